@@ -26,6 +26,9 @@ CREATE TABLE IF NOT EXISTS `data_source_config` (
     `username` VARCHAR(100) NOT NULL COMMENT '用户名',
     `password_encrypted` VARCHAR(512) NOT NULL COMMENT '必须加密存储',
     `status` TINYINT NOT NULL DEFAULT 1 COMMENT '1:启用 0:禁用',
+    `pool_max_size` INT NULL COMMENT '连接池最大连接数，为空使用全局默认值',
+    `pool_min_idle` INT NULL COMMENT '连接池最小空闲连接数，为空使用全局默认值',
+    `pool_connection_timeout_ms` INT NULL COMMENT '获取连接超时时间(毫秒)，为空使用全局默认值',
     `deleted` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除 0正常 1删除',
     `create_time` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     `update_time` TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
@@ -88,6 +91,46 @@ CREATE TABLE IF NOT EXISTS `sys_config` (
     description VARCHAR(255)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
 
+-- 事件消费位点表（按位点消费模式使用）
+CREATE TABLE IF NOT EXISTS `sync_checkpoint` (
+    `checkpoint_id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+    `source_id` BIGINT NOT NULL,
+    `consumer_name` VARCHAR(50) NOT NULL DEFAULT 'default' COMMENT '消费者名称，多个同步实例各自记录进度',
+    `last_event_id` BIGINT NOT NULL DEFAULT 0 COMMENT '该 ID 及之前的事件均已处理',
+    `update_time` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY `uk_source_consumer` (`source_id`, `consumer_name`),
+    FOREIGN KEY (`source_id`) REFERENCES `data_source_config`(`source_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 位点消费的失败记录表：事件在某个目标库上失败时记录一行，位点越过该事件后据此重试，送达后删除
+CREATE TABLE IF NOT EXISTS `sync_checkpoint_failure` (
+    `failure_id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+    `source_id` BIGINT NOT NULL,
+    `consumer_name` VARCHAR(50) NOT NULL DEFAULT 'default',
+    `event_id` BIGINT NOT NULL COMMENT '源库 sync_event.id',
+    `target_id` BIGINT NOT NULL COMMENT '写入失败的目标库',
+    `error_msg` TEXT,
+    `retry_count` INT NOT NULL DEFAULT 0 COMMENT '已重试次数',
+    `next_retry_time` TIMESTAMP NULL COMMENT '下一次自动重试的时间',
+    `create_time` TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '首次失败时间，超过 24 小时不再自动重试',
+    `update_time` TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    UNIQUE KEY `uk_source_consumer_event_target` (`source_id`, `consumer_name`, `event_id`, `target_id`),
+    KEY `idx_next_retry` (`source_id`, `consumer_name`, `next_retry_time`),
+    FOREIGN KEY (`source_id`) REFERENCES `data_source_config`(`source_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+-- 事件送达记录表：事件在部分目标库失败时，记录已成功送达的目标库，重试时跳过这些目标库
+CREATE TABLE IF NOT EXISTS `sync_delivery` (
+    `delivery_id` BIGINT AUTO_INCREMENT PRIMARY KEY,
+    `source_id` BIGINT NOT NULL,
+    `event_id` BIGINT NOT NULL COMMENT '源库 sync_event.id',
+    `target_id` BIGINT NOT NULL COMMENT '已送达的目标库',
+    `create_time` TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY `uk_source_event_target` (`source_id`, `event_id`, `target_id`),
+    KEY `idx_create_time` (`create_time`),
+    FOREIGN KEY (`source_id`) REFERENCES `data_source_config`(`source_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
 
 INSERT IGNORE INTO `sys_config` (config_key, config_value, description)
 VALUES ('sync.cron', '0 0 1 * * ?', '周期同步Cron表达式');
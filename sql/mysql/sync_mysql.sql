@@ -1,20 +1,32 @@
 USE VirtualCampus;
 
--- 创建事件表
+-- 创建事件表：按 op_time 天分区，过期且已全部同步的分区由同步服务整块删除（或先归档）
+-- 分区表的主键必须包含分区列；p_future 兜底未预建分区的日期，同步服务定时从中拆出后续几天的分区
 DROP TABLE IF EXISTS sync_event;
 CREATE TABLE sync_event (
-    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    id BIGINT AUTO_INCREMENT,
     table_name VARCHAR(64) NOT NULL,
     op_type VARCHAR(20) NOT NULL COMMENT 'INSERT, UPDATE, DELETE',
     pk_column_name VARCHAR(64) NOT NULL,
     pk_value VARCHAR(255) NOT NULL,
     status TINYINT DEFAULT 0 COMMENT '0:未同步 1:已同步 2:失败',
-    op_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    op_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
     source_db_type VARCHAR(32) NOT NULL COMMENT '源数据库类型',
     error_msg TEXT COMMENT '错误日志',
     data_version INT NOT NULL COMMENT '乐观锁版本号',
-    INDEX idx_status (status)
-) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+    payload JSON NULL COMMENT '行镜像，触发器开启行镜像时写入',
+    changed_columns VARCHAR(4000) NULL COMMENT 'UPDATE 实际变化的列，逗号分隔',
+    PRIMARY KEY (id, op_time),
+    INDEX idx_status_id (status, id)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4
+PARTITION BY RANGE COLUMNS (op_time) (
+    PARTITION p_future VALUES LESS THAN (MAXVALUE)
+);
+
+-- 归档表（可选）：开启 event-archive-enabled 时，分区删除前先把其中的事件复制到这里
+DROP TABLE IF EXISTS sync_event_archive;
+CREATE TABLE sync_event_archive LIKE sync_event;
+ALTER TABLE sync_event_archive REMOVE PARTITIONING;
 
 -- 创建触发器
 DELIMITER $$
@@ -295,4 +307,48 @@ CREATE TRIGGER trg_orders_delete AFTER DELETE ON orders FOR EACH ROW BEGIN
         VALUES ('orders', 'DELETE', 'order_id', CAST(OLD.order_id AS CHAR), 0, NOW(), 'MYSQL', OLD.sync_version);
     END IF;
 END $$
-DELIMITER ;
\ No newline at end of file
+DELIMITER ;
+
+-- 心跳表：同步服务定期用业务账号更新本库对应的行 (id = 数据源 ID, beat_at = 毫秒时间戳)，
+-- 经触发器像普通表一样同步到各目标库，用于测量端到端复制延迟；每个参与同步的库都需要这张表
+DROP TABLE IF EXISTS sync_heartbeat;
+CREATE TABLE sync_heartbeat (
+    id BIGINT PRIMARY KEY COMMENT '数据源 ID',
+    beat_at BIGINT NOT NULL COMMENT '心跳写入时间（毫秒时间戳）',
+    sync_version INT NOT NULL DEFAULT 0
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4;
+
+DELIMITER $$
+-- [MySQL] sync_heartbeat 乐观锁触发器
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_before_update $$
+CREATE TRIGGER trg_sync_heartbeat_before_update BEFORE UPDATE ON sync_heartbeat FOR EACH ROW BEGIN
+    IF SUBSTRING_INDEX(USER(),'@',1) != 'dbsyncer' THEN
+        SET NEW.sync_version = OLD.sync_version + 1;
+    END IF;
+END $$
+
+-- [MySQL] sync_heartbeat 同步日志触发器
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_insert $$
+CREATE TRIGGER trg_sync_heartbeat_insert AFTER INSERT ON sync_heartbeat FOR EACH ROW BEGIN
+    IF SUBSTRING_INDEX(USER(),'@',1) != 'dbsyncer' THEN
+        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+        VALUES ('sync_heartbeat', 'INSERT', 'id', CAST(NEW.id AS CHAR), 0, NOW(), 'MYSQL', NEW.sync_version);
+    END IF;
+END $$
+
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_update $$
+CREATE TRIGGER trg_sync_heartbeat_update AFTER UPDATE ON sync_heartbeat FOR EACH ROW BEGIN
+    IF SUBSTRING_INDEX(USER(),'@',1) != 'dbsyncer' THEN
+        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+        VALUES ('sync_heartbeat', 'UPDATE', 'id', CAST(NEW.id AS CHAR), 0, NOW(), 'MYSQL', NEW.sync_version);
+    END IF;
+END $$
+
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_delete $$
+CREATE TRIGGER trg_sync_heartbeat_delete AFTER DELETE ON sync_heartbeat FOR EACH ROW BEGIN
+    IF SUBSTRING_INDEX(USER(),'@',1) != 'dbsyncer' THEN
+        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+        VALUES ('sync_heartbeat', 'DELETE', 'id', CAST(OLD.id AS CHAR), 0, NOW(), 'MYSQL', OLD.sync_version);
+    END IF;
+END $$
+DELIMITER ;
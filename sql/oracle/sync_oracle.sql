@@ -5,6 +5,7 @@ EXCEPTION
 END;
 /
 
+-- 事件表：按 op_time 间隔分区，每天的分区在写入时自动创建；过期且已全部同步的分区由同步服务整块删除（或先归档）
 CREATE TABLE sync_event (
     id NUMBER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
     table_name VARCHAR2(64) NOT NULL,
@@ -12,12 +13,27 @@ CREATE TABLE sync_event (
     pk_column_name VARCHAR2(64) NOT NULL,
     pk_value VARCHAR2(255) NOT NULL,
     status NUMBER DEFAULT 0,
-    op_time DATE DEFAULT SYSDATE,
+    op_time DATE DEFAULT SYSDATE NOT NULL,
     source_db_type VARCHAR2(32) NOT NULL,
     error_msg VARCHAR2(1024),
-    data_version NUMBER(10) NOT NULL
+    data_version NUMBER(10) NOT NULL,
+    payload CLOB,
+    changed_columns VARCHAR2(4000)
+)
+PARTITION BY RANGE (op_time) INTERVAL (NUMTODSINTERVAL(1, 'DAY')) (
+    PARTITION p_start VALUES LESS THAN (DATE '2024-01-01')
 );
-CREATE INDEX idx_sync_status ON sync_event(status);
+CREATE INDEX idx_sync_status_id ON sync_event(status, id) LOCAL;
+
+-- 归档表（可选）：开启 event-archive-enabled 时，分区删除前先把其中的事件复制到这里
+BEGIN
+EXECUTE IMMEDIATE 'DROP TABLE sync_event_archive';
+EXCEPTION
+    WHEN OTHERS THEN IF SQLCODE != -00942 THEN RAISE; END IF;
+END;
+/
+
+CREATE TABLE sync_event_archive AS SELECT * FROM sync_event WHERE 1 = 0;
 
 
 -- [Oracle] users 版本维护 (BEFORE UPDATE)
@@ -314,4 +330,56 @@ BEGIN
         VALUES ('orders', v_op, 'order_id', v_pk, 0, SYSDATE, 'ORACLE', v_ver);
     END IF;
 END;
-/
\ No newline at end of file
+/
+
+-- 心跳表：同步服务定期用业务账号更新本库对应的行 (id = 数据源 ID, beat_at = 毫秒时间戳)，
+-- 经触发器像普通表一样同步到各目标库，用于测量端到端复制延迟；每个参与同步的库都需要这张表
+BEGIN
+EXECUTE IMMEDIATE 'DROP TABLE sync_heartbeat';
+EXCEPTION
+    WHEN OTHERS THEN IF SQLCODE != -00942 THEN RAISE; END IF;
+END;
+/
+
+CREATE TABLE sync_heartbeat (
+    id NUMBER(19) PRIMARY KEY,
+    beat_at NUMBER(19) NOT NULL,
+    sync_version NUMBER(10) DEFAULT 0 NOT NULL
+);
+
+-- [Oracle] sync_heartbeat 版本维护 (BEFORE UPDATE)
+CREATE OR REPLACE TRIGGER trg_sync_heartbeat_ver
+BEFORE UPDATE ON sync_heartbeat FOR EACH ROW
+DECLARE
+    v_user VARCHAR2(50);
+BEGIN
+    SELECT SYS_CONTEXT('USERENV', 'SESSION_USER') INTO v_user FROM DUAL;
+    IF v_user != UPPER('dbsyncer') THEN
+        :NEW.sync_version := :OLD.sync_version + 1;
+    END IF;
+END;
+/
+
+-- [Oracle] sync_heartbeat 同步日志 (AFTER I/U/D)
+CREATE OR REPLACE TRIGGER trg_sync_heartbeat_sync
+AFTER INSERT OR UPDATE OR DELETE ON sync_heartbeat FOR EACH ROW
+DECLARE
+    v_op VARCHAR2(10);
+    v_pk VARCHAR2(255);
+    v_ver NUMBER;
+    v_user VARCHAR2(50);
+BEGIN
+    SELECT SYS_CONTEXT('USERENV', 'SESSION_USER') INTO v_user FROM DUAL;
+    IF v_user != UPPER('dbsyncer') THEN
+        IF INSERTING THEN
+            v_op := 'INSERT'; v_pk := TO_CHAR(:NEW.id); v_ver := :NEW.sync_version;
+        ELSIF UPDATING THEN
+            v_op := 'UPDATE'; v_pk := TO_CHAR(:NEW.id); v_ver := :NEW.sync_version;
+        ELSIF DELETING THEN
+            v_op := 'DELETE'; v_pk := TO_CHAR(:OLD.id); v_ver := :OLD.sync_version;
+        END IF;
+        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+        VALUES ('sync_heartbeat', v_op, 'id', v_pk, 0, SYSDATE, 'ORACLE', v_ver);
+    END IF;
+END;
+/
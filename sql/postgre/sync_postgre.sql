@@ -1,18 +1,39 @@
--- 1. 创建同步事件表
+-- 1. 创建同步事件表：按 op_time 天分区，过期且已全部同步的分区由同步服务整块删除（或先归档）
+-- 分区表的主键必须包含分区列；同步服务定时预建后续几天的分区，默认分区兜底未预建分区的日期
+DROP TABLE IF EXISTS sync_event_archive;
 DROP TABLE IF EXISTS sync_event;
 CREATE TABLE sync_event (
-    id SERIAL PRIMARY KEY,
+    id BIGSERIAL,
     table_name VARCHAR(64) NOT NULL,
     op_type VARCHAR(10) NOT NULL CHECK (op_type IN ('INSERT','UPDATE','DELETE')),
     pk_column_name VARCHAR(64) NOT NULL,
     pk_value VARCHAR(255) NOT NULL,
     status INT DEFAULT 0,
-    op_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    op_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     source_db_type VARCHAR(32) NOT NULL,
     error_msg VARCHAR(1024),
-    data_version INT NOT NULL
-);
-CREATE INDEX idx_sync_status ON sync_event(status);
+    data_version INT NOT NULL,
+    payload TEXT,
+    changed_columns TEXT,
+    PRIMARY KEY (id, op_time)
+) PARTITION BY RANGE (op_time);
+CREATE INDEX idx_sync_status_id ON sync_event(status, id);
+CREATE TABLE sync_event_default PARTITION OF sync_event DEFAULT;
+
+-- 预建今天起 3 天的分区，之后由同步服务维护
+DO $$
+DECLARE
+    d DATE;
+BEGIN
+    FOR i IN 0..3 LOOP
+        d := CURRENT_DATE + i;
+        EXECUTE format('CREATE TABLE IF NOT EXISTS sync_event_p%s PARTITION OF sync_event FOR VALUES FROM (%L) TO (%L)',
+                       to_char(d, 'YYYYMMDD'), d, d + 1);
+    END LOOP;
+END $$;
+
+-- 归档表（可选）：开启 event-archive-enabled 时，分区删除前先把其中的事件复制到这里
+CREATE TABLE sync_event_archive (LIKE sync_event);
 
 
 -- [PG] 1. 通用版本自增函数
@@ -31,6 +52,7 @@ DECLARE
     current_pk_value VARCHAR;
     current_version BIGINT;
     pk_col_name VARCHAR;
+    new_event_id BIGINT;
 BEGIN
     IF CURRENT_USER = 'dbsyncer' THEN RETURN NULL; END IF;
     pk_col_name := TG_ARGV[0];
@@ -46,7 +68,10 @@ BEGIN
     END IF;
 
     INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
-    VALUES (TG_TABLE_NAME, TG_OP, pk_col_name, current_pk_value, 0, NOW(), 'POSTGRESQL', current_version);
+    VALUES (TG_TABLE_NAME, TG_OP, pk_col_name, current_pk_value, 0, NOW(), 'POSTGRESQL', current_version)
+    RETURNING id INTO new_event_id;
+    -- 通知同步引擎有新事件（事务提交后才会送达）
+    PERFORM pg_notify('dbsyncer_sync_event', new_event_id::TEXT);
     RETURN NULL;
 END;
 $$ LANGUAGE plpgsql;
@@ -121,4 +146,21 @@ CREATE TRIGGER trg_orders_ver BEFORE UPDATE ON orders
 
 DROP TRIGGER IF EXISTS trg_orders_sync ON orders;
 CREATE TRIGGER trg_orders_sync AFTER INSERT OR UPDATE OR DELETE ON orders
-    FOR EACH ROW EXECUTE FUNCTION notify_sync_event('order_id');
\ No newline at end of file
+    FOR EACH ROW EXECUTE FUNCTION notify_sync_event('order_id');
+
+-- 心跳表：同步服务定期用业务账号更新本库对应的行 (id = 数据源 ID, beat_at = 毫秒时间戳)，
+-- 经触发器像普通表一样同步到各目标库，用于测量端到端复制延迟；每个参与同步的库都需要这张表
+DROP TABLE IF EXISTS sync_heartbeat;
+CREATE TABLE sync_heartbeat (
+    id BIGINT PRIMARY KEY,
+    beat_at BIGINT NOT NULL,
+    sync_version INT NOT NULL DEFAULT 0
+);
+
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_ver ON sync_heartbeat;
+CREATE TRIGGER trg_sync_heartbeat_ver BEFORE UPDATE ON sync_heartbeat
+    FOR EACH ROW EXECUTE FUNCTION increment_version();
+
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_sync ON sync_heartbeat;
+CREATE TRIGGER trg_sync_heartbeat_sync AFTER INSERT OR UPDATE OR DELETE ON sync_heartbeat
+    FOR EACH ROW EXECUTE FUNCTION notify_sync_event('id');
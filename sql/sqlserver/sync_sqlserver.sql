@@ -0,0 +1,114 @@
+-- 事件表：按 op_time 天分区（RANGE RIGHT，边界值为每天 0 点），过期且已全部同步的分区由同步服务整块清空并合并（或先归档）
+-- 同步服务定时拆分出后续几天的分区；最后一个分区兜底未预建边界的日期
+-- 各表的触发器由 TriggerGenerator 生成
+IF OBJECT_ID('sync_event_archive', 'U') IS NOT NULL DROP TABLE sync_event_archive;
+IF OBJECT_ID('sync_event', 'U') IS NOT NULL DROP TABLE sync_event;
+IF EXISTS (SELECT 1 FROM sys.partition_schemes WHERE name = 'ps_sync_event_day') DROP PARTITION SCHEME ps_sync_event_day;
+IF EXISTS (SELECT 1 FROM sys.partition_functions WHERE name = 'pf_sync_event_day') DROP PARTITION FUNCTION pf_sync_event_day;
+GO
+
+DECLARE @today DATE = CAST(GETDATE() AS DATE);
+DECLARE @sql NVARCHAR(MAX) = N'CREATE PARTITION FUNCTION pf_sync_event_day (DATETIME) AS RANGE RIGHT FOR VALUES (' +
+        QUOTENAME(CONVERT(CHAR(8), @today, 112), '''') + N', ' +
+        QUOTENAME(CONVERT(CHAR(8), DATEADD(DAY, 1, @today), 112), '''') + N', ' +
+        QUOTENAME(CONVERT(CHAR(8), DATEADD(DAY, 2, @today), 112), '''') + N', ' +
+        QUOTENAME(CONVERT(CHAR(8), DATEADD(DAY, 3, @today), 112), '''') + N', ' +
+        QUOTENAME(CONVERT(CHAR(8), DATEADD(DAY, 4, @today), 112), '''') + N')';
+EXEC sp_executesql @sql;
+GO
+
+CREATE PARTITION SCHEME ps_sync_event_day AS PARTITION pf_sync_event_day ALL TO ([PRIMARY]);
+GO
+
+-- 分区表的聚集主键必须包含分区列，所有索引与分区对齐才能按分区清空
+CREATE TABLE sync_event (
+    id BIGINT IDENTITY(1,1) NOT NULL,
+    table_name VARCHAR(64) NOT NULL,
+    op_type VARCHAR(10) NOT NULL CHECK (op_type IN ('INSERT','UPDATE','DELETE')),
+    pk_column_name VARCHAR(64) NOT NULL,
+    pk_value VARCHAR(255) NOT NULL,
+    status INT DEFAULT 0,
+    op_time DATETIME NOT NULL DEFAULT GETDATE(),
+    source_db_type VARCHAR(32) NOT NULL,
+    error_msg NVARCHAR(1024),
+    data_version INT NOT NULL,
+    payload NVARCHAR(MAX),
+    changed_columns VARCHAR(4000),
+    CONSTRAINT pk_sync_event PRIMARY KEY CLUSTERED (id, op_time)
+) ON ps_sync_event_day (op_time);
+CREATE INDEX idx_sync_status_id ON sync_event(status, id) ON ps_sync_event_day (op_time);
+GO
+
+-- 归档表（可选）：开启 event-archive-enabled 时，分区清空前先把其中的事件复制到这里
+CREATE TABLE sync_event_archive (
+    id BIGINT NOT NULL,
+    table_name VARCHAR(64) NOT NULL,
+    op_type VARCHAR(10) NOT NULL,
+    pk_column_name VARCHAR(64) NOT NULL,
+    pk_value VARCHAR(255) NOT NULL,
+    status INT,
+    op_time DATETIME NOT NULL,
+    source_db_type VARCHAR(32) NOT NULL,
+    error_msg NVARCHAR(1024),
+    data_version INT NOT NULL,
+    payload NVARCHAR(MAX),
+    changed_columns VARCHAR(4000)
+);
+GO
+
+-- 心跳表：同步服务定期用业务账号更新本库对应的行 (id = 数据源 ID, beat_at = 毫秒时间戳)，
+-- 经触发器像普通表一样同步到各目标库，用于测量端到端复制延迟；每个参与同步的库都需要这张表
+IF OBJECT_ID('sync_heartbeat', 'U') IS NOT NULL DROP TABLE sync_heartbeat;
+CREATE TABLE sync_heartbeat (
+    id BIGINT PRIMARY KEY,
+    beat_at BIGINT NOT NULL,
+    sync_version INT NOT NULL DEFAULT 0
+);
+GO
+
+-- [SQL Server] sync_heartbeat 触发器
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_ins;
+DROP TRIGGER IF EXISTS trg_sync_heartbeat_upd;
+GO
+CREATE OR ALTER TRIGGER trg_sync_heartbeat_sync ON sync_heartbeat
+AFTER INSERT, UPDATE, DELETE
+AS
+BEGIN
+    SET NOCOUNT ON;
+    IF SUSER_NAME() <> 'dbsyncer'
+    BEGIN
+        -- 1. 处理 UPDATE: 先自增版本号，再记录日志
+        IF EXISTS(SELECT * FROM inserted) AND EXISTS(SELECT * FROM deleted)
+        BEGIN
+            -- 核心：手动更新版本号 (模拟 BEFORE 逻辑)
+            -- 只更新那些 sync_version 没有被显式修改的行，或者强制+1
+            UPDATE t
+            SET t.sync_version = ISNULL(d.sync_version,0) + 1
+            FROM sync_heartbeat t
+            INNER JOIN deleted d ON t.id = d.id
+            INNER JOIN inserted i ON t.id = i.id;
+
+            -- 记录日志 (注意：此时表中数据已经是 +1 后的了)
+            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+            SELECT 'sync_heartbeat', 'UPDATE', 'id', CAST(i.id AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', ISNULL(d.sync_version,0) + 1
+            FROM inserted i JOIN deleted d ON i.id = d.id;
+        END
+
+        -- 2. 处理 INSERT
+        ELSE IF EXISTS(SELECT * FROM inserted)
+        BEGIN
+            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+            SELECT 'sync_heartbeat', 'INSERT', 'id', CAST(i.id AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', i.sync_version
+            FROM inserted i;
+        END
+
+        -- 3. 处理 DELETE
+        ELSE IF EXISTS(SELECT * FROM deleted)
+        BEGIN
+            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version)
+            SELECT 'sync_heartbeat', 'DELETE', 'id', CAST(d.id AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', d.sync_version
+            FROM deleted d;
+        END
+    END
+END;
+GO
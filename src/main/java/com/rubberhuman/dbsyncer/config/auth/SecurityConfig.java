@@ -1,7 +1,9 @@
 package com.rubberhuman.dbsyncer.config.auth;
 
 import com.rubberhuman.dbsyncer.filter.JwtAuthenticationFilter;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,6 +26,13 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
+    // 监控端口：未单独配置（或与业务端口相同）时为 -1，Prometheus 抓取接口照常要求登录
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Value("${server.port:8080}")
+    private int serverPort;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
@@ -46,6 +55,9 @@ public class SecurityConfig {
                 .authorizeHttpRequests(auth -> auth
                         .requestMatchers("/api/auth/login").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
+                        .requestMatchers("/actuator/health").permitAll()
+                        // 监控抓取不带登录令牌，只在单独的监控端口上免登录；业务端口上的 /actuator/prometheus 仍需认证
+                        .requestMatchers(this::isPrometheusOnManagementPort).permitAll()
                         // 其他所有请求都需要认证
                         .requestMatchers("/api/admin/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
@@ -55,4 +67,10 @@ public class SecurityConfig {
 
         return http.build();
     }
+
+    private boolean isPrometheusOnManagementPort(HttpServletRequest request) {
+        return managementPort > 0 && managementPort != serverPort
+                && request.getLocalPort() == managementPort
+                && "/actuator/prometheus".equals(request.getRequestURI());
+    }
 }
\ No newline at end of file
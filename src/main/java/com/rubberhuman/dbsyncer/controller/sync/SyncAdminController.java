@@ -1,7 +1,10 @@
 package com.rubberhuman.dbsyncer.controller.sync;
 
+import com.rubberhuman.dbsyncer.dto.sync.ApplyPlanCacheStats;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLagStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLaneStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLogPage;
 import com.rubberhuman.dbsyncer.dto.sync.SyncStats;
-import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
 import com.rubberhuman.dbsyncer.service.sync.SyncAdminService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -23,15 +26,44 @@ public class SyncAdminController {
         return ResponseEntity.ok(stats);
     }
 
-    // 分页查询日志
+    // 查看各源库当前的轮询间隔
+    @GetMapping("/lanes")
+    public ResponseEntity<List<SyncLaneStatus>> listLanes() {
+        return ResponseEntity.ok(syncAdminService.listLaneStatus());
+    }
+
+    // 查看各源库到各目标库的复制延迟（心跳延迟、事件延迟分位数、最早未处理事件的等待时间）
+    @GetMapping("/lag")
+    public ResponseEntity<List<SyncLagStatus>> listLag() {
+        return ResponseEntity.ok(syncAdminService.listLag());
+    }
+
+    // 查看写入计划缓存的命中情况
+    @GetMapping("/plan-cache")
+    public ResponseEntity<ApplyPlanCacheStats> getPlanCacheStats() {
+        return ResponseEntity.ok(syncAdminService.getPlanCacheStats());
+    }
+
+    // 表结构变更后刷新结构缓存，不指定表时刷新该数据源的所有表
+    @PostMapping("/schema/refresh")
+    public ResponseEntity<?> refreshSchema(
+            @RequestParam Long sourceId,
+            @RequestParam(required = false) String table) {
+
+        syncAdminService.refreshSchema(sourceId, table);
+        return ResponseEntity.ok("操作成功，表结构将在下次使用时重新读取");
+    }
+
+    // 按游标分页查询日志：不带游标时返回最新一页；beforeId 向更早翻页，afterId 向更新翻页
     @GetMapping("/logs")
-    public ResponseEntity<List<SyncEvent>> listLogs(
+    public ResponseEntity<SyncLogPage> listLogs(
             @RequestParam Long sourceId,
             @RequestParam(required = false) Integer status,
-            @RequestParam(defaultValue = "1") int page,
-            @RequestParam(defaultValue = "20") int size) {
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int limit) {
 
-        List<SyncEvent> logs = syncAdminService.listLogs(sourceId, status, page, size);
+        SyncLogPage logs = syncAdminService.listLogs(sourceId, status, beforeId, afterId, limit);
         return ResponseEntity.ok(logs);
     }
 
@@ -0,0 +1,40 @@
+package com.rubberhuman.dbsyncer.core;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.Map;
+
+// 编译好的写入计划：SQL 文本、有序的列以及逐列绑定器，一行数据按位置绑定
+@Getter
+public class ApplyPlan {
+
+    // 单列取值转换，绑定前把源数据转换为目标列需要的类型
+    @FunctionalInterface
+    public interface Binder {
+        Object bind(Object value);
+    }
+
+    // 原样绑定，由驱动自行转换
+    public static final Binder AS_IS = value -> value;
+
+    private final String sql;
+    private final List<String> columns;
+    private final List<Binder> binders;
+
+    public ApplyPlan(String sql, List<String> columns, List<Binder> binders) {
+        this.sql = sql;
+        this.columns = columns;
+        this.binders = binders;
+    }
+
+    // 按列顺序绑定一行数据，trailing 为列之后的参数（如 WHERE 中的主键、版本号）
+    public Object[] bind(Map<String, Object> data, Object... trailing) {
+        Object[] args = new Object[columns.size() + trailing.length];
+        for (int i = 0; i < columns.size(); i++) {
+            args[i] = binders.get(i).bind(data.get(columns.get(i)));
+        }
+        System.arraycopy(trailing, 0, args, columns.size(), trailing.length);
+        return args;
+    }
+}
@@ -0,0 +1,92 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.ApplyPlanCacheStats;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// 写入计划缓存：按 (目标库, 表, 操作, 列集合) 缓存 SQL 与绑定方式，LRU 淘汰
+// 列按名称排序，同一列集合无论源数据的列顺序如何都生成同一条 SQL，驱动与数据库的语句缓存才能命中
+@Component
+public class ApplyPlanCache {
+
+    @Autowired
+    private SchemaCatalog schemaCatalog;
+
+    @Value("${dbsyncer.sync-worker.plan-cache-size:2048}")
+    private int maxSize;
+
+    private record Key(Long targetId, String table, String op, List<String> columns) {
+    }
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    // accessOrder = true，按最近访问排序
+    private final Map<Key, ApplyPlan> plans = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ApplyPlan> eldest) {
+            if (size() > maxSize) {
+                evictions.incrementAndGet();
+                return true;
+            }
+            return false;
+        }
+    };
+
+    // 获取写入计划；未命中时用排序后的列调用 sqlBuilder 生成 SQL，并按目标表结构为每列选择绑定方式
+    public ApplyPlan get(Long targetId, String table, String op, Collection<String> columns, Function<List<String>, String> sqlBuilder) {
+        List<String> ordered = columns.stream().sorted(String.CASE_INSENSITIVE_ORDER).toList();
+        Key key = new Key(targetId, table.toLowerCase(), op, ordered.stream().map(String::toLowerCase).toList());
+
+        synchronized (plans) {
+            ApplyPlan plan = plans.get(key);
+            if (plan != null) {
+                hits.incrementAndGet();
+                return plan;
+            }
+        }
+
+        misses.incrementAndGet();
+        TableSchema schema = schemaCatalog.find(targetId, table);
+        List<ApplyPlan.Binder> binders = ordered.stream()
+                .map(col -> schema == null || !schema.hasColumn(col) ? ApplyPlan.AS_IS : (ApplyPlan.Binder) schema.getColumn(col)::bind)
+                .toList();
+        ApplyPlan plan = new ApplyPlan(sqlBuilder.apply(ordered), ordered, binders);
+        synchronized (plans) {
+            plans.putIfAbsent(key, plan);
+        }
+        return plan;
+    }
+
+    // 丢弃某个目标库的全部计划（表结构刷新后绑定方式可能变化）
+    public void evict(Long targetId) {
+        synchronized (plans) {
+            plans.keySet().removeIf(key -> key.targetId().equals(targetId));
+        }
+    }
+
+    // 数据源配置变化（可能换了库或表结构）时丢弃该目标库的计划
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        evict(event.getSourceId());
+    }
+
+    public ApplyPlanCacheStats getStats() {
+        int size;
+        synchronized (plans) {
+            size = plans.size();
+        }
+        return new ApplyPlanCacheStats(size, maxSize, hits.get(), misses.get(), evictions.get());
+    }
+}
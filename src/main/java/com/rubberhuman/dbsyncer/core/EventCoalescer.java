@@ -0,0 +1,96 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// 批内事件合并：同一 (表, 主键) 的多个事件只保留最后一次有效操作
+// INSERT/UPDATE 会回查源库最新数据并 UPSERT，因此只要最后一个事件不是 DELETE，结果就等价于应用最后一个事件；
+// 以 DELETE 结尾的序列（包括 INSERT -> DELETE）合并为一次 DELETE，以 INSERT 结尾的序列（DELETE -> INSERT）合并为一次 UPSERT
+// 全部由 UPDATE 组成的序列，变更列取并集；序列中有 INSERT/DELETE 或未记录变更列的事件时，按整行写入
+// 保留事件放在该行最后一个事件的位置，各行按最终状态产生的先后应用；
+// 被合并掉的中间状态不再重放，跨表的外键顺序不保证：如父表 INSERT 与后续 UPDATE 合并后排到子表 INSERT 之后，
+// 目标库启用外键约束时子表事件会失败，随失败重试在父表写入后补上
+public class EventCoalescer {
+
+    // 合并结果：events 为需要实际应用的事件，folded 记录每个保留事件所代表的被合并事件 ID
+    public record Result(List<SyncEvent> events, Map<Long, List<Long>> folded, int foldedCount) {
+
+        // 保留事件自身及其代表的所有被合并事件 ID，确认状态时需要全部回写
+        public List<Long> idsOf(SyncEvent event) {
+            List<Long> others = folded.get(event.getId());
+            if (others == null) {
+                return List.of(event.getId());
+            }
+            List<Long> ids = new ArrayList<>(others.size() + 1);
+            ids.add(event.getId());
+            ids.addAll(others);
+            return ids;
+        }
+    }
+
+    private record Slot(int position, SyncEvent event) {
+    }
+
+    public static Result coalesce(List<SyncEvent> events) {
+        Map<String, List<Integer>> indexesByRow = new LinkedHashMap<>();
+        for (int i = 0; i < events.size(); i++) {
+            SyncEvent event = events.get(i);
+            indexesByRow.computeIfAbsent(event.getTableName() + "#" + event.getPkValue(), k -> new ArrayList<>()).add(i);
+        }
+
+        if (indexesByRow.size() == events.size()) {
+            return new Result(events, Map.of(), 0);
+        }
+
+        List<Slot> slots = new ArrayList<>(indexesByRow.size());
+        Map<Long, List<Long>> folded = new HashMap<>();
+        int foldedCount = 0;
+
+        for (List<Integer> indexes : indexesByRow.values()) {
+            int lastIndex = indexes.get(indexes.size() - 1);
+            SyncEvent last = events.get(lastIndex);
+            slots.add(new Slot(lastIndex, last));
+
+            if (indexes.size() > 1 && "UPDATE".equals(last.getOpType())) {
+                last.setChangedColumns(unionChangedColumns(events, indexes));
+            }
+
+            if (indexes.size() > 1) {
+                List<Long> others = new ArrayList<>(indexes.size() - 1);
+                for (int i = 0; i < indexes.size() - 1; i++) {
+                    others.add(events.get(indexes.get(i)).getId());
+                }
+                folded.put(last.getId(), others);
+                foldedCount += others.size();
+            }
+        }
+
+        slots.sort(Comparator.comparingInt(Slot::position));
+        return new Result(slots.stream().map(Slot::event).toList(), folded, foldedCount);
+    }
+
+    // 合并后的变更列，无法确定时返回 null
+    private static String unionChangedColumns(List<SyncEvent> events, List<Integer> indexes) {
+        Set<String> columns = new LinkedHashSet<>();
+        for (int index : indexes) {
+            SyncEvent event = events.get(index);
+            if (!"UPDATE".equals(event.getOpType()) || event.getChangedColumns() == null) {
+                return null;
+            }
+            for (String col : event.getChangedColumns().split(",")) {
+                if (!col.isBlank()) {
+                    columns.add(col.trim().toLowerCase());
+                }
+            }
+        }
+        return columns.isEmpty() ? null : String.join(",", columns);
+    }
+}
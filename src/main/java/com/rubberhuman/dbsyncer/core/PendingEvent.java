@@ -0,0 +1,9 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+
+import java.util.Map;
+
+// 待应用的事件及其回查到的源数据（DELETE 事件无需回查，sourceData 为空）
+public record PendingEvent(SyncEvent event, Map<String, Object> sourceData) {
+}
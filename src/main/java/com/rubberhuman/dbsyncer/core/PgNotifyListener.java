@@ -0,0 +1,171 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import com.rubberhuman.dbsyncer.util.TriggerGenerator;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+// PostgreSQL 源库的推送唤醒：每个 PG 源库持有一条专用连接 LISTEN 新事件频道，
+// 收到通知后立即唤醒对应的同步通道；轮询仍然保留，作为通知丢失或连接中断时的兜底
+@Component
+@Slf4j
+public class PgNotifyListener {
+
+    @Autowired
+    private DataSourceConfigService configService;
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    @Autowired
+    private SyncEngine syncEngine;
+
+    @Value("${dbsyncer.sync-worker.notify-enabled:true}")
+    private boolean notifyEnabled;
+
+    // 单次等待通知的超时时间，同时决定停止监听时的响应速度
+    @Value("${dbsyncer.sync-worker.notify-wait-ms:5000}")
+    private int notifyWaitMs;
+
+    // 监听连接断开后的重连间隔
+    @Value("${dbsyncer.sync-worker.notify-reconnect-ms:10000}")
+    private long reconnectMs;
+
+    private final Map<Long, Listener> listeners = new ConcurrentHashMap<>();
+
+    // 按当前启用的 PG 数据源启动/停止监听线程
+    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.notify-refresh-interval-ms:30000}")
+    public void refresh() {
+        if (!notifyEnabled) {
+            return;
+        }
+
+        List<DataSourceConfig> activeSources = configService.listEnabled();
+        Set<Long> pgIds = activeSources == null ? Set.of() : activeSources.stream()
+                .filter(db -> db.getDbType() == DatabaseType.POSTGRESQL)
+                .map(DataSourceConfig::getSourceId)
+                .collect(Collectors.toSet());
+
+        listeners.entrySet().removeIf(entry -> {
+            if (pgIds.contains(entry.getKey())) {
+                return false;
+            }
+            entry.getValue().stop();
+            return true;
+        });
+        for (Long sourceId : pgIds) {
+            listeners.computeIfAbsent(sourceId, this::startListener);
+        }
+    }
+
+    // 数据源配置变化时停止监听，下一次刷新时按最新配置重新建立
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        Listener listener = listeners.remove(event.getSourceId());
+        if (listener != null) {
+            listener.stop();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        listeners.values().forEach(Listener::stop);
+        listeners.clear();
+    }
+
+    private Listener startListener(Long sourceId) {
+        Listener listener = new Listener(sourceId);
+        // PG 驱动内部使用同步块，长时间阻塞等待不适合虚拟线程，使用平台守护线程
+        Thread thread = new Thread(listener, "sync-notify-" + sourceId);
+        thread.setDaemon(true);
+        listener.thread = thread;
+        thread.start();
+        return listener;
+    }
+
+    private class Listener implements Runnable {
+        private final Long sourceId;
+        private volatile boolean running = true;
+        private volatile Connection connection;
+        private Thread thread;
+
+        Listener(Long sourceId) {
+            this.sourceId = sourceId;
+        }
+
+        @Override
+        public void run() {
+            while (running) {
+                try (Connection conn = dynamicDbUtil.openDedicatedConnection(sourceId, true)) {
+                    connection = conn;
+                    conn.setAutoCommit(true);
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute("LISTEN " + TriggerGenerator.PG_NOTIFY_CHANNEL);
+                    }
+                    log.info("数据源 {} 已开始监听新事件通知", sourceId);
+
+                    // (重新)连接期间可能错过通知，先拉取一次
+                    syncEngine.wake(sourceId);
+
+                    PGConnection pgConn = conn.unwrap(PGConnection.class);
+                    while (running) {
+                        PGNotification[] notifications = pgConn.getNotifications(notifyWaitMs);
+                        if (notifications != null && notifications.length > 0) {
+                            log.debug("数据源 {} 收到 {} 条新事件通知", sourceId, notifications.length);
+                            syncEngine.wake(sourceId);
+                        }
+                    }
+                } catch (Exception e) {
+                    if (!running) {
+                        break;
+                    }
+                    log.warn("数据源 {} 的新事件监听中断，{} 毫秒后重连：{}", sourceId, reconnectMs, e.getMessage());
+                    try {
+                        Thread.sleep(reconnectMs);
+                    } catch (InterruptedException ie) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                } finally {
+                    connection = null;
+                }
+            }
+            log.info("数据源 {} 已停止监听新事件通知", sourceId);
+        }
+
+        // 关闭连接以打断阻塞中的等待
+        void stop() {
+            running = false;
+            Connection conn = connection;
+            if (conn != null) {
+                try {
+                    conn.close();
+                } catch (Exception e) {
+                    log.debug("关闭数据源 {} 的监听连接失败：{}", sourceId, e.getMessage());
+                }
+            }
+            if (thread != null) {
+                thread.interrupt();
+            }
+        }
+    }
+}
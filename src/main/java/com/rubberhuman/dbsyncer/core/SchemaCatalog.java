@@ -0,0 +1,157 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 表结构目录：按 (数据源, 表) 缓存从 DatabaseMetaData 读取的主键、列类型与可空性
+// 表结构变更后需调用 refresh；数据源连不上时直接抛出，其他读取失败短时间缓存为未知结构，过期后重试
+@Component
+@Slf4j
+public class SchemaCatalog {
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    private record Key(Long sourceId, String table) {
+    }
+
+    // 表不存在时缓存空值，避免每次都查询元数据
+    private final Map<Key, Optional<TableSchema>> tables = new ConcurrentHashMap<>();
+
+    // 元数据读取失败的表 -> 失败缓存的过期时间
+    private final Map<Key, Long> failures = new ConcurrentHashMap<>();
+
+    // 读取失败的缓存时间：调用方按行或按表调用 find，失败不缓存会让每次调用都重新查询
+    @Value("${dbsyncer.sync-worker.schema-failure-ttl-ms:30000}")
+    private long failureTtlMs;
+
+    // 返回表结构；表不存在或元数据读取失败时返回 null，调用方按未知结构处理
+    // 拿不到连接时抛出 CannotGetJdbcConnectionException：否则每次调用都要等满连接超时，且调用方无法据此让整批快速失败
+    public TableSchema find(Long sourceId, String table) {
+        Key key = new Key(sourceId, table.toLowerCase());
+        Optional<TableSchema> cached = tables.get(key);
+        if (cached != null) {
+            return cached.orElse(null);
+        }
+        Long failedUntil = failures.get(key);
+        if (failedUntil != null) {
+            if (System.currentTimeMillis() < failedUntil) {
+                return null;
+            }
+            failures.remove(key, failedUntil);
+        }
+
+        try {
+            TableSchema schema = load(sourceId, table);
+            if (schema == null) {
+                log.warn("数据源 {} 中未找到表 {} 的结构信息", sourceId, table);
+            }
+            tables.put(key, Optional.ofNullable(schema));
+            return schema;
+        } catch (CannotGetJdbcConnectionException e) {
+            throw e;
+        } catch (SQLException e) {
+            if (isConnectionFailure(e)) {
+                throw new CannotGetJdbcConnectionException("无法连接数据源 " + sourceId + " 读取表 " + table + " 的结构", e);
+            }
+            return cacheFailure(key, sourceId, table, e);
+        } catch (Exception e) {
+            return cacheFailure(key, sourceId, table, e);
+        }
+    }
+
+    private TableSchema cacheFailure(Key key, Long sourceId, String table, Exception e) {
+        log.warn("读取数据源 {} 表 {} 的结构失败，{} ms 内按未知结构处理：{}", sourceId, table, failureTtlMs, e.getMessage());
+        failures.put(key, System.currentTimeMillis() + failureTtlMs);
+        return null;
+    }
+
+    // 连接池取连接超时 (SQLTransientConnectionException) 或 SQLState 为 08 类（连接异常）
+    private static boolean isConnectionFailure(SQLException e) {
+        return e instanceof SQLTransientConnectionException
+                || (e.getSQLState() != null && e.getSQLState().startsWith("08"));
+    }
+
+    // 丢弃某个数据源全部（table 为空时）或单张表的结构缓存
+    public void refresh(Long sourceId, String table) {
+        if (table == null || table.isBlank()) {
+            tables.keySet().removeIf(key -> key.sourceId().equals(sourceId));
+            failures.keySet().removeIf(key -> key.sourceId().equals(sourceId));
+        } else {
+            tables.remove(new Key(sourceId, table.toLowerCase()));
+            failures.remove(new Key(sourceId, table.toLowerCase()));
+        }
+    }
+
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        refresh(event.getSourceId(), null);
+    }
+
+    private TableSchema load(Long sourceId, String table) throws SQLException {
+        try (Connection conn = dynamicDbUtil.getDataSource(sourceId, true).getConnection()) {
+            DatabaseMetaData meta = conn.getMetaData();
+            String catalog = conn.getCatalog();
+            String schema = currentSchema(conn);
+
+            // 未加引号的表名在 Oracle 中存为大写、在 PostgreSQL 中存为小写
+            Set<String> candidates = new LinkedHashSet<>(List.of(table, table.toUpperCase(), table.toLowerCase()));
+            for (String name : candidates) {
+                Map<String, TableSchema.Column> columns = new LinkedCaseInsensitiveMap<>();
+                try (ResultSet rs = meta.getColumns(catalog, schema, name, null)) {
+                    while (rs.next()) {
+                        // 表名参数是 LIKE 模式，'_' 会匹配任意字符，需要再精确比较
+                        if (!name.equals(rs.getString("TABLE_NAME"))) {
+                            continue;
+                        }
+                        String column = rs.getString("COLUMN_NAME");
+                        columns.put(column, new TableSchema.Column(column, rs.getInt("DATA_TYPE"), rs.getString("TYPE_NAME"),
+                                rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls));
+                    }
+                }
+                if (columns.isEmpty()) {
+                    continue;
+                }
+
+                Map<Short, String> keys = new TreeMap<>();
+                try (ResultSet rs = meta.getPrimaryKeys(catalog, schema, name)) {
+                    while (rs.next()) {
+                        keys.put(rs.getShort("KEY_SEQ"), rs.getString("COLUMN_NAME"));
+                    }
+                }
+                return new TableSchema(name, new ArrayList<>(keys.values()), columns);
+            }
+            return null;
+        }
+    }
+
+    // 部分驱动未实现 getSchema，此时不限定 schema
+    private String currentSchema(Connection conn) {
+        try {
+            return conn.getSchema();
+        } catch (Exception | AbstractMethodError e) {
+            return null;
+        }
+    }
+}
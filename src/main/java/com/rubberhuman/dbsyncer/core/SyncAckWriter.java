@@ -0,0 +1,139 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.service.sync.SyncEventService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 事件状态确认的组提交：按源库缓冲成功/失败结果，攒够一批或到达时间窗口后合并回写
+// 成功事件合并为 UPDATE ... WHERE id IN (...)，失败事件按错误信息分组合并
+@Component
+@Slf4j
+public class SyncAckWriter {
+
+    @Autowired
+    private SyncEventService syncEventService;
+
+    @Autowired
+    private SyncStatsTracker statsTracker;
+
+    @Autowired
+    private SyncMetrics metrics;
+
+    // 单个源库缓冲的确认数达到该值时立即回写
+    @Value("${dbsyncer.sync-worker.ack-batch-size:500}")
+    private int ackBatchSize;
+
+    private final Map<Long, AckBuffer> buffers = new ConcurrentHashMap<>();
+
+    // 同一事件以最后一次结果为准
+    private static class AckBuffer {
+        private final Set<Long> successIds = new LinkedHashSet<>();
+        private final Map<Long, String> failures = new LinkedHashMap<>();
+
+        // 同一源库的回写串行执行，避免新旧结果乱序覆盖
+        private final Object flushLock = new Object();
+
+        int size() {
+            return successIds.size() + failures.size();
+        }
+    }
+
+    public void success(Long sourceId, Long eventId) {
+        AckBuffer buffer = buffers.computeIfAbsent(sourceId, id -> new AckBuffer());
+        boolean full;
+        synchronized (buffer) {
+            buffer.failures.remove(eventId);
+            buffer.successIds.add(eventId);
+            full = buffer.size() >= ackBatchSize;
+        }
+        if (full) {
+            flush(sourceId);
+        }
+    }
+
+    public void fail(Long sourceId, Long eventId, String msg) {
+        AckBuffer buffer = buffers.computeIfAbsent(sourceId, id -> new AckBuffer());
+        boolean full;
+        synchronized (buffer) {
+            buffer.successIds.remove(eventId);
+            buffer.failures.put(eventId, msg);
+            full = buffer.size() >= ackBatchSize;
+        }
+        if (full) {
+            flush(sourceId);
+        }
+    }
+
+    // 回写某个源库缓冲的全部确认；回写失败的确认放回缓冲区，等待下一次回写
+    public void flush(Long sourceId) {
+        AckBuffer buffer = buffers.get(sourceId);
+        if (buffer == null) {
+            return;
+        }
+
+        synchronized (buffer.flushLock) {
+            List<Long> successIds;
+            Map<Long, String> failures;
+            synchronized (buffer) {
+                if (buffer.size() == 0) {
+                    return;
+                }
+                successIds = new ArrayList<>(buffer.successIds);
+                failures = new LinkedHashMap<>(buffer.failures);
+                buffer.successIds.clear();
+                buffer.failures.clear();
+            }
+
+            int total = successIds.size() + failures.size();
+            long start = System.nanoTime();
+            try {
+                syncEventService.markSuccessBatch(sourceId, successIds);
+                statsTracker.onAcked(sourceId, successIds.size(), 0);
+                successIds = List.of();
+                syncEventService.markFailBatch(sourceId, failures);
+                statsTracker.onAcked(sourceId, 0, failures.size());
+                log.debug("数据源 {} 已回写 {} 条事件确认", sourceId, total);
+                metrics.ackLatency(sourceId, start);
+            } catch (Exception e) {
+                log.error("数据源 {} 回写事件状态失败，稍后重试：{}", sourceId, e.getMessage());
+                synchronized (buffer) {
+                    for (Long id : successIds) {
+                        if (!buffer.failures.containsKey(id)) {
+                            buffer.successIds.add(id);
+                        }
+                    }
+                    failures.forEach((id, msg) -> {
+                        if (!buffer.successIds.contains(id)) {
+                            buffer.failures.putIfAbsent(id, msg);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    // 时间窗口：定期回写所有源库的剩余确认
+    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.ack-flush-interval-ms:1000}")
+    public void flushAll() {
+        for (Long sourceId : buffers.keySet()) {
+            flush(sourceId);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+}
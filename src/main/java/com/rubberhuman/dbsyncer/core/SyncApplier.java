@@ -0,0 +1,578 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.ConflictCheckMode;
+import com.rubberhuman.dbsyncer.exception.BusinessException;
+import com.rubberhuman.dbsyncer.exception.SyncConflictException;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import com.rubberhuman.dbsyncer.util.UpsertSqlBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// 负责把同步事件写入目标库：支持按 (表, 操作, 列集合) 分组的 JDBC 批量写入，以及逐行写入
+// INSERT/UPDATE 统一使用方言原生 UPSERT，每个事件在每个目标库上只需一条语句
+// 写入 SQL 由 ApplyPlanCache 按 (目标库, 表, 操作, 列集合) 缓存，同一形状的行始终使用同一条语句文本
+@Component
+@Slf4j
+public class SyncApplier {
+
+    // IN (...) 单次最多包含的主键个数，避免超出数据库限制（Oracle 1000 / SQL Server 2100 个参数）
+    static final int IN_CHUNK_SIZE = 500;
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    @Autowired
+    private ApplyPlanCache planCache;
+
+    @Autowired
+    private SchemaCatalog schemaCatalog;
+
+    // 是否启用批量写入，关闭时逐行写入
+    @Value("${dbsyncer.sync-worker.batch-apply-enabled:true}")
+    private boolean batchApplyEnabled;
+
+    // UPDATE 事件的冲突检测方式
+    @Value("${dbsyncer.sync-worker.conflict-check-mode:QUERY}")
+    private ConflictCheckMode conflictCheckMode;
+
+    // 目标库：sourceId 用作写入计划缓存的键
+    private record Target(Long sourceId, JdbcTemplate jt, DatabaseType dbType) {
+    }
+
+    // 同一批事件中结构相同的写操作归为一组；记录了变更列的 UPDATE 按变更列集合分组，只更新这些列
+    // 条件写入模式下 UPDATE 事件单独成组，使用带版本号条件的 UPDATE
+    private record Shape(String table, String pkCol, String op, List<String> columns) {
+
+        // 列按名称排序，列集合相同的事件归入同一组，与写入计划的列顺序一致
+        Shape {
+            columns = columns.stream().sorted(String.CASE_INSENSITIVE_ORDER).toList();
+        }
+
+        static Shape of(PendingEvent item, boolean guarded) {
+            SyncEvent event = item.event();
+            if (guarded && "UPDATE".equals(event.getOpType()) && item.sourceData() != null) {
+                return new Shape(event.getTableName(), event.getPkColumnName(), "GUARDED_UPDATE", guardedColumns(event, item.sourceData()));
+            }
+            List<String> partial = partialColumns(event, item.sourceData());
+            if (partial != null) {
+                return new Shape(event.getTableName(), event.getPkColumnName(), "PARTIAL_UPDATE", partial);
+            }
+            return switch (event.getOpType()) {
+                case "INSERT", "UPDATE" -> new Shape(event.getTableName(), event.getPkColumnName(), "UPSERT",
+                        List.copyOf(item.sourceData().keySet()));
+                case "DELETE" -> new Shape(event.getTableName(), event.getPkColumnName(), "DELETE", List.of());
+                default -> new Shape(event.getTableName(), event.getPkColumnName(), event.getOpType(), List.of());
+            };
+        }
+    }
+
+    // 在单个目标库上应用一批事件，返回失败的事件 (eventId -> 异常)
+    public Map<Long, Exception> apply(DataSourceConfig targetDb, List<PendingEvent> batch) {
+        Target target = new Target(targetDb.getSourceId(), dynamicDbUtil.getSyncWorkerJdbcTemplate(targetDb.getSourceId()), targetDb.getDbType());
+        Map<Long, Exception> errors = new HashMap<>();
+
+        try {
+            List<PendingEvent> projected = batch.stream().map(item -> project(target, item)).toList();
+
+            if (!batchApplyEnabled) {
+                for (PendingEvent item : projected) {
+                    applyRow(target, item, errors);
+                }
+                return errors;
+            }
+
+            // 分组时保持同一行上操作的先后顺序：同一 (表, 主键) 再次出现时，先提交已积累的分组
+            Map<Shape, List<PendingEvent>> groups = new LinkedHashMap<>();
+            Set<String> pendingRows = new HashSet<>();
+
+            for (PendingEvent item : projected) {
+                SyncEvent event = item.event();
+                String rowKey = event.getTableName() + "#" + event.getPkValue();
+                if (!pendingRows.add(rowKey)) {
+                    flush(target, groups, errors);
+                    pendingRows.clear();
+                    pendingRows.add(rowKey);
+                }
+                groups.computeIfAbsent(Shape.of(item, conflictCheckMode == ConflictCheckMode.CONDITIONAL_WRITE), k -> new ArrayList<>()).add(item);
+            }
+            flush(target, groups, errors);
+        } catch (CannotGetJdbcConnectionException e) {
+            // 目标库不可达（写入或读取表结构时拿不到连接），逐行重试也没有意义，剩余事件全部记为失败
+            for (PendingEvent item : batch) {
+                errors.putIfAbsent(item.event().getId(), e);
+            }
+        }
+        return errors;
+    }
+
+    // 逐行写入单个事件
+    private void syncToTarget(Target target, SyncEvent event, Map<String, Object> data) {
+        String tableName = event.getTableName();
+        String pkCol = event.getPkColumnName();
+        String pkVal = event.getPkValue();
+        String opType = event.getOpType();
+
+        // 只有 UPDATE 操作检测冲突
+        if ("UPDATE".equals(opType)) {
+            if (conflictCheckMode == ConflictCheckMode.CONDITIONAL_WRITE && data != null) {
+                requireVersion(tableName, pkVal, event.getDataVersion());
+                List<String> columns = guardedColumns(event, data);
+                if (executeGuardedUpdate(target, tableName, pkCol, pkVal, columns, data, event.getDataVersion()) == 0) {
+                    resolveGuardMiss(target, event, data);
+                }
+                return;
+            }
+            checkConflict(target, tableName, pkCol, pkVal, event.getDataVersion());
+        }
+
+        switch (opType) {
+            case "INSERT", "UPDATE":
+                // 只更新变更列；目标库没有该行时退回整行 UPSERT
+                List<String> partial = partialColumns(event, data);
+                if (partial == null || executePartialUpdate(target, tableName, pkCol, pkVal, partial, data) == 0) {
+                    executeUpsert(target, tableName, pkCol, pkVal, data);
+                }
+                break;
+            case "DELETE":
+                executeDelete(target, tableName, pkCol, pkVal);
+                break;
+            default:
+                throw new BusinessException("未知的同步操作类型：" + event.getOpType());
+        }
+    }
+
+    // ------ 批量写入 ------
+    private void flush(Target target, Map<Shape, List<PendingEvent>> groups, Map<Long, Exception> errors) {
+        for (Map.Entry<Shape, List<PendingEvent>> entry : groups.entrySet()) {
+            Shape shape = entry.getKey();
+            List<PendingEvent> rows = entry.getValue();
+
+            switch (shape.op()) {
+                case "UPSERT" -> batchUpsert(target, shape, rows, errors);
+                case "PARTIAL_UPDATE" -> batchPartialUpdate(target, shape, rows, errors);
+                case "GUARDED_UPDATE" -> batchGuardedUpdate(target, shape, rows, errors);
+                case "DELETE" -> batchDelete(target, shape, rows, errors);
+                default -> rows.forEach(item -> applyRow(target, item, errors));
+            }
+        }
+        groups.clear();
+    }
+
+    private void batchUpsert(Target target, Shape shape, List<PendingEvent> rows, Map<Long, Exception> errors) {
+        // 1. 冲突检测：一次查出本组所有 UPDATE 事件在目标库上的版本号
+        List<PendingEvent> writable = filterConflicts(target, shape, rows, queryVersions(target, shape, updatePks(rows)), errors);
+        if (writable.isEmpty()) {
+            return;
+        }
+
+        // 2. 一条方言原生 UPSERT 语句完成插入或更新，整组批量发送
+        ApplyPlan plan = upsertPlan(target, shape.table(), shape.pkCol(), shape.columns());
+        List<Object[]> batchArgs = new ArrayList<>(writable.size());
+        for (PendingEvent item : writable) {
+            batchArgs.add(plan.bind(item.sourceData()));
+        }
+
+        // 3. 批量失败的行退回逐行写入，由逐行写入记录真实的错误
+        int[] counts = runBatch(target.jt(), plan.getSql(), batchArgs);
+        for (int i = 0; i < writable.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                applyRow(target, writable.get(i), errors);
+            }
+        }
+    }
+
+    private void batchPartialUpdate(Target target, Shape shape, List<PendingEvent> rows, Map<Long, Exception> errors) {
+        // 1. 冲突检测；目标库上不存在的行无法只更新部分列，改为整行 UPSERT
+        Map<String, Long> targetVersions = queryVersions(target, shape, updatePks(rows));
+        List<PendingEvent> writable = new ArrayList<>(rows.size());
+        for (PendingEvent item : filterConflicts(target, shape, rows, targetVersions, errors)) {
+            if (targetVersions.containsKey(normalizeKey(target, shape, item.event().getPkValue()))) {
+                writable.add(item);
+            } else {
+                upsertRow(target, item, errors);
+            }
+        }
+        if (writable.isEmpty()) {
+            return;
+        }
+
+        // 2. UPDATE ... SET 变更列 WHERE pk = ?，整组批量发送
+        ApplyPlan plan = partialUpdatePlan(target, shape.table(), shape.pkCol(), shape.columns());
+        List<Object[]> batchArgs = new ArrayList<>(writable.size());
+        for (PendingEvent item : writable) {
+            batchArgs.add(plan.bind(item.sourceData(), key(target, shape.table(), shape.pkCol(), item.event().getPkValue())));
+        }
+
+        // 3. 批量失败的行退回逐行写入
+        int[] counts = runBatch(target.jt(), plan.getSql(), batchArgs);
+        for (int i = 0; i < writable.size(); i++) {
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                applyRow(target, writable.get(i), errors);
+            }
+        }
+    }
+
+    private void batchGuardedUpdate(Target target, Shape shape, List<PendingEvent> rows, Map<Long, Exception> errors) {
+        List<PendingEvent> writable = new ArrayList<>(rows.size());
+        for (PendingEvent item : rows) {
+            if (item.event().getDataVersion() == null) {
+                errors.put(item.event().getId(), new BusinessException("同步事件缺少数据版本号，无法进行冲突检测，" + "表=" + shape.table() + ", 主键=" + item.event().getPkValue()));
+            } else {
+                writable.add(item);
+            }
+        }
+        if (writable.isEmpty()) {
+            return;
+        }
+
+        // 1. UPDATE ... WHERE pk = ? AND 版本号条件，整组批量发送，冲突检测与写入在同一条语句中完成
+        ApplyPlan plan = guardedUpdatePlan(target, shape.table(), shape.pkCol(), shape.columns());
+        List<Object[]> batchArgs = new ArrayList<>(writable.size());
+        for (PendingEvent item : writable) {
+            batchArgs.add(plan.bind(item.sourceData(), key(target, shape.table(), shape.pkCol(), item.event().getPkValue()), item.event().getDataVersion()));
+        }
+
+        // 2. 影响 0 行的事件逐行确认是冲突还是目标库缺少该行；批量失败的行退回逐行写入
+        // 驱动不返回行数（SUCCESS_NO_INFO，如 MySQL rewriteBatchedStatements=true、旧版 Oracle 驱动）时无法判断条件是否命中，同样逐行确认
+        int[] counts = runBatch(target.jt(), plan.getSql(), batchArgs);
+        for (int i = 0; i < writable.size(); i++) {
+            PendingEvent item = writable.get(i);
+            if (counts[i] == Statement.EXECUTE_FAILED) {
+                applyRow(target, item, errors);
+            } else if (counts[i] <= 0) {
+                try {
+                    resolveGuardMiss(target, item.event(), item.sourceData());
+                } catch (CannotGetJdbcConnectionException e) {
+                    throw e;
+                } catch (Exception e) {
+                    errors.put(item.event().getId(), e);
+                }
+            }
+        }
+    }
+
+    private void batchDelete(Target target, Shape shape, List<PendingEvent> rows, Map<Long, Exception> errors) {
+        for (int from = 0; from < rows.size(); from += IN_CHUNK_SIZE) {
+            List<PendingEvent> chunk = rows.subList(from, Math.min(from + IN_CHUNK_SIZE, rows.size()));
+            String sql = "DELETE FROM " + shape.table() + " WHERE " + shape.pkCol() + " IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            Object[] args = keys(target, shape.table(), shape.pkCol(), chunk.stream().map(item -> item.event().getPkValue()).toList());
+            try {
+                target.jt().update(sql, args);
+            } catch (CannotGetJdbcConnectionException e) {
+                throw e;
+            } catch (DataAccessException e) {
+                log.warn("批量删除失败，退回逐行删除。表: {}, 错误: {}", shape.table(), e.getMessage());
+                chunk.forEach(item -> applyRow(target, item, errors));
+            }
+        }
+    }
+
+    private List<String> updatePks(List<PendingEvent> rows) {
+        return rows.stream()
+                .filter(item -> "UPDATE".equals(item.event().getOpType()))
+                .map(item -> item.event().getPkValue())
+                .toList();
+    }
+
+    // 过滤掉目标库版本高于事件版本的 UPDATE 事件，并记录冲突；targetVersions 为目标库现有行的版本号（按规范化的主键）
+    private List<PendingEvent> filterConflicts(Target target, Shape shape, List<PendingEvent> rows, Map<String, Long> targetVersions, Map<Long, Exception> errors) {
+        if (rows.stream().noneMatch(item -> "UPDATE".equals(item.event().getOpType()))) {
+            return rows;
+        }
+
+        List<PendingEvent> writable = new ArrayList<>(rows.size());
+        for (PendingEvent item : rows) {
+            SyncEvent event = item.event();
+            if (!"UPDATE".equals(event.getOpType())) {
+                writable.add(item);
+                continue;
+            }
+
+            Long eventVersion = event.getDataVersion();
+            if (eventVersion == null) {
+                errors.put(event.getId(), new BusinessException("同步事件缺少数据版本号，无法进行冲突检测，" + "表=" + shape.table() + ", 主键=" + event.getPkValue()));
+                continue;
+            }
+
+            Long targetVersion = targetVersions.get(normalizeKey(target, shape, event.getPkValue()));
+            if (targetVersion != null && targetVersion > eventVersion) {
+                errors.put(event.getId(), new SyncConflictException("目标库版本高于事件版本", shape.table(), event.getPkValue(), eventVersion, targetVersion));
+                continue;
+            }
+            writable.add(item);
+        }
+        return writable;
+    }
+
+    // 目标库现有行的版本号；主键按列类型规范化后作为键，与事件中的主键字符串比较
+    private Map<String, Long> queryVersions(Target target, Shape shape, List<String> pks) {
+        Map<String, Long> versions = new HashMap<>();
+        if (pks.isEmpty()) {
+            return versions;
+        }
+        TableSchema schema = schemaCatalog.find(target.sourceId(), shape.table());
+        for (int from = 0; from < pks.size(); from += IN_CHUNK_SIZE) {
+            List<String> chunk = pks.subList(from, Math.min(from + IN_CHUNK_SIZE, pks.size()));
+            String sql = "SELECT " + shape.pkCol() + ", sync_version FROM " + shape.table() + " WHERE " + shape.pkCol() + " IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            target.jt().query(sql, rs -> {
+                long version = rs.getLong(2);
+                Long value = rs.wasNull() ? null : version;
+                versions.put(normalizeKey(schema, shape.pkCol(), rs.getObject(1)), value);
+            }, keys(target, shape.table(), shape.pkCol(), chunk));
+        }
+        return versions;
+    }
+
+    // 执行批量语句；整批失败时二分拆批重试，最终只有真正出错的单行被标记为 EXECUTE_FAILED
+    private int[] runBatch(JdbcTemplate jt, String sql, List<Object[]> args) {
+        int[] counts = new int[args.size()];
+        runBatch(jt, sql, args, 0, args.size(), counts);
+        return counts;
+    }
+
+    private void runBatch(JdbcTemplate jt, String sql, List<Object[]> args, int from, int to, int[] counts) {
+        if (from >= to) {
+            return;
+        }
+        try {
+            int[] result = jt.batchUpdate(sql, args.subList(from, to));
+            System.arraycopy(result, 0, counts, from, Math.min(result.length, to - from));
+        } catch (CannotGetJdbcConnectionException e) {
+            throw e;
+        } catch (DataAccessException e) {
+            if (to - from == 1) {
+                counts[from] = Statement.EXECUTE_FAILED;
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            runBatch(jt, sql, args, from, mid, counts);
+            runBatch(jt, sql, args, mid, to, counts);
+        }
+    }
+
+    // ------ 逐行写入 ------
+    private void applyRow(Target target, PendingEvent item, Map<Long, Exception> errors) {
+        try {
+            syncToTarget(target, item.event(), item.sourceData());
+        } catch (CannotGetJdbcConnectionException e) {
+            throw e;
+        } catch (Exception e) {
+            errors.put(item.event().getId(), e);
+        }
+    }
+
+    // 已完成冲突检测的事件直接整行 UPSERT
+    private void upsertRow(Target target, PendingEvent item, Map<Long, Exception> errors) {
+        SyncEvent event = item.event();
+        try {
+            executeUpsert(target, event.getTableName(), event.getPkColumnName(), event.getPkValue(), item.sourceData());
+        } catch (CannotGetJdbcConnectionException e) {
+            throw e;
+        } catch (Exception e) {
+            errors.put(event.getId(), e);
+        }
+    }
+
+    // 乐观锁冲突检测
+    private void checkConflict(Target target, String table, String pkCol, String pkVal, Long eventVersion) {
+        if (eventVersion == null) {
+            throw new BusinessException("同步事件缺少数据版本号，无法进行冲突检测，" + "表=" + table + ", 主键=" + pkVal);
+        }
+
+        try {
+            String sql = "SELECT sync_version FROM " + table + " WHERE " + pkCol + " = ?";
+
+            Long targetVersion = target.jt().queryForObject(sql, Long.class, key(target, table, pkCol, pkVal));
+
+            if (targetVersion != null && targetVersion > eventVersion) {
+                throw new SyncConflictException("目标库版本高于事件版本", table, pkVal, eventVersion, targetVersion);
+            }
+
+        } catch (EmptyResultDataAccessException e) {
+            // 目标库查不到数据，说明是新数据，无冲突
+        }
+    }
+
+    private void requireVersion(String table, String pkVal, Long eventVersion) {
+        if (eventVersion == null) {
+            throw new BusinessException("同步事件缺少数据版本号，无法进行冲突检测，" + "表=" + table + ", 主键=" + pkVal);
+        }
+    }
+
+    // 条件写入影响 0 行：目标行存在且版本更高为冲突；目标行不存在则整行插入
+    // 目标行存在但版本不高于事件版本（并发写入或驱动只返回实际变化的行数），说明数据已是最新，无需处理
+    private void resolveGuardMiss(Target target, SyncEvent event, Map<String, Object> data) {
+        String sql = "SELECT sync_version FROM " + event.getTableName() + " WHERE " + event.getPkColumnName() + " = ?";
+        Long targetVersion;
+        try {
+            targetVersion = target.jt().queryForObject(sql, Long.class, key(target, event.getTableName(), event.getPkColumnName(), event.getPkValue()));
+        } catch (EmptyResultDataAccessException e) {
+            executeUpsert(target, event.getTableName(), event.getPkColumnName(), event.getPkValue(), data);
+            return;
+        }
+        if (targetVersion != null && targetVersion > event.getDataVersion()) {
+            throw new SyncConflictException("目标库版本高于事件版本", event.getTableName(), event.getPkValue(), event.getDataVersion(), targetVersion);
+        }
+    }
+
+    // 单条方言原生 UPSERT，一次往返完成插入或更新
+    private void executeUpsert(Target target, String tableName, String pkCol, String pkVal, Map<String, Object> data) {
+        ApplyPlan plan = upsertPlan(target, tableName, pkCol, data.keySet());
+        try {
+            target.jt().update(plan.getSql(), plan.bind(data));
+        } catch (Exception e) {
+            log.error("同步到目标库失败。表: {}, 主键: {}, 错误: {}", tableName, pkVal, e.getMessage());
+            throw e;
+        }
+    }
+
+    // 只更新变更列（含 sync_version），返回受影响行数，0 表示目标库没有该行
+    private int executePartialUpdate(Target target, String tableName, String pkCol, String pkVal, List<String> columns, Map<String, Object> data) {
+        ApplyPlan plan = partialUpdatePlan(target, tableName, pkCol, columns);
+        try {
+            return target.jt().update(plan.getSql(), plan.bind(data, key(target, tableName, pkCol, pkVal)));
+        } catch (Exception e) {
+            log.error("同步到目标库失败。表: {}, 主键: {}, 错误: {}", tableName, pkVal, e.getMessage());
+            throw e;
+        }
+    }
+
+    // 带版本号条件的 UPDATE，返回受影响行数，0 表示冲突或目标库没有该行
+    private int executeGuardedUpdate(Target target, String tableName, String pkCol, String pkVal, List<String> columns, Map<String, Object> data, Long eventVersion) {
+        ApplyPlan plan = guardedUpdatePlan(target, tableName, pkCol, columns);
+        try {
+            return target.jt().update(plan.getSql(), plan.bind(data, key(target, tableName, pkCol, pkVal), eventVersion));
+        } catch (Exception e) {
+            log.error("同步到目标库失败。表: {}, 主键: {}, 错误: {}", tableName, pkVal, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void executeDelete(Target target, String tableName, String pkCol, String pkVal) {
+        ApplyPlan plan = planCache.get(target.sourceId(), tableName, "DELETE", List.of(),
+                cols -> "DELETE FROM " + tableName + " WHERE " + pkCol + " = ?");
+        target.jt().update(plan.getSql(), key(target, tableName, pkCol, pkVal));
+    }
+
+    // ------ 表结构 ------
+    // 只写入两端都存在的列：目标表没有的列从源数据中去掉；目标表结构未知时原样写入
+    private PendingEvent project(Target target, PendingEvent item) {
+        Map<String, Object> data = item.sourceData();
+        if (data == null) {
+            return item;
+        }
+        TableSchema schema = schemaCatalog.find(target.sourceId(), item.event().getTableName());
+        if (schema == null || data.keySet().stream().allMatch(schema::hasColumn)) {
+            return item;
+        }
+        Map<String, Object> projected = new LinkedCaseInsensitiveMap<>();
+        data.forEach((col, value) -> {
+            if (schema.hasColumn(col)) {
+                projected.put(col, value);
+            }
+        });
+        return new PendingEvent(item.event(), projected);
+    }
+
+    // 主键值按目标表主键列的类型绑定
+    private Object key(Target target, String table, String pkCol, String pkVal) {
+        TableSchema schema = schemaCatalog.find(target.sourceId(), table);
+        return schema == null ? pkVal : schema.bindKey(pkCol, pkVal);
+    }
+
+    // 主键值按目标表主键列的类型规范化，用于与查回的主键比较
+    private String normalizeKey(Target target, Shape shape, String pkVal) {
+        return normalizeKey(schemaCatalog.find(target.sourceId(), shape.table()), shape.pkCol(), pkVal);
+    }
+
+    // 表结构未知时只按取值的 Java 类型规范化；源表回查 (SyncEngine) 共用
+    static String normalizeKey(TableSchema schema, String pkCol, Object pkVal) {
+        return schema == null ? TableSchema.normalizeKeyValue(null, pkVal) : schema.normalizeKey(pkCol, pkVal);
+    }
+
+    private Object[] keys(Target target, String table, String pkCol, List<String> pkVals) {
+        TableSchema schema = schemaCatalog.find(target.sourceId(), table);
+        return pkVals.stream().map(pkVal -> schema == null ? pkVal : schema.bindKey(pkCol, pkVal)).toArray();
+    }
+
+    // ------ 写入计划 ------
+    private ApplyPlan upsertPlan(Target target, String tableName, String pkCol, Collection<String> columns) {
+        return planCache.get(target.sourceId(), tableName, "UPSERT", columns,
+                cols -> UpsertSqlBuilder.build(target.dbType(), tableName, pkCol, cols));
+    }
+
+    private ApplyPlan partialUpdatePlan(Target target, String tableName, String pkCol, Collection<String> columns) {
+        return planCache.get(target.sourceId(), tableName, "PARTIAL_UPDATE", columns,
+                cols -> buildPartialUpdateSql(tableName, pkCol, cols));
+    }
+
+    private ApplyPlan guardedUpdatePlan(Target target, String tableName, String pkCol, Collection<String> columns) {
+        return planCache.get(target.sourceId(), tableName, "GUARDED_UPDATE", columns,
+                cols -> buildPartialUpdateSql(tableName, pkCol, cols) + " AND (sync_version IS NULL OR sync_version <= ?)");
+    }
+
+    private static String buildPartialUpdateSql(String tableName, String pkCol, List<String> columns) {
+        return "UPDATE " + tableName + " SET " + columns.stream().map(col -> col + " = ?").collect(Collectors.joining(", "))
+                + " WHERE " + pkCol + " = ?";
+    }
+
+    // UPDATE 事件需要写入的列：变更列 + sync_version，按源数据的列顺序排列
+    // 未记录变更列、主键发生变化或变更列在源数据中找不到（表结构不一致）时返回 null，按整行写入
+    private static List<String> partialColumns(SyncEvent event, Map<String, Object> data) {
+        if (!"UPDATE".equals(event.getOpType()) || event.getChangedColumns() == null || data == null) {
+            return null;
+        }
+
+        Set<String> changed = new HashSet<>();
+        for (String col : event.getChangedColumns().split(",")) {
+            if (!col.isBlank()) {
+                changed.add(col.trim().toLowerCase());
+            }
+        }
+        if (changed.isEmpty() || changed.contains(event.getPkColumnName().toLowerCase())) {
+            return null;
+        }
+
+        List<String> columns = new ArrayList<>(changed.size() + 1);
+        for (String col : data.keySet()) {
+            String lower = col.toLowerCase();
+            if (changed.remove(lower) || "sync_version".equals(lower)) {
+                columns.add(col);
+            }
+        }
+        return changed.isEmpty() ? columns : null;
+    }
+
+    // 条件写入需要更新的列：记录了变更列时只更新变更列，否则更新除主键外的所有列
+    private static List<String> guardedColumns(SyncEvent event, Map<String, Object> data) {
+        List<String> partial = partialColumns(event, data);
+        if (partial != null) {
+            return partial;
+        }
+        return data.keySet().stream().filter(col -> !col.equalsIgnoreCase(event.getPkColumnName())).toList();
+    }
+}
@@ -0,0 +1,201 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpointFailure;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointFailureService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 按位点消费 sync_event：源库事件表只追加，不再逐条回写状态
+// 事件 ID 可能乱序提交（小 ID 的事务晚于大 ID 提交），因此记录位点之后尚未出现的 ID（空洞），
+// 按退避间隔补读这些 ID；空洞超过等待时间仍未出现，视为事务已回滚，不再等待
+// 在某个目标库上失败的事件记录到元数据库 sync_checkpoint_failure，位点照常推进，到达重试时间后按 ID 补读重试
+@Component
+@Slf4j
+public class SyncCheckpointReader {
+
+    @Autowired
+    private SyncEventMapper syncEventMapper;
+
+    @Autowired
+    private SyncCheckpointService checkpointService;
+
+    @Autowired
+    private SyncCheckpointFailureService failureService;
+
+    @Value("${dbsyncer.sync-worker.consumer-name:default}")
+    private String consumerName;
+
+    // 空洞等待时间，超时后位点越过该 ID
+    @Value("${dbsyncer.sync-worker.checkpoint-gap-timeout-ms:60000}")
+    private long gapTimeoutMs;
+
+    // 空洞补读间隔：补读到迟到事件或发现新空洞时回到最小间隔，补读不到时按倍数退避到最大间隔
+    // Oracle / PG 的序列缓存会让永久空洞成为常态，不能每次拉取都按 ID 全部补读；最大间隔应明显小于空洞等待时间
+    @Value("${dbsyncer.sync-worker.checkpoint-gap-recheck-min-interval-ms:2000}")
+    private long gapRecheckMinIntervalMs;
+
+    @Value("${dbsyncer.sync-worker.checkpoint-gap-recheck-max-interval-ms:15000}")
+    private long gapRecheckMaxIntervalMs;
+
+    // 单个源库最多跟踪的空洞数，防止 ID 大幅跳跃时内存膨胀
+    @Value("${dbsyncer.sync-worker.checkpoint-max-gaps:10000}")
+    private int maxGaps;
+
+    // 失败事件的重试间隔：从最小间隔起按重试次数翻倍，直到上限；首次失败 24 小时后不再自动重试
+    @Value("${dbsyncer.sync-worker.checkpoint-retry-min-interval-ms:30000}")
+    private long retryMinIntervalMs;
+
+    @Value("${dbsyncer.sync-worker.checkpoint-retry-max-interval-ms:1800000}")
+    private long retryMaxIntervalMs;
+
+    private final Map<Long, Cursor> cursors = new ConcurrentHashMap<>();
+
+    // 单个源库的消费进度：checkpoint 已持久化；maxSeen 为已处理的最大 ID；gaps 为 (checkpoint, maxSeen] 中尚未出现的 ID -> 首次发现时间
+    private static class Cursor {
+        private long checkpoint;
+        private long maxSeen;
+        private final TreeMap<Long, Long> gaps = new TreeMap<>();
+        // 下一次查询到期失败记录的时间
+        private long nextFailureCheckAt;
+        // 空洞补读的当前间隔与下一次补读时间
+        private long gapRecheckIntervalMs;
+        private long nextGapCheckAt;
+
+        Cursor(long checkpoint) {
+            this.checkpoint = checkpoint;
+            this.maxSeen = checkpoint;
+        }
+    }
+
+    // 拉取一批待处理事件：先补读空洞中已提交的事件和到期重试的失败事件，再读取 maxSeen 之后的新事件
+    public List<SyncEvent> poll(Long sourceId, int batchSize) {
+        Cursor cursor = cursorOf(sourceId);
+
+        // 重启后 maxSeen 回到位点，失败事件可能同时出现在补读和新事件中，按 ID 去重
+        TreeMap<Long, SyncEvent> events = new TreeMap<>();
+        long now = System.currentTimeMillis();
+        if (!cursor.gaps.isEmpty() && now >= cursor.nextGapCheckAt) {
+            List<SyncEvent> late = syncEventMapper.selectByIds(sourceId, new ArrayList<>(cursor.gaps.keySet()));
+            addAll(events, late);
+            cursor.gapRecheckIntervalMs = late.isEmpty()
+                    ? Math.min(gapRecheckMaxIntervalMs, Math.max(gapRecheckMinIntervalMs, cursor.gapRecheckIntervalMs * 2))
+                    : gapRecheckMinIntervalMs;
+            cursor.nextGapCheckAt = now + cursor.gapRecheckIntervalMs;
+        }
+        if (now >= cursor.nextFailureCheckAt) {
+            cursor.nextFailureCheckAt = now + retryMinIntervalMs;
+            List<Long> dueIds = failureService.listDueEventIds(sourceId, consumerName,
+                    LocalDateTime.now().minusDays(1), batchSize);
+            if (!dueIds.isEmpty()) {
+                log.info("数据源 {} 重试 {} 条此前同步失败的事件", sourceId, dueIds.size());
+                addAll(events, syncEventMapper.selectByIds(sourceId, dueIds));
+            }
+        }
+        addAll(events, syncEventMapper.selectAfterId(sourceId, cursor.maxSeen, batchSize));
+        return new ArrayList<>(events.values());
+    }
+
+    // 查询事件此前的失败记录：事件 ID -> (目标库 ID -> 失败记录)
+    public Map<Long, Map<Long, SyncCheckpointFailure>> findFailures(Long sourceId, Collection<Long> eventIds) {
+        return failureService.findFailures(sourceId, consumerName, eventIds);
+    }
+
+    // 保存本批的失败记录并安排下一次重试，删除本批已送达的失败记录
+    // 必须在 commit 之前调用：保存失败时抛出异常，位点不推进，下一轮重读同一批，失败事件不会被越过
+    public void saveFailures(Long sourceId, List<SyncCheckpointFailure> failures, Collection<Long> resolvedFailureIds) {
+        if (failures.isEmpty() && resolvedFailureIds.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        for (SyncCheckpointFailure failure : failures) {
+            int retries = failure.getRetryCount() == null ? 0 : failure.getRetryCount();
+            long delayMs = retryMinIntervalMs << Math.min(retries, 20);
+            failure.setConsumerName(consumerName);
+            failure.setRetryCount(retries);
+            failure.setNextRetryTime(now.plusNanos(Math.min(delayMs, retryMaxIntervalMs) * 1_000_000L));
+        }
+        failureService.saveFailures(sourceId, failures, resolvedFailureIds);
+    }
+
+    // 一批事件处理完成（成功，或失败已记录到失败表）后推进位点；处理过程中异常未调用时，下次拉取会重读同一批
+    public void commit(Long sourceId, List<SyncEvent> events) {
+        Cursor cursor = cursorOf(sourceId);
+        long now = System.currentTimeMillis();
+
+        Set<Long> polledIds = new HashSet<>();
+        long newMax = cursor.maxSeen;
+        for (SyncEvent event : events) {
+            polledIds.add(event.getId());
+            newMax = Math.max(newMax, event.getId());
+        }
+
+        // 记录 (maxSeen, newMax] 中没有读到的 ID
+        // 空洞数达到上限时，maxSeen 只推进到最后一个已跟踪的位置：之后的 ID 下一轮按新事件重新读取，
+        // 不能越过未跟踪的空洞，否则其中迟到提交的事件再也读不到（重读的事件按版本号幂等写入）
+        boolean newGaps = false;
+        for (long id = cursor.maxSeen + 1; id < newMax; id++) {
+            if (polledIds.contains(id)) {
+                continue;
+            }
+            if (cursor.gaps.size() >= maxGaps) {
+                log.warn("数据源 {} 的事件 ID 空洞过多（达到 {} 个），暂停在事件 ID {} 之前，等待空洞补齐或超时",
+                        sourceId, maxGaps, id);
+                newMax = id - 1;
+                break;
+            }
+            cursor.gaps.put(id, now);
+            newGaps = true;
+        }
+        // 新出现的空洞多数很快就会被迟到的事务填上，补读间隔回到最小值
+        if (newGaps) {
+            cursor.gapRecheckIntervalMs = gapRecheckMinIntervalMs;
+            cursor.nextGapCheckAt = now + gapRecheckMinIntervalMs;
+        }
+        cursor.gaps.keySet().removeAll(polledIds);
+        cursor.gaps.values().removeIf(firstSeen -> now - firstSeen > gapTimeoutMs);
+        cursor.maxSeen = newMax;
+
+        long safePoint = cursor.gaps.isEmpty() ? cursor.maxSeen : cursor.gaps.firstKey() - 1;
+        if (safePoint > cursor.checkpoint) {
+            checkpointService.saveLastEventId(sourceId, consumerName, safePoint);
+            cursor.checkpoint = safePoint;
+        }
+    }
+
+    // 数据源配置变化时丢弃内存中的进度，下次从持久化的位点重新开始
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        cursors.remove(event.getSourceId());
+    }
+
+    private static void addAll(TreeMap<Long, SyncEvent> events, List<SyncEvent> rows) {
+        for (SyncEvent row : rows) {
+            events.put(row.getId(), row);
+        }
+    }
+
+    private Cursor cursorOf(Long sourceId) {
+        return cursors.computeIfAbsent(sourceId, id -> {
+            long checkpoint = checkpointService.getLastEventId(id, consumerName);
+            log.info("数据源 {} 按位点消费，从事件 ID {} 之后开始", id, checkpoint);
+            return new Cursor(checkpoint);
+        });
+    }
+}
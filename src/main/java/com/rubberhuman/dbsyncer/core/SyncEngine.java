@@ -1,24 +1,50 @@
 package com.rubberhuman.dbsyncer.core;
 
 import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLaneStatus;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpointFailure;
+import com.rubberhuman.dbsyncer.entity.sync.SyncDelivery;
 import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
 import com.rubberhuman.dbsyncer.exception.BusinessException;
 import com.rubberhuman.dbsyncer.exception.SyncConflictException;
 import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
 import com.rubberhuman.dbsyncer.service.sync.SyncAlertService;
+import com.rubberhuman.dbsyncer.service.sync.SyncDeliveryService;
 import com.rubberhuman.dbsyncer.service.sync.SyncEventService;
 import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import com.rubberhuman.dbsyncer.util.RowImageUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @Component
 @Slf4j
@@ -36,178 +62,701 @@ public class SyncEngine {
     @Autowired
     private DynamicDbUtil dynamicDbUtil;
 
+    @Autowired
+    private SyncApplier syncApplier;
+
+    @Autowired
+    private SyncAckWriter ackWriter;
+
+    @Autowired
+    private SyncCheckpointReader checkpointReader;
+
+    @Autowired
+    private SchemaCatalog schemaCatalog;
+
+    @Autowired
+    private SyncDeliveryService deliveryService;
+
+    @Autowired
+    private SyncStatsTracker statsTracker;
+
+    @Autowired
+    private SyncMetrics metrics;
+
+    @Autowired
+    private SyncLagMonitor lagMonitor;
+
     @Value("${dbsyncer.sync-worker.batch-size}")
     private int batchSize;
 
-    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.poll-interval-ms}")
+    // 自适应轮询：有积压的源库立即再次拉取，空闲源库从最小间隔按倍数退避到最大间隔
+    @Value("${dbsyncer.sync-worker.poll-min-interval-ms:1000}")
+    private long pollMinIntervalMs;
+
+    @Value("${dbsyncer.sync-worker.poll-max-interval-ms:${dbsyncer.sync-worker.poll-interval-ms:30000}}")
+    private long pollMaxIntervalMs;
+
+    @Value("${dbsyncer.sync-worker.poll-backoff-multiplier:2.0}")
+    private double pollBackoffMultiplier;
+
+    // 有积压时单个通道连续拉取的最大批数，超过后让出线程，由下一次调度继续
+    @Value("${dbsyncer.sync-worker.max-drain-batches:10}")
+    private int maxDrainBatches;
+
+    // 并行同步通道的工作线程数，<=0 时按 CPU 核数自动计算
+    @Value("${dbsyncer.sync-worker.lane-threads:0}")
+    private int laneThreads;
+
+    // 每个已启用的源库对应一个同步通道
+    private final Map<Long, SyncLane> lanes = new ConcurrentHashMap<>();
+
+    // 已启用数据源的缓存：调度节拍为秒级，不能每次都查询元数据库；数据源变化时标记失效，下一次调度重新加载
+    private volatile List<DataSourceConfig> activeSources = List.of();
+
+    private volatile boolean activeSourcesStale = true;
+
+    private volatile long activeSourcesLoadedAt;
+
+    // 兜底刷新间隔，覆盖绕过本服务直接修改元数据库的情况
+    @Value("${dbsyncer.sync-worker.source-refresh-interval-ms:60000}")
+    private long sourceRefreshIntervalMs;
+
+    // 是否将同一批事件并发应用到所有目标库
+    @Value("${dbsyncer.sync-worker.fan-out-enabled:true}")
+    private boolean fanOutEnabled;
+
+    // 事件消费方式：STATUS 回写源库事件状态；CHECKPOINT 在元数据库记录消费位点，源库事件表只追加
+    @Value("${dbsyncer.sync-worker.consume-mode:STATUS}")
+    private ConsumeMode consumeMode;
+
+    private ExecutorService laneExecutor;
+
+    // 目标库扇出使用虚拟线程，JDBC 阻塞调用不会占用平台线程
+    private ExecutorService fanOutExecutor;
+
+    @PostConstruct
+    public void init() {
+        int threads = laneThreads > 0 ? laneThreads : Runtime.getRuntime().availableProcessors() * 2;
+        laneExecutor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("sync-lane-"));
+        fanOutExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sync-fanout-", 0).factory());
+        log.info("同步引擎初始化完成，并行通道线程数：{}，消费方式：{}", threads, consumeMode.getDescription());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        fanOutExecutor.shutdown();
+        laneExecutor.shutdown();
+        try {
+            if (!laneExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
+                laneExecutor.shutdownNow();
+                fanOutExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            laneExecutor.shutdownNow();
+            fanOutExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // 调度节拍为最小轮询间隔，每次只分派到达轮询时间的源库
+    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.poll-min-interval-ms:1000}")
     public void startSync() {
 
-        log.info("=== 数据同步周期开始 ===");
+        log.debug("=== 数据同步周期开始 ===");
 
-        List<DataSourceConfig> activeSources = configService.listEnabled();
+        long now = System.currentTimeMillis();
+        List<DataSourceConfig> activeSources = loadActiveSources(now);
 
-        if (activeSources == null || activeSources.isEmpty()) {
-            log.info("当前未发现已启用的数据源，本轮同步结束");
+        if (activeSources.isEmpty()) {
+            log.debug("当前未发现已启用的数据源，本轮同步结束");
             return;
         }
 
-        log.info("发现 {} 个已启用的数据源，开始依次处理", activeSources.size());
-
         for (DataSourceConfig sourceDb : activeSources) {
-            try {
-                log.info("开始处理源数据库：{}", sourceDb.getSourceName());
-                processSource(sourceDb, activeSources);
-                log.info("源数据库处理完成：{}", sourceDb.getSourceName());
-            } catch (Exception e) {
-                log.error("处理源数据库失败：{}，已跳过，继续下一个", sourceDb.getSourceName(), e);
+            SyncLane lane = lanes.get(sourceDb.getSourceId());
+            // 重新启用的数据源：旧通道结束后被移除，列表未失效时在这里补建通道
+            if (lane == null && !activeSourcesStale) {
+                lane = lanes.computeIfAbsent(sourceDb.getSourceId(), SyncLane::new);
+            }
+            if (lane != null && lane.isDue(now)) {
+                dispatch(lane, sourceDb, activeSources);
             }
         }
 
-        log.info("=== 数据同步周期结束 ===");
+        log.debug("=== 数据同步周期分派结束 ===");
     }
 
-    // ------ 单源同步 ------
-    // 处理单个数据源的 sync_event
-    private void processSource(DataSourceConfig sourceDb, List<DataSourceConfig> allDbs) {
-        Long sourceId = sourceDb.getSourceId();
+    // 源库有新事件的推送通知：立即分派该源库；通道正忙时，本轮结束后马上再拉取一次
+    public void wake(Long sourceId) {
+        SyncLane lane = lanes.get(sourceId);
+        if (lane == null) {
+            return;
+        }
+        lane.wake();
 
-        // debug
-        if ("POSTGRESQL".equals(sourceDb.getDbType().name())) { // 只针对 PG 调试
-            try {
-                JdbcTemplate jt = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        List<DataSourceConfig> activeSources = this.activeSources;
+        activeSources.stream()
+                .filter(db -> db.getSourceId().equals(sourceId))
+                .findFirst()
+                .ifPresent(sourceDb -> dispatch(lane, sourceDb, activeSources));
+    }
 
-                // 1. 查当前连接的数据库名
-                String currentDb = jt.queryForObject("SELECT current_database()", String.class);
+    // 各源库当前的轮询状态，供管理接口查看
+    public List<SyncLaneStatus> getLaneStatuses() {
+        return lanes.values().stream()
+                .map(lane -> new SyncLaneStatus(lane.getSourceId(), lane.getIntervalMs(), lane.getNextPollAt(),
+                        lane.getLastFetched(), lane.isRunning()))
+                .toList();
+    }
 
-                // 2. 查当前的 Schema 搜索路径
-                String searchPath = jt.queryForObject("SHOW search_path", String.class);
+    // 数据源变化时下一次调度重新加载数据源列表；被禁用或删除时及时退役其同步通道
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        activeSourcesStale = true;
+        if (!event.isEnabled()) {
+            retireLane(event.getSourceId());
+        }
+    }
 
-                // 3. 查当前 Schema
-                String currentSchema = jt.queryForObject("SELECT current_schema()", String.class);
+    // 缓存失效或超过兜底刷新间隔时重新查询已启用数据源，并同步增删通道
+    private List<DataSourceConfig> loadActiveSources(long now) {
+        if (!activeSourcesStale && now - activeSourcesLoadedAt < sourceRefreshIntervalMs) {
+            return activeSources;
+        }
+        // 先清除标记再查询：查询期间到达的变化会在下一次调度再加载一次
+        activeSourcesStale = false;
+        List<DataSourceConfig> loaded = configService.listEnabled();
+        List<DataSourceConfig> sources = loaded == null ? List.of() : List.copyOf(loaded);
+        activeSources = sources;
+        activeSourcesLoadedAt = now;
+        refreshLanes(sources);
+        return sources;
+    }
 
-                log.info(">>> [Debug PG] Source={} | DB={} | Schema={} | SearchPath={}",
-                        sourceDb.getSourceName(), currentDb, currentSchema, searchPath);
+    // ------ 同步通道 ------
+    // 按当前启用的数据源增删通道；退役的通道在最后一轮结束前一直留在表中，避免同一源库被两个通道并发处理
+    private void refreshLanes(List<DataSourceConfig> activeSources) {
+        Set<Long> activeIds = activeSources.stream()
+                .map(DataSourceConfig::getSourceId)
+                .collect(Collectors.toSet());
 
-            } catch (Exception e) {
-                log.error(">>> [Debug PG] 探针执行失败", e);
+        for (Long sourceId : lanes.keySet()) {
+            if (!activeIds.contains(sourceId)) {
+                retireLane(sourceId);
+            }
+        }
+        for (Long sourceId : activeIds) {
+            // 重新启用的数据源：旧通道的最后一轮结束后才创建新通道
+            lanes.compute(sourceId, (id, lane) ->
+                    lane == null || (lane.isRetired() && !lane.isRunning()) ? new SyncLane(id) : lane);
+        }
+    }
+
+    // 先标记退役再检查是否在运行：空闲的通道立即移除；正在运行的由 runLane 在 release() 之后移除
+    private void retireLane(Long sourceId) {
+        lanes.computeIfPresent(sourceId, (id, lane) -> {
+            lane.retire();
+            return lane.isRunning() ? lane : null;
+        });
+    }
+
+    private void dispatch(SyncLane lane, DataSourceConfig sourceDb, List<DataSourceConfig> allDbs) {
+        if (!lane.tryAcquire()) {
+            log.debug("源数据库「{}」上一轮同步仍在进行，本轮跳过", sourceDb.getSourceName());
+            return;
+        }
+
+        try {
+            laneExecutor.execute(() -> runLane(lane, sourceDb, allDbs));
+        } catch (RejectedExecutionException e) {
+            lane.release();
+            log.warn("同步线程池已关闭或已满，源数据库「{}」本轮未能分派", sourceDb.getSourceName());
+        }
+    }
+
+    private void runLane(SyncLane lane, DataSourceConfig sourceDb, List<DataSourceConfig> allDbs) {
+        int fetched = 0;
+        long cycleStart = System.nanoTime();
+        lane.beginPoll();
+        try {
+            // 拉满一批说明仍有积压，立即继续拉取下一批
+            for (int round = 0; round < maxDrainBatches; round++) {
+                fetched = processSource(sourceDb, allDbs);
+                // 下一轮拉取前必须先回写本轮的确认，否则已处理的事件会被重复拉取
+                ackWriter.flush(sourceDb.getSourceId());
+                if (fetched < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            fetched = 0;
+            log.error("处理源数据库失败：{}，等待下一轮重试", sourceDb.getSourceName(), e);
+        } finally {
+            ackWriter.flush(sourceDb.getSourceId());
+            metrics.cycleDuration(sourceDb.getSourceId(), cycleStart);
+            lane.onPolled(fetched, fetched >= batchSize, pollMinIntervalMs, pollMaxIntervalMs, pollBackoffMultiplier);
+            lane.release();
+            if (lane.isRetired()) {
+                lanes.remove(lane.getSourceId(), lane);
             }
         }
+    }
 
-        // 拉取所有 sourceDb 中未同步的事件
-        List<SyncEvent> events = syncEventService.getUnprocessedList(sourceId, batchSize);
+    // ------ 单源同步 ------
+    // 处理单个数据源的 sync_event，返回本次拉取到的事件数
+    private int processSource(DataSourceConfig sourceDb, List<DataSourceConfig> allDbs) {
+        Long sourceId = sourceDb.getSourceId();
+
+        // 拉取 sourceDb 中未同步的事件
+        long fetchStart = System.nanoTime();
+        List<SyncEvent> events = consumeMode == ConsumeMode.CHECKPOINT
+                ? checkpointReader.poll(sourceId, batchSize)
+                : syncEventService.getUnprocessedList(sourceId, batchSize);
+        metrics.fetchLatency(sourceId, fetchStart);
         if (events.isEmpty()) {
-            return;
+            return 0;
         }
         log.info("在数据源「{}」中发现 {} 条待同步事件", sourceDb.getSourceName(), events.size());
+        statsTracker.onFetched(sourceId, events);
+        recordFetched(sourceId, events);
+
+        processEvents(sourceDb, allDbs, events);
+
+        // 整批处理完成后推进位点；处理中途抛出异常时不推进，下一轮重读
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            checkpointReader.commit(sourceId, events);
+        }
+        return events.size();
+    }
+
+    private void processEvents(DataSourceConfig sourceDb, List<DataSourceConfig> allDbs, List<SyncEvent> events) {
+        Long sourceId = sourceDb.getSourceId();
 
         // 计算需要同步的所有数据库
         List<DataSourceConfig> targetDbs = allDbs.stream()
                 .filter(db -> !db.getSourceId().equals(sourceId))
                 .toList();
+        List<Long> targetIds = targetDbs.stream().map(DataSourceConfig::getSourceId).toList();
+
+        // 位点消费模式下，事件在此前的批次中失败过的，先取出其失败记录
+        Deliveries deliveries = Deliveries.empty();
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            deliveries.failures().putAll(checkpointReader.findFailures(sourceId,
+                    events.stream().map(SyncEvent::getId).toList()));
+        }
 
+        // 1. 校验事件，无效事件直接标记失败
+        List<SyncEvent> validEvents = new ArrayList<>(events.size());
         for (SyncEvent event : events) {
-            processEvent(sourceDb, targetDbs, event);
+            if (isValidEvent(event)) {
+                validEvents.add(event);
+            } else {
+                markFail(sourceId, List.of(event.getId()), targetIds, "无效的同步事件数据", deliveries);
+                log.warn("【同步引擎】事件 {} 校验失败，已标记为失败", event.getId());
+            }
+        }
+
+        // 2. 合并同一 (表, 主键) 的多个事件，只保留最后一次有效操作
+        EventCoalescer.Result coalesced = EventCoalescer.coalesce(validEvents);
+        if (coalesced.foldedCount() > 0) {
+            log.info("数据源「{}」本批合并了 {} 条同一行的重复事件，实际需应用 {} 条",
+                    sourceDb.getSourceName(), coalesced.foldedCount(), coalesced.events().size());
+        }
+
+        // 3. INSERT/UPDATE 事件优先使用触发器记录的行镜像，没有行镜像的按表批量回查源数据
+        Map<Long, Map<String, Object>> rowImages = parseRowImages(coalesced.events());
+        List<SyncEvent> toFetch = coalesced.events().stream()
+                .filter(event -> !rowImages.containsKey(event.getId()))
+                .toList();
+        Map<TableKey, Exception> fetchFailures = new HashMap<>();
+        Map<TableKey, Map<String, Map<String, Object>>> sourceRows = fetchSourceRows(sourceId, toFetch, fetchFailures);
+
+        List<PendingEvent> pending = new ArrayList<>(coalesced.events().size());
+        for (SyncEvent event : coalesced.events()) {
+            PendingEvent prepared = prepareEvent(sourceDb, event, coalesced.idsOf(event), targetIds, rowImages,
+                    sourceRows, fetchFailures, deliveries);
+            if (prepared != null) {
+                pending.add(prepared);
+            }
+        }
+        if (pending.isEmpty()) {
+            saveDeliveries(sourceId, events, deliveries);
+            return;
+        }
+
+        // 4. 部分目标库失败后重试的事件，跳过已经送达的目标库
+        loadDeliveries(sourceId, pending, coalesced, targetIds, deliveries);
+
+        // 5. 将整批事件应用到所有目标库（各目标库之间并发，同一目标库内按事件顺序执行）
+        List<TargetOutcome> outcomes = applyToTargets(sourceId, targetDbs, pending, deliveries);
+
+        // 6. 按事件汇总各目标库的结果，被合并的事件一并确认
+        for (PendingEvent item : pending) {
+            settleEvent(sourceDb, item.event(), coalesced.idsOf(item.event()), targetIds, outcomes, deliveries);
         }
+        saveDeliveries(sourceId, events, deliveries);
     }
 
-    private void processEvent(DataSourceConfig sourceDb, List<DataSourceConfig> targetDbs, SyncEvent event) {
-        try {
-            // 合法性校验
-            if (!isValidEvent(event)) {
-                syncEventService.markFail(sourceDb.getSourceId(), event.getId(), "无效的同步事件数据");
-                log.warn("【同步引擎】事件 {} 校验失败，已标记为失败", event.getId());
-                return;
+    // ------ 按目标库送达跟踪 ------
+    // delivered：保留事件 -> 已送达的目标库（被合并的事件也都送达才算）；existing：已有送达记录的事件 ID -> 目标库
+    // toRecord / toClear 在整批处理完成后一次写入元数据库
+    // 位点消费模式改为跟踪失败：failures 为此前的失败记录 (事件 ID -> 目标库 -> 记录)，toFail / toResolve 为本批新增或更新、已送达待删除的失败记录
+    private record Deliveries(Map<Long, Set<Long>> delivered, Map<Long, Set<Long>> existing,
+                              List<SyncDelivery> toRecord, List<Long> toClear,
+                              Map<Long, Map<Long, SyncCheckpointFailure>> failures,
+                              List<SyncCheckpointFailure> toFail, List<Long> toResolve) {
+
+        static Deliveries empty() {
+            return new Deliveries(new HashMap<>(), new HashMap<>(), new ArrayList<>(), new ArrayList<>(),
+                    new HashMap<>(), new ArrayList<>(), new ArrayList<>());
+        }
+
+        Set<Long> deliveredTargets(SyncEvent event) {
+            return delivered.getOrDefault(event.getId(), Set.of());
+        }
+
+        // 事件仍需送达的目标库：有失败记录的只剩失败的目标库，否则为全部目标库
+        Collection<Long> pendingTargets(Long eventId, List<Long> targetIds) {
+            Map<Long, SyncCheckpointFailure> failed = failures.get(eventId);
+            return failed == null ? targetIds : failed.keySet();
+        }
+    }
+
+    // STATUS 模式读取送达记录；CHECKPOINT 模式下有失败记录的事件，除失败的目标库外都视为已送达
+    private void loadDeliveries(Long sourceId, List<PendingEvent> pending, EventCoalescer.Result coalesced,
+                                List<Long> targetIds, Deliveries deliveries) {
+        List<Long> allIds = new ArrayList<>();
+        for (PendingEvent item : pending) {
+            allIds.addAll(coalesced.idsOf(item.event()));
+        }
+
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            for (Long id : allIds) {
+                Map<Long, SyncCheckpointFailure> failed = deliveries.failures().get(id);
+                if (failed != null) {
+                    Set<Long> done = new HashSet<>(targetIds);
+                    done.removeAll(failed.keySet());
+                    deliveries.existing().put(id, done);
+                }
             }
+        } else {
+            deliveries.existing().putAll(deliveryService.findDelivered(sourceId, allIds));
+        }
+        if (deliveries.existing().isEmpty()) {
+            return;
+        }
 
-            // 从源数据库获取需要同步的数据
-            // INSERT/UPDATE 任务需要回查数据，DELETE 直接修改
-            Map<String, Object> sourceData = null;
-            if ("INSERT".equals(event.getOpType()) || "UPDATE".equals(event.getOpType())) {
-                sourceData = fetchSourceData(sourceDb.getSourceId(), event);
-                if (sourceData == null) {
-                    syncEventService.markFail(sourceDb.getSourceId(), event.getId(), "源数据不存在，可能已被删除");
-                    log.warn("【同步引擎】事件 {} 回查源数据失败，数据不存在", event.getId());
-                    return;
+        for (PendingEvent item : pending) {
+            Set<Long> targets = null;
+            for (Long id : coalesced.idsOf(item.event())) {
+                Set<Long> done = deliveries.existing().getOrDefault(id, Set.of());
+                if (targets == null) {
+                    targets = new HashSet<>(done);
+                } else {
+                    targets.retainAll(done);
                 }
             }
+            if (targets != null && !targets.isEmpty()) {
+                deliveries.delivered().put(item.event().getId(), targets);
+            }
+        }
+    }
+
+    // 位点消费模式下失败记录保存失败时直接抛出，本批位点不推进；保存成功后按失败记录的变化更新统计
+    private void saveDeliveries(Long sourceId, List<SyncEvent> events, Deliveries deliveries) {
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            checkpointReader.saveFailures(sourceId, deliveries.toFail(), deliveries.toResolve());
+            Set<Long> failedIds = deliveries.toFail().stream()
+                    .map(SyncCheckpointFailure::getEventId)
+                    .collect(Collectors.toSet());
+            int resolved = (int) deliveries.failures().keySet().stream()
+                    .filter(id -> !failedIds.contains(id))
+                    .count();
+            statsTracker.onSettled(sourceId, events, failedIds, resolved);
+            return;
+        }
+        try {
+            deliveryService.recordDelivered(deliveries.toRecord());
+            deliveryService.clear(sourceId, deliveries.toClear());
+        } catch (Exception e) {
+            // 送达记录丢失只会导致重试时重复写入已成功的目标库，不影响正确性
+            log.warn("【同步引擎】保存数据源 {} 的事件送达记录失败：{}", sourceId, e.getMessage());
+        }
+    }
+
+    // 为事件关联源数据（行镜像或回查结果）：INSERT/UPDATE 任务需要源数据，DELETE 直接修改
+    private PendingEvent prepareEvent(DataSourceConfig sourceDb, SyncEvent event, List<Long> eventIds, List<Long> targetIds,
+                                      Map<Long, Map<String, Object>> rowImages,
+                                      Map<TableKey, Map<String, Map<String, Object>>> sourceRows,
+                                      Map<TableKey, Exception> fetchFailures, Deliveries deliveries) {
+        if (!needsFetch(event)) {
+            return new PendingEvent(event, null);
+        }
+
+        Map<String, Object> rowImage = rowImages.get(event.getId());
+        if (rowImage != null) {
+            return new PendingEvent(event, rowImage);
+        }
+
+        TableKey key = TableKey.of(event);
+        Exception failure = fetchFailures.get(key);
+        if (failure != null) {
+            markFail(sourceDb.getSourceId(), eventIds, targetIds, "系统异常：" + failure.getMessage(), deliveries);
+            return null;
+        }
+
+        Map<String, Object> sourceData = sourceRows.getOrDefault(key, Map.of()).get(event.getPkValue());
+        if (sourceData == null) {
+            markFail(sourceDb.getSourceId(), eventIds, targetIds, "源数据不存在，可能已被删除", deliveries);
+            log.warn("【同步引擎】事件 {} 回查源数据失败，数据不存在", event.getId());
+            return null;
+        }
+        return new PendingEvent(event, sourceData);
+    }
 
-            // 同步任务调度
+    // 汇总单个事件在所有目标库上的结果，并回写事件状态
+    // 部分目标库失败时记录已成功的目标库，重试时只发往仍需要该事件的目标库；全部成功后清除送达记录
+    private void settleEvent(DataSourceConfig sourceDb, SyncEvent event, List<Long> eventIds, List<Long> targetIds,
+                             List<TargetOutcome> outcomes, Deliveries deliveries) {
+        try {
             boolean allSuccess = true;
             StringBuilder errorLog = new StringBuilder();
-
-            for (DataSourceConfig targetDb : targetDbs) {
-                try {
-                    syncToTarget(targetDb, event, sourceData);
-                    log.info("【同步引擎】事件 {} 已成功同步到目标库「{}」", event.getId(), targetDb.getSourceName());
-                } catch (SyncConflictException ce) {
+            List<Long> succeededTargets = new ArrayList<>(outcomes.size());
+            Map<Long, String> targetErrors = new LinkedHashMap<>();
+
+            for (TargetOutcome outcome : outcomes) {
+                DataSourceConfig targetDb = outcome.target();
+                Exception error = outcome.errors().get(event.getId());
+
+                if (error == null) {
+                    succeededTargets.add(targetDb.getSourceId());
+                    if (deliveries.deliveredTargets(event).contains(targetDb.getSourceId())) {
+                        log.debug("【同步引擎】事件 {} 此前已送达目标库「{}」，本次跳过", event.getId(), targetDb.getSourceName());
+                    } else {
+                        log.info("【同步引擎】事件 {} 已成功同步到目标库「{}」", event.getId(), targetDb.getSourceName());
+                    }
+                } else if (error instanceof SyncConflictException ce) {
                     allSuccess = false;
 
                     errorLog.append("【冲突】").append(targetDb.getSourceName()).append("：").append(ce.getMessage()).append("；");
+                    targetErrors.put(targetDb.getSourceId(), "【冲突】" + ce.getMessage());
                     log.error("检测到数据同步冲突，事件ID={}", event.getId(), ce);
 
                     alertService.sendConflictAlert(sourceDb.getSourceName(), targetDb.getSourceName(), ce.getTable(), ce.getPk(), ce.getMessage());
-                } catch (Exception e) {
+                } else {
                     allSuccess = false;
-                    errorLog.append("「").append(targetDb.getSourceName()).append("」同步失败：").append(e.getMessage()).append("；");
-                    log.error("【同步引擎】事件 {} 同步到目标库「{}」失败", event.getId(), targetDb.getSourceName(), e);
+                    errorLog.append("「").append(targetDb.getSourceName()).append("」同步失败：").append(error.getMessage()).append("；");
+                    targetErrors.put(targetDb.getSourceId(), error.getMessage());
+                    log.error("【同步引擎】事件 {} 同步到目标库「{}」失败", event.getId(), targetDb.getSourceName(), error);
                 }
             }
 
+            resolveFailures(eventIds, succeededTargets, deliveries);
             if (allSuccess) {
-                syncEventService.markSuccess(sourceDb.getSourceId(), event.getId());
+                markSuccess(sourceDb.getSourceId(), eventIds);
+                eventIds.stream().filter(deliveries.existing()::containsKey).forEach(deliveries.toClear()::add);
             } else {
-                syncEventService.markFail(sourceDb.getSourceId(), event.getId(), errorLog.toString());
+                markFail(sourceDb.getSourceId(), eventIds, errorLog.toString(), targetErrors, deliveries);
+                trackDelivered(sourceDb.getSourceId(), eventIds, succeededTargets, deliveries);
             }
         } catch (Exception e) {
-            syncEventService.markFail(sourceDb.getSourceId(), event.getId(), "系统异常：" + e.getMessage());
+            markFail(sourceDb.getSourceId(), eventIds, targetIds, "系统异常：" + e.getMessage(), deliveries);
             log.error("【同步引擎】处理事件 {} 时发生系统异常", event.getId(), e);
         }
     }
 
-    private void syncToTarget(DataSourceConfig targetDb, SyncEvent event, Map<String, Object> data) {
-        JdbcTemplate targetJt = dynamicDbUtil.getSyncWorkerJdbcTemplate(targetDb.getSourceId());
-        String tableName = event.getTableName();
-        String pkCol = event.getPkColumnName();
-        String pkVal = event.getPkValue();
-        String opType = event.getOpType();
+    // 记录尚未记录过的 (事件, 目标库) 送达
+    private void trackDelivered(Long sourceId, List<Long> eventIds, List<Long> targetIds, Deliveries deliveries) {
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            return;
+        }
+        for (Long eventId : eventIds) {
+            Set<Long> existing = deliveries.existing().getOrDefault(eventId, Set.of());
+            for (Long targetId : targetIds) {
+                if (!existing.contains(targetId)) {
+                    SyncDelivery delivery = new SyncDelivery();
+                    delivery.setSourceId(sourceId);
+                    delivery.setEventId(eventId);
+                    delivery.setTargetId(targetId);
+                    deliveries.toRecord().add(delivery);
+                }
+            }
+        }
+    }
+
+    // 回写事件状态：交给组提交写入器缓冲合并；被合并的事件与保留事件共享同一个结果
+    // 位点消费模式下不再写源库，进度由位点表示
+    private void markSuccess(Long sourceId, List<Long> eventIds) {
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            return;
+        }
+        for (Long eventId : eventIds) {
+            ackWriter.success(sourceId, eventId);
+        }
+    }
 
-        // 只有 UPDATE 操作检测冲突
-        if ("UPDATE".equals(opType)) {
-            checkConflict(targetJt, tableName, pkCol, pkVal, event.getDataVersion());
+    // 位点消费模式下为每个 (事件, 目标库) 记录失败，位点越过后按失败记录重试；targetErrors 为目标库 -> 错误信息
+    private void markFail(Long sourceId, List<Long> eventIds, String msg, Map<Long, String> targetErrors,
+                          Deliveries deliveries) {
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            for (Long eventId : eventIds) {
+                Map<Long, SyncCheckpointFailure> previous = deliveries.failures().getOrDefault(eventId, Map.of());
+                targetErrors.forEach((targetId, error) -> {
+                    SyncCheckpointFailure failure = new SyncCheckpointFailure();
+                    SyncCheckpointFailure prev = previous.get(targetId);
+                    if (prev != null) {
+                        failure.setFailureId(prev.getFailureId());
+                        failure.setRetryCount(prev.getRetryCount() == null ? 1 : prev.getRetryCount() + 1);
+                    }
+                    failure.setSourceId(sourceId);
+                    failure.setEventId(eventId);
+                    failure.setTargetId(targetId);
+                    failure.setErrorMsg(error);
+                    deliveries.toFail().add(failure);
+                });
+            }
+            return;
+        }
+        for (Long eventId : eventIds) {
+            ackWriter.fail(sourceId, eventId, msg);
         }
+    }
 
-        switch (opType) {
-            case "INSERT", "UPDATE":
-                executeUpsert(targetJt, tableName, pkCol, pkVal, data);
-                break;
-            case "DELETE":
-                executeDelete(targetJt, tableName, pkCol, pkVal);
-                break;
-            default:
-                throw new BusinessException("未知的同步操作类型：" + event.getOpType());
+    // 事件整体失败（未发往任何目标库）：所有仍需送达的目标库记同一个错误
+    private void markFail(Long sourceId, List<Long> eventIds, List<Long> targetIds, String msg, Deliveries deliveries) {
+        if (consumeMode != ConsumeMode.CHECKPOINT) {
+            markFail(sourceId, eventIds, msg, Map.of(), deliveries);
+            return;
+        }
+        for (Long eventId : eventIds) {
+            Map<Long, String> targetErrors = new LinkedHashMap<>();
+            for (Long targetId : deliveries.pendingTargets(eventId, targetIds)) {
+                targetErrors.put(targetId, msg);
+            }
+            markFail(sourceId, List.of(eventId), msg, targetErrors, deliveries);
         }
     }
 
-    // 乐观锁冲突检测
-    private void checkConflict(JdbcTemplate jt, String table, String pkCol, String pkVal, Long eventVersion) {
-        if (eventVersion == null) {
-            throw new BusinessException("同步事件缺少数据版本号，无法进行冲突检测，" + "表=" + table + ", 主键=" + pkVal);
+    // 此前失败、本次已送达的 (事件, 目标库)，删除其失败记录
+    private void resolveFailures(List<Long> eventIds, List<Long> succeededTargets, Deliveries deliveries) {
+        if (deliveries.failures().isEmpty()) {
+            return;
+        }
+        for (Long eventId : eventIds) {
+            Map<Long, SyncCheckpointFailure> previous = deliveries.failures().get(eventId);
+            if (previous == null) {
+                continue;
+            }
+            for (Long targetId : succeededTargets) {
+                SyncCheckpointFailure prev = previous.get(targetId);
+                if (prev != null) {
+                    deliveries.toResolve().add(prev.getFailureId());
+                }
+            }
         }
+    }
 
-        try {
-            String sql = "SELECT sync_version FROM " + table + " WHERE " + pkCol + " = ?";
+    // ------ 目标库扇出 ------
+    // 单个目标库对整批事件的执行结果，errors 只记录失败的事件 (eventId -> 异常)
+    private record TargetOutcome(DataSourceConfig target, Map<Long, Exception> errors) {
+    }
 
-            Long targetVersion = jt.queryForObject(sql, Long.class, pkVal);
+    // 将整批事件应用到所有目标库，返回结果的顺序与 targetDbs 一致；已送达某目标库的事件不再发往该目标库
+    private List<TargetOutcome> applyToTargets(Long sourceId, List<DataSourceConfig> targetDbs, List<PendingEvent> batch,
+                                               Deliveries deliveries) {
+        List<TargetOutcome> outcomes = new ArrayList<>(targetDbs.size());
 
-            if (targetVersion != null && targetVersion > eventVersion) {
-                throw new SyncConflictException("目标库版本高于事件版本", table, pkVal, eventVersion, targetVersion);
+        if (!fanOutEnabled || targetDbs.size() <= 1) {
+            for (DataSourceConfig targetDb : targetDbs) {
+                List<PendingEvent> targetBatch = undelivered(targetDb, batch, deliveries);
+                TargetOutcome outcome = applyToTarget(sourceId, targetDb, targetBatch);
+                recordApplied(sourceId, targetBatch, outcome);
+                outcomes.add(outcome);
+            }
+            return outcomes;
+        }
+
+        List<List<PendingEvent>> targetBatches = new ArrayList<>(targetDbs.size());
+        List<Future<TargetOutcome>> futures = new ArrayList<>(targetDbs.size());
+        for (DataSourceConfig targetDb : targetDbs) {
+            List<PendingEvent> targetBatch = undelivered(targetDb, batch, deliveries);
+            targetBatches.add(targetBatch);
+            futures.add(fanOutExecutor.submit(() -> applyToTarget(sourceId, targetDb, targetBatch)));
+        }
+
+        for (int i = 0; i < futures.size(); i++) {
+            DataSourceConfig targetDb = targetDbs.get(i);
+            TargetOutcome outcome;
+            try {
+                outcome = futures.get(i).get();
+            } catch (ExecutionException e) {
+                outcome = failWholeBatch(targetDb, targetBatches.get(i), new BusinessException("同步任务执行异常：" + e.getCause(), e.getCause()));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                outcome = failWholeBatch(targetDb, targetBatches.get(i), new BusinessException("同步任务被中断", e));
             }
+            recordApplied(sourceId, targetBatches.get(i), outcome);
+            outcomes.add(outcome);
+        }
+        return outcomes;
+    }
+
+    private List<PendingEvent> undelivered(DataSourceConfig targetDb, List<PendingEvent> batch, Deliveries deliveries) {
+        if (deliveries.delivered().isEmpty()) {
+            return batch;
+        }
+        return batch.stream()
+                .filter(item -> !deliveries.deliveredTargets(item.event()).contains(targetDb.getSourceId()))
+                .toList();
+    }
+
+    // 在单个目标库上应用整批事件（批量写入，失败行逐行兜底）
+    private TargetOutcome applyToTarget(Long sourceId, DataSourceConfig targetDb, List<PendingEvent> batch) {
+        if (batch.isEmpty()) {
+            return new TargetOutcome(targetDb, Map.of());
+        }
+        long start = System.nanoTime();
+        try {
+            return new TargetOutcome(targetDb, syncApplier.apply(targetDb, batch));
+        } finally {
+            metrics.applyLatency(sourceId, targetDb.getSourceId(), start);
+        }
+    }
+
+    private TargetOutcome failWholeBatch(DataSourceConfig targetDb, List<PendingEvent> batch, Exception error) {
+        Map<Long, Exception> errors = new HashMap<>();
+        for (PendingEvent item : batch) {
+            errors.put(item.event().getId(), error);
+        }
+        return new TargetOutcome(targetDb, errors);
+    }
 
-        } catch (EmptyResultDataAccessException e) {
-            // 目标库查不到数据，说明是新数据，无冲突
+    // ------ 指标 ------
+    // 按表汇总后每张表累加一次
+    private void recordFetched(Long sourceId, List<SyncEvent> events) {
+        metrics.batchSize(sourceId, events.size());
+        Map<String, Integer> byTable = new HashMap<>();
+        for (SyncEvent event : events) {
+            byTable.merge(String.valueOf(event.getTableName()), 1, Integer::sum);
         }
+        byTable.forEach((table, count) -> metrics.fetched(sourceId, table, count));
     }
 
+    // 单个目标库的写入结果按表汇总为 [成功, 失败, 冲突]，并记录复制延迟
+    private void recordApplied(Long sourceId, List<PendingEvent> batch, TargetOutcome outcome) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<String, int[]> byTable = new HashMap<>();
+        for (PendingEvent item : batch) {
+            Exception error = outcome.errors().get(item.event().getId());
+            int slot = error == null ? 0 : error instanceof SyncConflictException ? 2 : 1;
+            byTable.computeIfAbsent(item.event().getTableName(), k -> new int[3])[slot]++;
+        }
+        Long targetId = outcome.target().getSourceId();
+        byTable.forEach((table, counts) -> metrics.applied(sourceId, targetId, table, counts[0], counts[1], counts[2]));
+        lagMonitor.onApplied(sourceId, targetId, batch, outcome.errors());
+    }
 
     // ------ 辅助方法 ------
     private boolean isValidEvent(SyncEvent event) {
@@ -217,85 +766,88 @@ public class SyncEngine {
                 && event.getOpType() != null;
     }
 
-    private Map<String, Object> fetchSourceData(Long sourceId, SyncEvent event) {
-        JdbcTemplate jt = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
-        String sql = "SELECT * FROM " + event.getTableName() + " WHERE " + event.getPkColumnName() + " = ?";
-        try {
-            return jt.queryForMap(sql, event.getPkValue());
-        } catch (EmptyResultDataAccessException e) {
-            return null;
-        }
+    private boolean needsFetch(SyncEvent event) {
+        return "INSERT".equals(event.getOpType()) || "UPDATE".equals(event.getOpType());
     }
 
-    public void executeUpsert(JdbcTemplate jt, String tableName, String pkCol, String pkVal, Map<String, Object> data) {
-        try {
-            int rows = executeUpdate(jt, tableName, pkCol, pkVal, data);
-            if (rows == 0) {
-                try {
-                    executeInsert(jt, tableName, data);
-                } catch (Exception e) {
-                    log.warn("INSERT 失败，尝试转为 UPDATE : {}", e.getMessage());
-                    executeUpdate(jt, tableName, pkCol, pkVal, data);
-                }
+    // 解析事件自带的行镜像，解析失败的事件退回到回查源表
+    private Map<Long, Map<String, Object>> parseRowImages(List<SyncEvent> events) {
+        Map<Long, Map<String, Object>> rowImages = new HashMap<>();
+        for (SyncEvent event : events) {
+            if (!needsFetch(event) || event.getPayload() == null || event.getPayload().isBlank()) {
+                continue;
+            }
+            try {
+                rowImages.put(event.getId(), RowImageUtil.parse(event.getPayload()));
+            } catch (Exception e) {
+                log.warn("【同步引擎】事件 {} 的行镜像解析失败，改为回查源表：{}", event.getId(), e.getMessage());
             }
-        } catch (Exception e) {
-            log.error("同步到目标库失败。表: {}, 主键: {}, 错误: {}", tableName, pkVal, e.getCause().getMessage());
-            throw e;
         }
+        return rowImages;
     }
 
-    private void executeInsert(JdbcTemplate jt, String tableName, Map<String, Object> data) {
-        StringBuilder sql = new StringBuilder("INSERT INTO ").append(tableName).append(" (");
-        StringBuilder values = new StringBuilder("VALUES (");
-        List<Object> args = new ArrayList<>();
+    // 回查源数据时按 (表, 主键列) 分组
+    private record TableKey(String table, String pkCol) {
 
-        int i = 0;
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            if (i > 0) {
-                sql.append(", ");
-                values.append(", ");
-            }
-            sql.append(entry.getKey());
-            values.append("?");
-            args.add(entry.getValue());
-            i++;
+        static TableKey of(SyncEvent event) {
+            return new TableKey(event.getTableName(), event.getPkColumnName());
         }
-
-        sql.append(") ").append(values).append(")");
-        jt.update(sql.toString(), args.toArray());
     }
 
-    private int executeUpdate(JdbcTemplate jt, String tableName, String pkCol, String pkVal, Map<String, Object> data) {
-        StringBuilder sql = new StringBuilder("UPDATE ").append(tableName).append(" SET ");
-        List<Object> args = new ArrayList<>();
-
-        int i = 0;
-        for (Map.Entry<String, Object> entry : data.entrySet()) {
-            // 主键不参与 SET 操作
-            if (entry.getKey().equalsIgnoreCase(pkCol)) {
-                continue;
-            }
-            if (i > 0) {
-                sql.append(", ");
+    // 按表分块执行 WHERE pk IN (...) 批量回查，返回 表 -> (主键值 -> 行数据)
+    // 某张表回查失败时记录到 failures，不影响其他表
+    private Map<TableKey, Map<String, Map<String, Object>>> fetchSourceRows(Long sourceId, List<SyncEvent> events,
+                                                                         Map<TableKey, Exception> failures) {
+        Map<TableKey, Set<String>> pksByTable = new LinkedHashMap<>();
+        for (SyncEvent event : events) {
+            if (needsFetch(event)) {
+                pksByTable.computeIfAbsent(TableKey.of(event), k -> new LinkedHashSet<>()).add(event.getPkValue());
             }
-            sql.append(entry.getKey()).append(" = ?");
-            args.add(entry.getValue());
-            i++;
         }
 
-        // 如果没有可更新的列，直接返回 1 (视作成功)
-        if (args.isEmpty()) {
-            return 1;
+        Map<TableKey, Map<String, Map<String, Object>>> result = new HashMap<>();
+        if (pksByTable.isEmpty()) {
+            return result;
         }
 
-        sql.append(" WHERE ").append(pkCol).append(" = ?");
-        args.add(pkVal);
-
-        return jt.update(sql.toString(), args.toArray());
+        JdbcTemplate jt = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        for (Map.Entry<TableKey, Set<String>> entry : pksByTable.entrySet()) {
+            TableKey key = entry.getKey();
+            try {
+                result.put(key, fetchRows(jt, schemaCatalog.find(sourceId, key.table()), key, new ArrayList<>(entry.getValue())));
+            } catch (CannotGetJdbcConnectionException e) {
+                // 源库不可达，其余表也不再逐一等待连接超时
+                log.error("【同步引擎】回查源表 {} 时无法连接源库，本批其余回查一并失败", key.table(), e);
+                pksByTable.keySet().stream().filter(k -> !result.containsKey(k)).forEach(k -> failures.put(k, e));
+                break;
+            } catch (Exception e) {
+                failures.put(key, e);
+                log.error("【同步引擎】回查源表 {} 失败", key.table(), e);
+            }
+        }
+        return result;
     }
 
-    private void executeDelete(JdbcTemplate jt, String tableName, String pkCol, String pkVal) {
-        String sql = "DELETE FROM " + tableName + " WHERE " + pkCol + " = ?";
-        jt.update(sql, pkVal);
+    // 主键按源表主键列的类型绑定；源表结构未知时按字符串绑定
+    // 返回结果以事件中的主键字符串为键：查回的主键按列类型规范化后对应回事件主键（CHAR 填充、数字写法、UUID 大小写等）
+    private Map<String, Map<String, Object>> fetchRows(JdbcTemplate jt, TableSchema schema, TableKey key, List<String> pks) {
+        Map<String, Map<String, Object>> rows = new HashMap<>();
+        for (int from = 0; from < pks.size(); from += SyncApplier.IN_CHUNK_SIZE) {
+            List<String> chunk = pks.subList(from, Math.min(from + SyncApplier.IN_CHUNK_SIZE, pks.size()));
+            String sql = "SELECT * FROM " + key.table() + " WHERE " + key.pkCol() + " IN ("
+                    + String.join(", ", Collections.nCopies(chunk.size(), "?")) + ")";
+            Object[] args = chunk.stream().map(pk -> schema == null ? pk : schema.bindKey(key.pkCol(), pk)).toArray();
+            Map<String, String> eventPks = new HashMap<>();
+            for (String pk : chunk) {
+                eventPks.put(SyncApplier.normalizeKey(schema, key.pkCol(), pk), pk);
+            }
+            for (Map<String, Object> row : jt.queryForList(sql, args)) {
+                String pk = eventPks.get(SyncApplier.normalizeKey(schema, key.pkCol(), row.get(key.pkCol())));
+                if (pk != null) {
+                    rows.put(pk, row);
+                }
+            }
+        }
+        return rows;
     }
 }
@@ -0,0 +1,433 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointFailureService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// 源库 sync_event 的分区维护：预建后续几天的分区，并把超过保留天数且已全部同步的分区整块删除（可选先归档），
+// 代替逐行 DELETE。sync_event 按 op_time 天分区（建表语句见 sql/ 下各数据库脚本），未分区的表直接跳过
+// MySQL：RANGE COLUMNS 分区 pYYYYMMDD，从 p_future 中拆出；PG：声明式分区 sync_event_pYYYYMMDD；
+// Oracle：间隔分区，写入时自动创建；SQL Server：分区函数 pf_sync_event_day 的每天一个边界值
+// 分区 DDL 可能要搬移整个分区的数据，在独立线程上执行，不占用引擎分派等定时任务共用的调度线程
+@Component
+@Slf4j
+public class SyncEventRetention {
+
+    private static final DateTimeFormatter DAY_SUFFIX = DateTimeFormatter.BASIC_ISO_DATE;
+
+    private static final Pattern MYSQL_PARTITION = Pattern.compile("p(\\d{8})");
+
+    private static final Pattern PG_PARTITION = Pattern.compile("sync_event_p(\\d{8})");
+
+    private static final Pattern ORACLE_HIGH_VALUE = Pattern.compile("(\\d{4}-\\d{2}-\\d{2})");
+
+    private static final String SQL_SERVER_FUNCTION = "pf_sync_event_day";
+
+    private static final String ARCHIVE_TABLE = "sync_event_archive";
+
+    @Autowired
+    private DataSourceConfigService configService;
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    @Autowired
+    private SyncCheckpointService checkpointService;
+
+    @Autowired
+    private SyncCheckpointFailureService failureService;
+
+    @Autowired
+    private SyncStatsTracker statsTracker;
+
+    @Value("${dbsyncer.sync-worker.event-retention-enabled:true}")
+    private boolean enabled;
+
+    // 分区保留天数，早于 (今天 - 保留天数) 的分区才会被删除
+    @Value("${dbsyncer.sync-worker.event-retention-days:7}")
+    private int retentionDays;
+
+    // 预建的分区天数（不含今天）
+    @Value("${dbsyncer.sync-worker.event-partition-premake-days:3}")
+    private int premakeDays;
+
+    // 删除分区前是否先把事件复制到 sync_event_archive
+    @Value("${dbsyncer.sync-worker.event-archive-enabled:false}")
+    private boolean archiveEnabled;
+
+    @Value("${dbsyncer.sync-worker.consume-mode:STATUS}")
+    private ConsumeMode consumeMode;
+
+    @Value("${dbsyncer.sync-worker.consumer-name:default}")
+    private String consumerName;
+
+    private ExecutorService maintainExecutor;
+
+    // 上一轮维护尚未结束时跳过本轮
+    private final AtomicBoolean maintaining = new AtomicBoolean(false);
+
+    @PostConstruct
+    public void init() {
+        maintainExecutor = Executors.newSingleThreadExecutor(new CustomizableThreadFactory("sync-event-retention-"));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        maintainExecutor.shutdownNow();
+    }
+
+    @Scheduled(initialDelayString = "${dbsyncer.sync-worker.event-retention-initial-delay-ms:60000}",
+            fixedDelayString = "${dbsyncer.sync-worker.event-retention-interval-ms:3600000}")
+    public void maintain() {
+        if (!enabled || !maintaining.compareAndSet(false, true)) {
+            return;
+        }
+        maintainExecutor.execute(() -> {
+            try {
+                maintainAll();
+            } finally {
+                maintaining.set(false);
+            }
+        });
+    }
+
+    private void maintainAll() {
+        List<DataSourceConfig> activeSources = configService.listEnabled();
+        if (activeSources == null) {
+            return;
+        }
+        for (DataSourceConfig source : activeSources) {
+            try {
+                maintain(source);
+            } catch (Exception e) {
+                log.error("数据源「{}」的事件表分区维护失败", source.getSourceName(), e);
+            }
+        }
+    }
+
+    private void maintain(DataSourceConfig source) {
+        DatabaseType dbType = source.getDbType();
+        JdbcTemplate jt = dynamicDbUtil.getJdbcTemplate(source.getSourceId());
+        if (!isPartitioned(jt, dbType)) {
+            log.debug("数据源「{}」的 sync_event 未分区，跳过分区维护", source.getSourceName());
+            return;
+        }
+
+        // 分区边界按 op_time 划分，op_time 由源库时钟写入，"今天" 也取源库的日期，不用本服务所在时区的日期
+        LocalDate today = currentDate(jt, dbType);
+        premake(jt, dbType, today, source.getSourceName());
+
+        // 按日期顺序删除，遇到仍有未完成事件的分区即停止：
+        // SQL Server 删除分区时会合并边界值，只有从最早的分区开始删，前一天的分区才不会被并入
+        LocalDate expireBefore = today.minusDays(retentionDays);
+        for (LocalDate day : listDays(jt, dbType)) {
+            if (!day.isBefore(expireBefore) || !purge(jt, dbType, day, source)) {
+                break;
+            }
+        }
+    }
+
+    // ------ 过期分区 ------
+
+    // 返回分区是否已删除
+    private boolean purge(JdbcTemplate jt, DatabaseType dbType, LocalDate day, DataSourceConfig source) {
+        String scope = partitionScope(dbType, day);
+
+        // 分区中仍有未同步或失败的事件时保留，等待重试或人工处理
+        if (!isFullyApplied(jt, scope, source.getSourceId())) {
+            log.warn("数据源「{}」的事件分区 {} 已过期，但仍有未完成同步的事件，暂不删除", source.getSourceName(), day);
+            return false;
+        }
+
+        int archived = 0;
+        if (archiveEnabled) {
+            archived = jt.update("INSERT INTO " + ARCHIVE_TABLE + " SELECT * FROM " + scope);
+        }
+        dropDay(jt, dbType, day);
+        statsTracker.invalidate(source.getSourceId());
+        log.info("数据源「{}」已删除事件分区 {}{}", source.getSourceName(), day,
+                archiveEnabled ? "，归档 " + archived + " 条事件" : "");
+        return true;
+    }
+
+    // STATUS 模式：分区内没有待同步 (0) 和失败 (2) 的事件；
+    // CHECKPOINT 模式：分区内的事件 ID 都不超过消费位点，且其中没有仍待重试的失败事件
+    private boolean isFullyApplied(JdbcTemplate jt, String scope, Long sourceId) {
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            Map<String, Object> range = jt.queryForMap("SELECT MIN(id) AS min_id, MAX(id) AS max_id FROM " + scope);
+            Number minId = (Number) range.get("min_id");
+            Number maxId = (Number) range.get("max_id");
+            if (minId == null || maxId == null) {
+                return true;
+            }
+            return maxId.longValue() <= checkpointService.getLastEventId(sourceId, consumerName)
+                    && !failureService.hasFailuresBetween(sourceId, consumerName, minId.longValue(), maxId.longValue());
+        }
+        Long unfinished = jt.queryForObject("SELECT COUNT(*) FROM " + scope + " AND status IN (0, 2)", Long.class);
+        return unfinished == null || unfinished == 0;
+    }
+
+    // 指定日期分区的 "表 WHERE 条件" 片段，查询时直接拼在 FROM 之后
+    private String partitionScope(DatabaseType dbType, LocalDate day) {
+        switch (dbType) {
+            case MYSQL:
+                return "sync_event PARTITION (p" + day.format(DAY_SUFFIX) + ") WHERE 1 = 1";
+            case POSTGRESQL:
+                return "sync_event_p" + day.format(DAY_SUFFIX) + " WHERE 1 = 1";
+            case ORACLE:
+                return "sync_event PARTITION FOR (DATE '" + day + "') WHERE 1 = 1";
+            case SQL_SERVER:
+                return "sync_event WHERE $PARTITION." + SQL_SERVER_FUNCTION + "(op_time) = $PARTITION."
+                        + SQL_SERVER_FUNCTION + "('" + day.format(DAY_SUFFIX) + "')";
+            default:
+                throw new IllegalArgumentException("不支持的数据库类型: " + dbType);
+        }
+    }
+
+    private void dropDay(JdbcTemplate jt, DatabaseType dbType, LocalDate day) {
+        switch (dbType) {
+            case MYSQL:
+                jt.execute("ALTER TABLE sync_event DROP PARTITION p" + day.format(DAY_SUFFIX));
+                break;
+            case POSTGRESQL:
+                jt.execute("DROP TABLE sync_event_p" + day.format(DAY_SUFFIX));
+                break;
+            case ORACLE:
+                // 主键是全局索引，删除分区时同步维护
+                jt.execute("ALTER TABLE sync_event DROP PARTITION FOR (DATE '" + day + "') UPDATE GLOBAL INDEXES");
+                break;
+            case SQL_SERVER:
+                // 清空当天分区后合并掉当天的边界值，空分区并入前一个分区
+                String boundary = "'" + day.format(DAY_SUFFIX) + "'";
+                Integer partition = jt.queryForObject("SELECT $PARTITION." + SQL_SERVER_FUNCTION + "(" + boundary + ")", Integer.class);
+                jt.execute("TRUNCATE TABLE sync_event WITH (PARTITIONS (" + partition + "))");
+                jt.execute("ALTER PARTITION FUNCTION " + SQL_SERVER_FUNCTION + "() MERGE RANGE (" + boundary + ")");
+                break;
+            default:
+                throw new IllegalArgumentException("不支持的数据库类型: " + dbType);
+        }
+    }
+
+    // ------ 预建分区 ------
+
+    private void premake(JdbcTemplate jt, DatabaseType dbType, LocalDate today, String sourceName) {
+        LocalDate last = today.plusDays(premakeDays);
+        switch (dbType) {
+            case MYSQL: {
+                // RANGE 分区只能在末尾追加，从已有的最后一天之后开始拆分 p_future；
+                // 停机超过预建天数时补齐中间缺失的日期，否则这些天的事件会一直留在 p_future 中，既不可见也不会被清理
+                // 还没有日分区时（刚建表），从 p_future 中最早的事件所在日期开始拆分
+                TreeSet<LocalDate> days = listDays(jt, dbType);
+                LocalDate from;
+                if (days.isEmpty()) {
+                    LocalDate earliest = jt.queryForObject("SELECT CAST(MIN(op_time) AS DATE) FROM sync_event PARTITION (p_future)",
+                            (rs, rowNum) -> rs.getObject(1, LocalDate.class));
+                    from = earliest != null && earliest.isBefore(today) ? earliest : today;
+                } else {
+                    from = days.last().plusDays(1);
+                }
+                for (LocalDate day = from; !day.isAfter(last); day = day.plusDays(1)) {
+                    jt.execute("ALTER TABLE sync_event REORGANIZE PARTITION p_future INTO (" +
+                            "PARTITION p" + day.format(DAY_SUFFIX) + " VALUES LESS THAN ('" + day.plusDays(1) + "'), " +
+                            "PARTITION p_future VALUES LESS THAN (MAXVALUE))");
+                }
+                break;
+            }
+            case POSTGRESQL: {
+                TreeSet<LocalDate> days = listDays(jt, dbType);
+                days.addAll(rescuePostgresDefault(jt, days, sourceName));
+                for (LocalDate day = today; !day.isAfter(last); day = day.plusDays(1)) {
+                    if (days.contains(day)) {
+                        continue;
+                    }
+                    try {
+                        jt.execute("CREATE TABLE IF NOT EXISTS sync_event_p" + day.format(DAY_SUFFIX) +
+                                " PARTITION OF sync_event FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+                    } catch (Exception e) {
+                        log.warn("数据源「{}」预建事件分区 {} 失败：{}", sourceName, day, e.getMessage());
+                    }
+                }
+                break;
+            }
+            case ORACLE:
+                // 间隔分区在写入时自动创建
+                break;
+            case SQL_SERVER: {
+                // 与 MySQL 相同，停机后从最后一个边界值开始补齐缺失的日期，含多天的分区无法按天清理
+                TreeSet<LocalDate> boundaries = listSqlServerBoundaries(jt);
+                LocalDate from = !boundaries.isEmpty() && boundaries.last().isBefore(today) ? boundaries.last().plusDays(1) : today;
+                for (LocalDate day = from; !day.isAfter(last.plusDays(1)); day = day.plusDays(1)) {
+                    if (!boundaries.contains(day)) {
+                        jt.execute("ALTER PARTITION FUNCTION " + SQL_SERVER_FUNCTION + "() SPLIT RANGE ('" + day.format(DAY_SUFFIX) + "')");
+                    }
+                }
+                break;
+            }
+            default:
+                throw new IllegalArgumentException("不支持的数据库类型: " + dbType);
+        }
+    }
+
+    // PG：停机超过预建天数时，期间的事件落入默认分区，而默认分区中已有某天的事件时无法再建该天的分区，
+    // 这些事件会一直留在默认分区中，不会被清理。在一个事务中卸下默认分区，为其中的每一天建分区并把事件移入，再挂回默认分区
+    // 返回新建分区的日期
+    private List<LocalDate> rescuePostgresDefault(JdbcTemplate jt, TreeSet<LocalDate> days, String sourceName) {
+        List<String> defaults = jt.queryForList("SELECT c.relname FROM pg_inherits i " +
+                        "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                        "WHERE p.relname = 'sync_event' AND pg_table_is_visible(p.oid) " +
+                        "AND pg_get_expr(c.relpartbound, c.oid) = 'DEFAULT'",
+                String.class);
+        if (defaults.isEmpty()) {
+            return List.of();
+        }
+        String defaultPartition = defaults.get(0);
+        List<LocalDate> stranded = jt.query("SELECT DISTINCT CAST(op_time AS DATE) FROM " + defaultPartition,
+                        (rs, rowNum) -> rs.getObject(1, LocalDate.class)).stream()
+                .filter(day -> day != null && !days.contains(day))
+                .sorted()
+                .toList();
+        if (stranded.isEmpty()) {
+            return List.of();
+        }
+
+        TransactionTemplate tx = new TransactionTemplate(new DataSourceTransactionManager(Objects.requireNonNull(jt.getDataSource())));
+        int moved = tx.execute(status -> {
+            int rows = 0;
+            jt.execute("ALTER TABLE sync_event DETACH PARTITION " + defaultPartition);
+            for (LocalDate day : stranded) {
+                String range = "op_time >= '" + day + "' AND op_time < '" + day.plusDays(1) + "'";
+                jt.execute("CREATE TABLE sync_event_p" + day.format(DAY_SUFFIX) +
+                        " PARTITION OF sync_event FOR VALUES FROM ('" + day + "') TO ('" + day.plusDays(1) + "')");
+                rows += jt.update("INSERT INTO sync_event SELECT * FROM " + defaultPartition + " WHERE " + range);
+                jt.update("DELETE FROM " + defaultPartition + " WHERE " + range);
+            }
+            jt.execute("ALTER TABLE sync_event ATTACH PARTITION " + defaultPartition + " DEFAULT");
+            return rows;
+        });
+        log.info("数据源「{}」默认分区中有 {} 天未建分区的事件，已建分区 {} ~ {} 并移入 {} 条事件",
+                sourceName, stranded.size(), stranded.get(0), stranded.get(stranded.size() - 1), moved);
+        return stranded;
+    }
+
+    // ------ 分区元数据 ------
+
+    // 源库的当前日期，与触发器写入 op_time 使用同一个时钟：MySQL NOW()、Oracle SYSDATE、SQL Server GETDATE()
+    // PG 的 NOW() 按会话时区转换，而 JDBC 驱动会把会话时区设为本服务 JVM 的时区，
+    // 因此改用只能在服务端配置的 log_timezone（initdb 时与 timezone 取同一个系统时区）
+    private LocalDate currentDate(JdbcTemplate jt, DatabaseType dbType) {
+        String sql = switch (dbType) {
+            case MYSQL -> "SELECT CURRENT_DATE";
+            case POSTGRESQL -> "SELECT CAST(NOW() AT TIME ZONE current_setting('log_timezone') AS DATE)";
+            case ORACLE -> "SELECT TRUNC(SYSDATE) FROM DUAL";
+            case SQL_SERVER -> "SELECT CAST(GETDATE() AS DATE)";
+            default -> throw new IllegalArgumentException("不支持的数据库类型: " + dbType);
+        };
+        // 按 LocalDate 读取，不经过 JVM 时区换算
+        return jt.queryForObject(sql, (rs, rowNum) -> rs.getObject(1, LocalDate.class));
+    }
+
+    private boolean isPartitioned(JdbcTemplate jt, DatabaseType dbType) {
+        String sql;
+        switch (dbType) {
+            case MYSQL:
+                sql = "SELECT COUNT(*) FROM information_schema.PARTITIONS " +
+                        "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sync_event' AND PARTITION_NAME IS NOT NULL";
+                break;
+            case POSTGRESQL:
+                sql = "SELECT COUNT(*) FROM pg_partitioned_table pt JOIN pg_class c ON c.oid = pt.partrelid " +
+                        "WHERE c.relname = 'sync_event' AND pg_table_is_visible(c.oid)";
+                break;
+            case ORACLE:
+                sql = "SELECT COUNT(*) FROM user_part_tables WHERE table_name = 'SYNC_EVENT'";
+                break;
+            case SQL_SERVER:
+                sql = "SELECT COUNT(*) FROM sys.partition_functions WHERE name = '" + SQL_SERVER_FUNCTION + "'";
+                break;
+            default:
+                return false;
+        }
+        Long count = jt.queryForObject(sql, Long.class);
+        return count != null && count > 0;
+    }
+
+    // 已有独立分区的日期，升序
+    private TreeSet<LocalDate> listDays(JdbcTemplate jt, DatabaseType dbType) {
+        TreeSet<LocalDate> days = new TreeSet<>();
+        switch (dbType) {
+            case MYSQL:
+                jt.queryForList("SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                                "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'sync_event' AND PARTITION_NAME IS NOT NULL",
+                        String.class).forEach(name -> addDay(days, MYSQL_PARTITION, name));
+                break;
+            case POSTGRESQL:
+                jt.queryForList("SELECT c.relname FROM pg_inherits i " +
+                                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                                "WHERE p.relname = 'sync_event' AND pg_table_is_visible(p.oid)",
+                        String.class).forEach(name -> addDay(days, PG_PARTITION, name));
+                break;
+            case ORACLE:
+                // high_value 是分区上界表达式，如 TO_DATE(' 2026-10-02 00:00:00', ...)；第一个分区是间隔分区的起点，不参与维护
+                jt.query("SELECT high_value FROM user_tab_partitions WHERE table_name = 'SYNC_EVENT' AND partition_position > 1",
+                        (rs, rowNum) -> rs.getString(1)).forEach(highValue -> {
+                    Matcher m = ORACLE_HIGH_VALUE.matcher(Objects.toString(highValue, ""));
+                    if (m.find()) {
+                        days.add(LocalDate.parse(m.group(1)).minusDays(1));
+                    }
+                });
+                break;
+            case SQL_SERVER:
+                // RANGE RIGHT：相邻两个边界值 [d, d+1) 之间是 d 当天的分区
+                TreeSet<LocalDate> boundaries = listSqlServerBoundaries(jt);
+                for (LocalDate boundary : boundaries) {
+                    if (boundaries.contains(boundary.plusDays(1))) {
+                        days.add(boundary);
+                    }
+                }
+                break;
+            default:
+                break;
+        }
+        return days;
+    }
+
+    private TreeSet<LocalDate> listSqlServerBoundaries(JdbcTemplate jt) {
+        return new TreeSet<>(jt.query("SELECT CAST(rv.value AS DATE) FROM sys.partition_range_values rv " +
+                        "JOIN sys.partition_functions pf ON pf.function_id = rv.function_id " +
+                        "WHERE pf.name = '" + SQL_SERVER_FUNCTION + "'",
+                (rs, rowNum) -> rs.getDate(1).toLocalDate()));
+    }
+
+    private static void addDay(TreeSet<LocalDate> days, Pattern pattern, String partitionName) {
+        Matcher m = pattern.matcher(partitionName.toLowerCase());
+        if (m.matches()) {
+            days.add(LocalDate.parse(m.group(1), DAY_SUFFIX));
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.SyncLagStatus;
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
+import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.service.sync.SyncAlertService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+// 端到端复制延迟：
+// 1. 心跳：定期用业务账号更新每个源库 sync_heartbeat 中本库的一行 (id = 数据源 ID, beat_at = 当前毫秒时间)，
+//    经触发器像普通表一样同步到各目标库；心跳延迟 = 当前时间 - 最近一次送达该目标库的心跳时间，
+//    两个时间都取自本服务的时钟，不受数据库时钟偏差影响，源库空闲或同步停滞时也能反映真实延迟（精度为一个心跳间隔）
+// 2. 事件延迟：事件写入目标库的时间 - sync_event.op_time，保留最近若干条样本计算分位数；op_time 取自源库时钟
+// 3. 积压：源库最早一条未处理事件的等待时间
+// 心跳延迟超过阈值时发送报警邮件，持续超标时按冷却时间重复提醒
+// 心跳会写入生产源库，默认关闭；写心跳与查询积压在独立的虚拟线程上按源库执行，
+// 不占用调度线程（引擎分派、状态回写等定时任务共用该线程），单个源库不可达也不影响其他源库
+@Component
+@Slf4j
+public class SyncLagMonitor {
+
+    public static final String HEARTBEAT_TABLE = "sync_heartbeat";
+
+    private static final String BEAT_COLUMN = "beat_at";
+
+    @Autowired
+    private DataSourceConfigService configService;
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    @Autowired
+    private SyncEventMapper syncEventMapper;
+
+    @Autowired
+    private SyncCheckpointService checkpointService;
+
+    @Autowired
+    private SyncAlertService alertService;
+
+    @Autowired
+    private SyncMetrics metrics;
+
+    @Value("${dbsyncer.sync-worker.heartbeat-enabled:false}")
+    private boolean heartbeatEnabled;
+
+    // 心跳延迟阈值 (SLO)
+    @Value("${dbsyncer.sync-worker.lag-slo-ms:60000}")
+    private long lagSloMs;
+
+    // 持续超标时重复报警的间隔
+    @Value("${dbsyncer.sync-worker.lag-alert-cooldown-ms:1800000}")
+    private long alertCooldownMs;
+
+    // 每个 (源库, 目标库) 保留的事件延迟样本数
+    @Value("${dbsyncer.sync-worker.lag-sample-size:1024}")
+    private int sampleSize;
+
+    @Value("${dbsyncer.sync-worker.consume-mode:STATUS}")
+    private ConsumeMode consumeMode;
+
+    @Value("${dbsyncer.sync-worker.consumer-name:default}")
+    private String consumerName;
+
+    private final Map<Long, SourceState> sources = new ConcurrentHashMap<>();
+
+    private final Map<PairKey, PairState> pairs = new ConcurrentHashMap<>();
+
+    private ExecutorService beatExecutor;
+
+    private record PairKey(Long sourceId, Long targetId) {
+    }
+
+    private static class SourceState {
+        // 第一次成功写入心跳的时间；目标库从未收到心跳时，心跳延迟从这里算起
+        private volatile long firstBeatAt;
+        private volatile boolean beatFailing;
+        private volatile Long oldestPendingAgeMs;
+        // 上一轮心跳仍在执行（源库响应慢或不可达）时跳过本轮
+        private final AtomicBoolean beating = new AtomicBoolean(false);
+    }
+
+    // 单个 (源库, 目标库) 的延迟状态；样本为环形缓冲区
+    private static class PairState {
+        private volatile long lastBeatAt;
+        private final long[] samples;
+        private int next;
+        private int count;
+        private boolean breached;
+        private long alertedAt;
+
+        PairState(int sampleSize) {
+            this.samples = new long[Math.max(sampleSize, 1)];
+        }
+
+        synchronized void addSamples(long[] lags, int n) {
+            for (int i = 0; i < n; i++) {
+                samples[next] = lags[i];
+                next = (next + 1) % samples.length;
+                count = Math.min(count + 1, samples.length);
+            }
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(samples, count);
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        beatExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("sync-heartbeat-", 0).factory());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        beatExecutor.shutdownNow();
+    }
+
+    // ------ 定时任务：写心跳、刷新积压、检查阈值 ------
+
+    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.heartbeat-interval-ms:10000}")
+    public void beat() {
+        if (!heartbeatEnabled) {
+            return;
+        }
+
+        List<DataSourceConfig> activeSources = configService.listEnabled();
+        if (activeSources == null || activeSources.isEmpty()) {
+            sources.clear();
+            pairs.clear();
+            return;
+        }
+
+        Set<Long> activeIds = activeSources.stream().map(DataSourceConfig::getSourceId).collect(Collectors.toSet());
+        sources.keySet().retainAll(activeIds);
+        pairs.keySet().removeIf(key -> !activeIds.contains(key.sourceId()) || !activeIds.contains(key.targetId()));
+
+        for (DataSourceConfig source : activeSources) {
+            SourceState state = sources.computeIfAbsent(source.getSourceId(), id -> {
+                metrics.oldestPendingGauge(id, () -> {
+                    SourceState s = sources.get(id);
+                    return s == null ? null : s.oldestPendingAgeMs;
+                });
+                return new SourceState();
+            });
+            if (state.beating.compareAndSet(false, true)) {
+                beatExecutor.execute(() -> {
+                    try {
+                        writeHeartbeat(source, state);
+                        refreshOldestPending(source, state);
+                    } finally {
+                        state.beating.set(false);
+                    }
+                });
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        for (DataSourceConfig source : activeSources) {
+            for (DataSourceConfig target : activeSources) {
+                if (!source.getSourceId().equals(target.getSourceId())) {
+                    checkSlo(source, target, pairOf(source.getSourceId(), target.getSourceId()), now);
+                }
+            }
+        }
+    }
+
+    // 业务账号写入才会触发同步；第一次写入时插入本库的心跳行
+    private void writeHeartbeat(DataSourceConfig source, SourceState state) {
+        Long sourceId = source.getSourceId();
+        long now = System.currentTimeMillis();
+        try {
+            JdbcTemplate jt = dynamicDbUtil.getJdbcTemplate(sourceId);
+            int rows = jt.update("UPDATE " + HEARTBEAT_TABLE + " SET " + BEAT_COLUMN + " = ? WHERE id = ?", now, sourceId);
+            if (rows == 0) {
+                jt.update("INSERT INTO " + HEARTBEAT_TABLE + " (id, " + BEAT_COLUMN + ", sync_version) VALUES (?, ?, 0)", sourceId, now);
+            }
+            if (state.firstBeatAt == 0) {
+                state.firstBeatAt = now;
+            }
+            state.beatFailing = false;
+        } catch (Exception e) {
+            // 源库没有心跳表时每轮都会失败，只在开始失败时提示一次
+            if (!state.beatFailing) {
+                log.warn("数据源「{}」写入心跳失败，无法测量该源库的复制延迟（需创建 {} 表及其触发器）：{}",
+                        source.getSourceName(), HEARTBEAT_TABLE, e.getMessage());
+            }
+            state.beatFailing = true;
+        }
+    }
+
+    private void refreshOldestPending(DataSourceConfig source, SourceState state) {
+        Long sourceId = source.getSourceId();
+        try {
+            Long afterId = consumeMode == ConsumeMode.CHECKPOINT ? checkpointService.getLastEventId(sourceId, consumerName) : null;
+            Timestamp oldest = syncEventMapper.selectOldestPendingOpTime(sourceId, afterId);
+            state.oldestPendingAgeMs = oldest == null ? 0L : Math.max(0L, System.currentTimeMillis() - oldest.getTime());
+        } catch (Exception e) {
+            state.oldestPendingAgeMs = null;
+            log.debug("数据源「{}」查询最早未处理事件失败：{}", source.getSourceName(), e.getMessage());
+        }
+    }
+
+    private void checkSlo(DataSourceConfig source, DataSourceConfig target, PairState pair, long now) {
+        Long lag = heartbeatLag(source.getSourceId(), pair, now);
+        if (lag == null) {
+            return;
+        }
+
+        synchronized (pair) {
+            if (lag > lagSloMs) {
+                if (!pair.breached || now - pair.alertedAt >= alertCooldownMs) {
+                    log.warn("【延迟报警】{} -> {} 复制延迟 {} 毫秒，超过阈值 {} 毫秒",
+                            source.getSourceName(), target.getSourceName(), lag, lagSloMs);
+                    alertService.sendLagAlert(source.getSourceName(), target.getSourceName(), lag, lagSloMs);
+                    pair.alertedAt = now;
+                }
+                pair.breached = true;
+            } else if (pair.breached) {
+                log.info("【延迟恢复】{} -> {} 复制延迟已恢复到 {} 毫秒", source.getSourceName(), target.getSourceName(), lag);
+                pair.breached = false;
+            }
+        }
+    }
+
+    // ------ 引擎回调 ------
+
+    // 一批事件在目标库上的写入结果：成功写入的事件记录延迟样本，心跳行记录送达时间
+    public void onApplied(Long sourceId, Long targetId, List<PendingEvent> batch, Map<Long, Exception> errors) {
+        PairState pair = pairOf(sourceId, targetId);
+        long now = System.currentTimeMillis();
+        long[] lags = new long[batch.size()];
+        int n = 0;
+
+        for (PendingEvent item : batch) {
+            if (errors.containsKey(item.event().getId())) {
+                continue;
+            }
+            if (item.event().getOpTime() != null) {
+                lags[n++] = Math.max(0L, now - item.event().getOpTime().getTime());
+            }
+            if (HEARTBEAT_TABLE.equalsIgnoreCase(item.event().getTableName()) && item.sourceData() != null) {
+                Long beatAt = toLong(item.sourceData().get(BEAT_COLUMN));
+                if (beatAt != null && beatAt > pair.lastBeatAt) {
+                    pair.lastBeatAt = beatAt;
+                }
+            }
+        }
+
+        if (n > 0) {
+            pair.addSamples(lags, n);
+            metrics.eventLag(sourceId, targetId, lags, n);
+        }
+    }
+
+    // ------ 查询 ------
+
+    public List<SyncLagStatus> getStatuses() {
+        long now = System.currentTimeMillis();
+        List<SyncLagStatus> statuses = new ArrayList<>(pairs.size());
+        pairs.forEach((key, pair) -> {
+            long[] samples = pair.snapshot();
+            Arrays.sort(samples);
+            SourceState source = sources.get(key.sourceId());
+            boolean breached;
+            synchronized (pair) {
+                breached = pair.breached;
+            }
+            statuses.add(new SyncLagStatus(key.sourceId(), key.targetId(),
+                    heartbeatLag(key.sourceId(), pair, now),
+                    pair.lastBeatAt == 0 ? null : pair.lastBeatAt,
+                    percentile(samples, 50), percentile(samples, 95), percentile(samples, 99),
+                    samples.length,
+                    source == null ? null : source.oldestPendingAgeMs,
+                    breached));
+        });
+        statuses.sort(Comparator.comparing(SyncLagStatus::getSourceId).thenComparing(SyncLagStatus::getTargetId));
+        return statuses;
+    }
+
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        Long id = event.getSourceId();
+        sources.remove(id);
+        pairs.keySet().removeIf(key -> key.sourceId().equals(id) || key.targetId().equals(id));
+    }
+
+    // ------ 辅助方法 ------
+
+    private PairState pairOf(Long sourceId, Long targetId) {
+        return pairs.computeIfAbsent(new PairKey(sourceId, targetId), key -> {
+            metrics.heartbeatLagGauge(sourceId, targetId, () -> {
+                PairState p = pairs.get(key);
+                return p == null ? null : heartbeatLag(sourceId, p, System.currentTimeMillis());
+            });
+            return new PairState(sampleSize);
+        });
+    }
+
+    // 从未写入过心跳时未知 (null)；写入过但目标库从未收到时，从第一次写入算起
+    private Long heartbeatLag(Long sourceId, PairState pair, long now) {
+        if (pair.lastBeatAt > 0) {
+            return Math.max(0L, now - pair.lastBeatAt);
+        }
+        SourceState source = sources.get(sourceId);
+        if (source == null || source.firstBeatAt == 0) {
+            return null;
+        }
+        return Math.max(0L, now - source.firstBeatAt);
+    }
+
+    private static Long percentile(long[] sorted, int p) {
+        if (sorted.length == 0) {
+            return null;
+        }
+        int rank = (int) Math.ceil(p / 100.0 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value != null) {
+            try {
+                return Long.parseLong(value.toString().trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
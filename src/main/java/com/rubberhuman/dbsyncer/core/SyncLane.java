@@ -0,0 +1,95 @@
+package com.rubberhuman.dbsyncer.core;
+
+import lombok.Getter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// 单个源库的同步通道：保证同一个源库在任意时刻最多只有一个同步任务在执行
+public class SyncLane {
+
+    @Getter
+    private final Long sourceId;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    // 自适应轮询：当前轮询间隔与下一次轮询时间，由通道线程写入、调度线程读取
+    @Getter
+    private volatile long intervalMs;
+
+    @Getter
+    private volatile long nextPollAt;
+
+    // 最近一次拉取到的事件数
+    @Getter
+    private volatile int lastFetched;
+
+    // 本轮拉取开始后收到的唤醒，本轮结束后需要立即再拉取一次
+    private volatile boolean woken;
+
+    // 数据源已禁用或删除：不再接受新的任务，正在执行的一轮结束后由引擎移除
+    private volatile boolean retired;
+
+    public SyncLane(Long sourceId) {
+        this.sourceId = sourceId;
+    }
+
+    // 是否到达下一次轮询时间
+    public boolean isDue(long now) {
+        return now >= nextPollAt;
+    }
+
+    // 开始一轮拉取，此前的唤醒已被本轮覆盖
+    public void beginPoll() {
+        woken = false;
+    }
+
+    // 记录一次轮询结果：有积压或拉取期间被唤醒时下一轮立即轮询；空闲时按倍数退避，直到上限
+    public void onPolled(int fetched, boolean backlog, long minIntervalMs, long maxIntervalMs, double multiplier) {
+        lastFetched = fetched;
+        if (backlog || woken) {
+            intervalMs = 0;
+        } else if (fetched > 0) {
+            intervalMs = minIntervalMs;
+        } else {
+            intervalMs = Math.min(maxIntervalMs, Math.max(minIntervalMs, (long) (intervalMs * multiplier)));
+        }
+        nextPollAt = System.currentTimeMillis() + intervalMs;
+    }
+
+    // 立即唤醒：下一次调度时马上轮询，并重置退避
+    public void wake() {
+        woken = true;
+        intervalMs = 0;
+        nextPollAt = 0;
+    }
+
+    // 抢占通道，返回 false 表示上一轮任务尚未结束或通道已退役
+    // 抢占成功后再检查一次退役标记：与 retire() 交错时，要么引擎看到通道仍在运行而保留它，要么本次抢占失败
+    public boolean tryAcquire() {
+        if (retired || !running.compareAndSet(false, true)) {
+            return false;
+        }
+        if (retired) {
+            running.set(false);
+            return false;
+        }
+        return true;
+    }
+
+    // 标记退役，此后 tryAcquire() 总是失败
+    public void retire() {
+        retired = true;
+    }
+
+    public boolean isRetired() {
+        return retired;
+    }
+
+    public void release() {
+        running.set(false);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+}
@@ -0,0 +1,158 @@
+package com.rubberhuman.dbsyncer.core;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// 同步链路的 Micrometer 指标，通过 Actuator 以 Prometheus 格式暴露 (/actuator/prometheus)
+// 计数按批汇总后一次累加，计时只取 System.nanoTime()；指标实例按 (名称, 标签值) 缓存，热路径上不重复注册
+// 连接获取耗时由 Hikari 连接池自带的 hikaricp.connections.acquire 指标提供（见 DynamicDbUtil）
+@Component
+public class SyncMetrics {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    private final Map<List<String>, Meter> meters = new ConcurrentHashMap<>();
+
+    // ------ 事件计数 ------
+
+    // 从源库拉取到的事件数
+    public void fetched(Long sourceId, String table, int count) {
+        counter("dbsyncer.sync.events.fetched", "从源库拉取到的事件数",
+                "source", String.valueOf(sourceId), "table", table).increment(count);
+    }
+
+    // 在单个目标库上的写入结果：成功、失败（不含冲突）、版本冲突
+    public void applied(Long sourceId, Long targetId, String table, int applied, int failed, int conflicted) {
+        String source = String.valueOf(sourceId);
+        String target = String.valueOf(targetId);
+        if (applied > 0) {
+            counter("dbsyncer.sync.events.applied", "成功写入目标库的事件数",
+                    "source", source, "target", target, "table", table).increment(applied);
+        }
+        if (failed > 0) {
+            counter("dbsyncer.sync.events.failed", "写入目标库失败的事件数",
+                    "source", source, "target", target, "table", table).increment(failed);
+        }
+        if (conflicted > 0) {
+            counter("dbsyncer.sync.events.conflicted", "写入目标库时检测到版本冲突的事件数",
+                    "source", source, "target", target, "table", table).increment(conflicted);
+        }
+    }
+
+    // ------ 耗时与批大小 ------
+
+    // 拉取一批事件的耗时
+    public void fetchLatency(Long sourceId, long startNanos) {
+        timer("dbsyncer.sync.fetch.latency", "从源库拉取一批事件的耗时",
+                "source", String.valueOf(sourceId)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 一批事件写入单个目标库的耗时
+    public void applyLatency(Long sourceId, Long targetId, long startNanos) {
+        timer("dbsyncer.sync.apply.latency", "一批事件写入单个目标库的耗时",
+                "source", String.valueOf(sourceId), "target", String.valueOf(targetId))
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 回写一组事件状态的耗时
+    public void ackLatency(Long sourceId, long startNanos) {
+        timer("dbsyncer.sync.ack.latency", "回写一组事件状态的耗时",
+                "source", String.valueOf(sourceId)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 单个同步通道一轮调度（连续拉取处理直到无积压或达到批数上限）的耗时
+    public void cycleDuration(Long sourceId, long startNanos) {
+        timer("dbsyncer.sync.cycle.duration", "单个源库一轮同步的耗时",
+                "source", String.valueOf(sourceId)).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // 每次拉取到的事件数
+    public void batchSize(Long sourceId, int size) {
+        meter(List.of("dbsyncer.sync.batch.size", String.valueOf(sourceId)), () -> DistributionSummary
+                .builder("dbsyncer.sync.batch.size")
+                .description("每次从源库拉取到的事件数")
+                .baseUnit("events")
+                .tag("source", String.valueOf(sourceId))
+                .publishPercentileHistogram()
+                .register(registry), DistributionSummary.class).record(size);
+    }
+
+    // ------ 复制延迟 ------
+
+    // 一批事件从源库写入 sync_event 到应用到目标库的耗时，lagsMs 中前 count 个有效
+    public void eventLag(Long sourceId, Long targetId, long[] lagsMs, int count) {
+        Timer timer = timer("dbsyncer.sync.lag.event", "事件从源库产生到写入目标库的延迟",
+                "source", String.valueOf(sourceId), "target", String.valueOf(targetId));
+        for (int i = 0; i < count; i++) {
+            timer.record(lagsMs[i], TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // 心跳延迟与最早未处理事件的等待时间由 SyncLagMonitor 维护，抓取时读取；未知时返回 null (NaN)
+    public void heartbeatLagGauge(Long sourceId, Long targetId, Supplier<Number> lagMs) {
+        String source = String.valueOf(sourceId);
+        String target = String.valueOf(targetId);
+        meter(List.of("dbsyncer.sync.lag.heartbeat", source, target), () -> TimeGauge
+                .builder("dbsyncer.sync.lag.heartbeat", lagMs, TimeUnit.MILLISECONDS)
+                .description("最近一次送达目标库的心跳距今的时间")
+                .tags("source", source, "target", target)
+                .register(registry), TimeGauge.class);
+    }
+
+    public void oldestPendingGauge(Long sourceId, Supplier<Number> ageMs) {
+        String source = String.valueOf(sourceId);
+        meter(List.of("dbsyncer.sync.lag.oldest.pending", source), () -> TimeGauge
+                .builder("dbsyncer.sync.lag.oldest.pending", ageMs, TimeUnit.MILLISECONDS)
+                .description("源库最早一条未处理事件的等待时间")
+                .tags("source", source)
+                .register(registry), TimeGauge.class);
+    }
+
+    // ------ 指标缓存 ------
+
+    private Counter counter(String name, String description, String... tags) {
+        return meter(key(name, tags), () -> Counter.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry), Counter.class);
+    }
+
+    private Timer timer(String name, String description, String... tags) {
+        return meter(key(name, tags), () -> Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(registry), Timer.class);
+    }
+
+    private <M extends Meter> M meter(List<String> key, Supplier<M> factory, Class<M> type) {
+        Meter meter = meters.get(key);
+        if (meter == null) {
+            meter = meters.computeIfAbsent(key, k -> factory.get());
+        }
+        return type.cast(meter);
+    }
+
+    // 缓存键：名称 + 各标签值（标签名由名称唯一确定）
+    private static List<String> key(String name, String... tags) {
+        String[] key = new String[tags.length / 2 + 1];
+        key[0] = name;
+        for (int i = 1; i < tags.length; i += 2) {
+            key[i / 2 + 1] = tags[i];
+        }
+        return List.of(key);
+    }
+}
@@ -1,17 +1,21 @@
 package com.rubberhuman.dbsyncer.core;
 
 import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
 import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.service.sync.SyncDeliveryService;
 import com.rubberhuman.dbsyncer.service.sync.SyncEventService;
 import com.rubberhuman.dbsyncer.service.sys.SysConfigService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.SchedulingConfigurer;
 import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.scheduling.support.CronTrigger;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Configuration
@@ -28,6 +32,19 @@ public class SyncScheduler implements SchedulingConfigurer {
     @Autowired
     private SyncEventService syncEventService;
 
+    @Autowired
+    private SyncDeliveryService deliveryService;
+
+    @Autowired
+    private SyncStatsTracker statsTracker;
+
+    // 送达记录保留天数：失败事件只自动重试 24 小时内的，更早的记录只在人工重试时有用
+    @Value("${dbsyncer.sync-worker.delivery-retention-days:7}")
+    private int deliveryRetentionDays;
+
+    @Value("${dbsyncer.sync-worker.consume-mode:STATUS}")
+    private ConsumeMode consumeMode;
+
     @Override
     public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
         taskRegistrar.addTriggerTask(
@@ -47,6 +64,7 @@ public class SyncScheduler implements SchedulingConfigurer {
 
     // 将 status=2 (失败) 的任务重置为 status=0 (未处理)，
     // 这样 SyncEngine 的实时轮询线程就会自动捡起它们重新尝试。
+    // 位点消费模式下 status 列不再更新，失败由失败记录按退避自动重试，不做重置
     private void executePeriodicSync() {
         log.info(">>> [周期调度器] 开始执行定时同步任务...");
 
@@ -58,16 +76,26 @@ public class SyncScheduler implements SchedulingConfigurer {
                 return;
             }
 
-            int totalReset = 0;
-            for (DataSourceConfig source : activeSources) {
-                int count = syncEventService.resetFailedEventsInPast24Hours(source.getSourceId());
-                if (count > 0) {
-                    log.info(">>> [周期调度器] 数据源[{}]：已重置 {} 条失败事件，等待引擎重试", source.getSourceName(), count);
-                    totalReset += count;
+            if (consumeMode == ConsumeMode.CHECKPOINT) {
+                log.info(">>> [周期调度器] 位点消费模式，失败事件由失败记录驱动重试，跳过状态重置");
+            } else {
+                int totalReset = 0;
+                for (DataSourceConfig source : activeSources) {
+                    int count = syncEventService.resetFailedEventsInPast24Hours(source.getSourceId());
+                    if (count > 0) {
+                        statsTracker.onStatusChanged(source.getSourceId(), 2, 0, count);
+                        log.info(">>> [周期调度器] 数据源[{}]：已重置 {} 条失败事件，等待引擎重试", source.getSourceName(), count);
+                        totalReset += count;
+                    }
                 }
+
+                log.info(">>> [周期调度器] 任务结束，共重置 {} 条事件", totalReset);
             }
 
-            log.info(">>> [周期调度器] 任务结束，共重置 {} 条事件", totalReset);
+            int purged = deliveryService.purgeBefore(LocalDateTime.now().minusDays(deliveryRetentionDays));
+            if (purged > 0) {
+                log.info(">>> [周期调度器] 已清理 {} 条过期的事件送达记录", purged);
+            }
 
         } catch (Exception e) {
             log.error(">>> [周期调度器] 执行异常", e);
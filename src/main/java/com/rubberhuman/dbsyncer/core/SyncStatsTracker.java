@@ -0,0 +1,236 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.SyncStats;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointFailureService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// 各源库 sync_event 的状态计数：引擎拉取到新事件、回写确认时在内存中增量维护，
+// 定期与数据库核对一次（待处理、失败按 (status, id) 索引分别计数），管理接口直接读取内存中的计数
+// 增量只覆盖引擎自身造成的变化；触发器新写入但尚未被拉取的事件、人工直接改库等，在下一次核对时修正
+// 位点消费模式下 status 列不再更新：核对时待处理按位点之后的事件、失败按失败记录计数，
+// 其间由引擎在每批处理完成后增量维护，管理接口读取时同样不访问数据库
+@Component
+@Slf4j
+public class SyncStatsTracker {
+
+    @Autowired
+    private DynamicDbUtil dynamicDbUtil;
+
+    @Autowired
+    private SyncCheckpointService checkpointService;
+
+    @Autowired
+    private SyncCheckpointFailureService failureService;
+
+    @Value("${dbsyncer.sync-worker.consume-mode:STATUS}")
+    private ConsumeMode consumeMode;
+
+    @Value("${dbsyncer.sync-worker.consumer-name:default}")
+    private String consumerName;
+
+    private final Map<Long, Counters> counters = new ConcurrentHashMap<>();
+
+    // 单个源库的计数；maxEventId 之前的事件已计入，之后拉取到的事件视为新增
+    // settledMaxId 之前的事件已按处理结果计入（位点消费），重读的事件不再重复计数
+    private static class Counters {
+        private long pending;
+        private long success;
+        private long failed;
+        private long total;
+        private long maxEventId;
+        private long settledMaxId;
+        private long reconciledAt;
+        private boolean stale;
+    }
+
+    // 读取计数；首次读取或已标记失效时先与数据库核对
+    public SyncStats get(Long sourceId) {
+        Counters c = counters.get(sourceId);
+        boolean stale;
+        if (c == null) {
+            stale = true;
+        } else {
+            synchronized (c) {
+                stale = c.stale;
+            }
+        }
+        if (stale) {
+            c = reconcile(sourceId);
+        }
+
+        SyncStats dto = new SyncStats();
+        synchronized (c) {
+            dto.setPendingCount(c.pending);
+            dto.setSuccessCount(c.success);
+            dto.setFailedCount(c.failed);
+            dto.setTotalCount(c.total);
+            dto.setReconciledAt(c.reconciledAt);
+        }
+        return dto;
+    }
+
+    // 拉取到的事件中 ID 超过已计入范围的为新增的待处理事件
+    public void onFetched(Long sourceId, List<SyncEvent> events) {
+        Counters c = counters.get(sourceId);
+        if (c == null) {
+            return;
+        }
+        synchronized (c) {
+            for (SyncEvent event : events) {
+                if (event.getId() > c.maxEventId) {
+                    c.pending++;
+                    c.total++;
+                    c.maxEventId = event.getId();
+                }
+            }
+        }
+    }
+
+    // 待处理事件的状态已回写为成功/失败
+    public void onAcked(Long sourceId, int succeeded, int failed) {
+        Counters c = counters.get(sourceId);
+        if (c == null) {
+            return;
+        }
+        synchronized (c) {
+            c.pending -= succeeded + failed;
+            c.success += succeeded;
+            c.failed += failed;
+        }
+    }
+
+    // 位点消费模式下一批事件处理完成：首次处理的事件按结果由待处理转为成功或失败，
+    // 此前失败、本批已全部送达的 resolved 个事件由失败转为成功；failedIds 为本批仍有目标库失败的事件
+    public void onSettled(Long sourceId, List<SyncEvent> events, Set<Long> failedIds, int resolved) {
+        Counters c = counters.get(sourceId);
+        if (c == null) {
+            return;
+        }
+        synchronized (c) {
+            long settledMax = c.settledMaxId;
+            for (SyncEvent event : events) {
+                if (event.getId() > c.settledMaxId) {
+                    c.pending--;
+                    if (failedIds.contains(event.getId())) {
+                        c.failed++;
+                    } else {
+                        c.success++;
+                    }
+                    settledMax = Math.max(settledMax, event.getId());
+                }
+            }
+            c.settledMaxId = settledMax;
+            c.failed -= resolved;
+            c.success += resolved;
+        }
+    }
+
+    // 单个事件的状态由 from 改为 to（人工重试/跳过、失败事件重置）
+    public void onStatusChanged(Long sourceId, int from, int to, int count) {
+        Counters c = counters.get(sourceId);
+        if (c == null || from == to || count <= 0) {
+            return;
+        }
+        synchronized (c) {
+            adjust(c, from, -count);
+            adjust(c, to, count);
+        }
+    }
+
+    // 发生了无法增量计算的变化（如删除事件分区），下次读取时重新核对
+    public void invalidate(Long sourceId) {
+        Counters c = counters.get(sourceId);
+        if (c != null) {
+            synchronized (c) {
+                c.stale = true;
+            }
+        }
+    }
+
+    // 定期核对所有已跟踪源库的计数
+    @Scheduled(fixedDelayString = "${dbsyncer.sync-worker.stats-reconcile-interval-ms:3600000}")
+    public void reconcileAll() {
+        for (Long sourceId : counters.keySet()) {
+            try {
+                reconcile(sourceId);
+            } catch (Exception e) {
+                log.warn("数据源 {} 的事件统计核对失败：{}", sourceId, e.getMessage());
+            }
+        }
+    }
+
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        counters.remove(event.getSourceId());
+    }
+
+    // 与数据库核对一次，覆盖内存计数
+    // 待处理、失败的事件通常很少，按 (status, id) 索引范围分别计数；成功数由总数减出，不再对全表做 SUM(CASE...) 聚合
+    // 位点消费：待处理为位点之后的事件（按主键范围计数，代价与积压量成正比），失败为仍有失败记录的事件
+    private Counters reconcile(Long sourceId) {
+        JdbcTemplate jt = dynamicDbUtil.getJdbcTemplate(sourceId);
+
+        Map<String, Object> map = jt.queryForMap("SELECT COUNT(*) as total, COALESCE(MAX(id), 0) as max_id FROM sync_event");
+        long total = ((Number) map.get("total")).longValue();
+        long maxId = ((Number) map.get("max_id")).longValue();
+        long pending;
+        long failed;
+        long settledMaxId = maxId;
+        if (consumeMode == ConsumeMode.CHECKPOINT) {
+            long checkpoint = checkpointService.getLastEventId(sourceId, consumerName);
+            // 位点之后的事件都计为待处理，处理完成时再转出
+            settledMaxId = checkpoint;
+            Long count = jt.queryForObject("SELECT COUNT(*) FROM sync_event WHERE id > ?", Long.class, checkpoint);
+            pending = count == null ? 0 : count;
+            failed = failureService.countFailedEvents(sourceId, consumerName);
+            total = Math.max(total, pending + failed);
+        } else {
+            pending = countByStatus(jt, 0);
+            failed = countByStatus(jt, 2);
+        }
+
+        Counters c = counters.computeIfAbsent(sourceId, id -> new Counters());
+        synchronized (c) {
+            c.pending = pending;
+            c.success = Math.max(0, total - pending - failed);
+            c.failed = failed;
+            c.total = total;
+            c.maxEventId = Math.max(c.maxEventId, maxId);
+            c.settledMaxId = settledMaxId;
+            c.reconciledAt = System.currentTimeMillis();
+            c.stale = false;
+        }
+        return c;
+    }
+
+    private static long countByStatus(JdbcTemplate jt, int status) {
+        Long count = jt.queryForObject("SELECT COUNT(*) FROM sync_event WHERE status = ?", Long.class, status);
+        return count == null ? 0 : count;
+    }
+
+    private static void adjust(Counters c, int status, long delta) {
+        switch (status) {
+            case 0 -> c.pending += delta;
+            case 1 -> c.success += delta;
+            case 2 -> c.failed += delta;
+            default -> {
+            }
+        }
+    }
+}
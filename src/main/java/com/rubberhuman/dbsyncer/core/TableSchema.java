@@ -0,0 +1,177 @@
+package com.rubberhuman.dbsyncer.core;
+
+import lombok.Getter;
+import org.springframework.jdbc.core.SqlParameterValue;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+// 单张表的结构（来自 JDBC DatabaseMetaData）：主键、列的 SQL 类型与可空性，列名不区分大小写
+@Getter
+public class TableSchema {
+
+    // 按声明类型绑定的列类型；其他类型（JSON、数组、数据库自定义类型等）交给驱动自行推断
+    private static final Set<Integer> TYPED_BINDING = Set.of(
+            Types.BIT, Types.BOOLEAN, Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+            Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL,
+            Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR,
+            Types.DATE, Types.TIME, Types.TIMESTAMP,
+            Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY);
+
+    public record Column(String name, int sqlType, String typeName, boolean nullable) {
+
+        // 按列的 SQL 类型绑定取值（NULL 也带上类型）
+        // 行镜像 (JSON) 中的日期时间以及部分数字、布尔值是字符串，先按列类型转换；Oracle、SQL Server 驱动不接受以字符串绑定 DATE / TIMESTAMP
+        public Object bind(Object value) {
+            if (!TYPED_BINDING.contains(sqlType)) {
+                return value;
+            }
+            if (value instanceof String text) {
+                Object converted = convert(sqlType, text);
+                return converted == null ? value : new SqlParameterValue(sqlType, converted);
+            }
+            return new SqlParameterValue(sqlType, value);
+        }
+
+        // sync_event 中的主键值是字符串，按列类型转换后绑定，避免数字主键与字符串参数比较时发生隐式转换、无法走索引
+        public Object bindKey(String value) {
+            return value == null ? null : bind(value);
+        }
+    }
+
+    // 字符串按列类型转换，无法转换（格式不符或不支持的类型）时返回 null，由调用方原样绑定交给数据库隐式转换
+    static Object convert(int sqlType, String text) {
+        String value = text.trim();
+        try {
+            return switch (sqlType) {
+                case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> Long.valueOf(value);
+                case Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> new BigDecimal(value);
+                case Types.BIT, Types.BOOLEAN -> parseBoolean(value);
+                case Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR -> text;
+                case Types.DATE -> Date.valueOf(LocalDate.parse(value.length() > 10 ? value.substring(0, 10) : value));
+                case Types.TIME -> Time.valueOf(LocalTime.parse(value));
+                case Types.TIMESTAMP -> parseTimestamp(value);
+                default -> null;
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // 主键值的规范形式，用于把数据库查回的主键与 sync_event 中记录的主键字符串对应起来
+    // 触发器记录的主键是 CAST 之后的文本，与驱动返回的对象直接 toString 会在以下情况对不上：
+    // CHAR 的尾部填充空格、数字的不同写法 (1 / 1.0 / 1E+3)、UUID 的大小写、二进制 (byte[] 没有可比较的文本形式)
+    // column 为空（表结构未知）时只按取值的 Java 类型处理
+    static String normalizeKeyValue(Column column, Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof byte[] bytes) {
+            return HexFormat.of().formatHex(bytes);
+        }
+        if (value instanceof UUID uuid) {
+            return uuid.toString();
+        }
+        if (value instanceof Number) {
+            return normalizeKeyText(Types.NUMERIC, null, value.toString());
+        }
+        String text = value.toString();
+        return column == null ? text : normalizeKeyText(column.sqlType(), column.typeName(), text);
+    }
+
+    private static String normalizeKeyText(int sqlType, String typeName, String text) {
+        if (typeName != null && (typeName.equalsIgnoreCase("uuid") || typeName.equalsIgnoreCase("uniqueidentifier"))) {
+            return text.trim().toLowerCase();
+        }
+        switch (sqlType) {
+            case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+                 Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> {
+                try {
+                    BigDecimal number = new BigDecimal(text.trim());
+                    return number.signum() == 0 ? "0" : number.stripTrailingZeros().toPlainString();
+                } catch (NumberFormatException e) {
+                    return text;
+                }
+            }
+            case Types.CHAR, Types.NCHAR -> {
+                return text.stripTrailing();
+            }
+            case Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY -> {
+                // PG 的 \x 前缀、SQL Server 的 0x 前缀十六进制文本；其他按原始字节取十六进制
+                String hex = text.startsWith("\\x") || text.startsWith("0x") ? text.substring(2) : text;
+                return hex.matches("[0-9a-fA-F]*") && hex.length() % 2 == 0
+                        ? hex.toLowerCase()
+                        : HexFormat.of().formatHex(text.getBytes(StandardCharsets.UTF_8));
+            }
+            default -> {
+                return text;
+            }
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        return switch (value.toLowerCase()) {
+            case "1", "true", "t" -> Boolean.TRUE;
+            case "0", "false", "f" -> Boolean.FALSE;
+            default -> null;
+        };
+    }
+
+    // 兼容各数据库行镜像的格式：2024-01-02 03:04:05.000000 (MySQL)、2024-01-02T03:04:05.123 (PG / Oracle / SQL Server)、
+    // 带时区偏移的 2024-01-02T03:04:05+08:00 (PG timestamptz)，以及只有日期的 2024-01-02
+    private static Timestamp parseTimestamp(String value) {
+        if (value.length() == 10) {
+            return Timestamp.valueOf(LocalDate.parse(value).atStartOfDay());
+        }
+        String iso = value.replace(' ', 'T');
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(iso, OffsetDateTime::from, LocalDateTime::from);
+        return parsed instanceof OffsetDateTime odt
+                ? Timestamp.from(odt.toInstant())
+                : Timestamp.valueOf((LocalDateTime) parsed);
+    }
+
+    private final String table;
+    private final List<String> primaryKeys;
+    private final Map<String, Column> columns;
+
+    public TableSchema(String table, List<String> primaryKeys, Map<String, Column> columns) {
+        this.table = table;
+        this.primaryKeys = primaryKeys;
+        this.columns = columns;
+    }
+
+    public Column getColumn(String name) {
+        return columns.get(name);
+    }
+
+    public boolean hasColumn(String name) {
+        return columns.containsKey(name);
+    }
+
+    // 主键值按主键列类型规范化，找不到该列时只按取值的 Java 类型处理
+    public String normalizeKey(String column, Object value) {
+        return normalizeKeyValue(columns.get(column), value);
+    }
+
+    // 主键值按主键列类型绑定，找不到该列时原样绑定
+    public Object bindKey(String column, String value) {
+        Column col = columns.get(column);
+        return col == null ? value : col.bindKey(value);
+    }
+}
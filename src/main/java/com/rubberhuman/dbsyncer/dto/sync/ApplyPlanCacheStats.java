@@ -0,0 +1,14 @@
+package com.rubberhuman.dbsyncer.dto.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ApplyPlanCacheStats {
+    private Integer size;      // 当前缓存的计划数
+    private Integer maxSize;   // 缓存上限
+    private Long hits;         // 命中次数
+    private Long misses;       // 未命中（新建计划）次数
+    private Long evictions;    // 因超出上限被淘汰的计划数
+}
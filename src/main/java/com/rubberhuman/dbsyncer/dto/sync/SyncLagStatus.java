@@ -0,0 +1,19 @@
+package com.rubberhuman.dbsyncer.dto.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyncLagStatus {
+    private Long sourceId;
+    private Long targetId;
+    private Long heartbeatLagMs;     // 最近一次送达目标库的心跳距今的时间，null 表示尚未写入过心跳
+    private Long lastHeartbeatAt;    // 最近一次送达目标库的心跳写入时间（毫秒时间戳）
+    private Long p50LagMs;           // 最近事件从产生到写入目标库的延迟分位数
+    private Long p95LagMs;
+    private Long p99LagMs;
+    private Integer sampleCount;     // 参与计算分位数的事件数
+    private Long oldestPendingAgeMs; // 源库最早一条未处理事件的等待时间，0 表示没有积压
+    private Boolean sloBreached;     // 心跳延迟是否超过阈值
+}
@@ -0,0 +1,14 @@
+package com.rubberhuman.dbsyncer.dto.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class SyncLaneStatus {
+    private Long sourceId;
+    private Long intervalMs;   // 当前轮询间隔，0 表示有积压、立即轮询
+    private Long nextPollAt;   // 下一次轮询时间（毫秒时间戳）
+    private Integer lastFetched; // 最近一次拉取到的事件数
+    private Boolean running;   // 是否正在同步
+}
@@ -0,0 +1,15 @@
+package com.rubberhuman.dbsyncer.dto.sync;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SyncLogPage {
+    private List<SyncEvent> items; // 按 ID 从新到旧排列
+    private Long nextCursor;       // 更早一页：作为 beforeId 传入，null 表示没有更早的日志
+    private Long prevCursor;       // 更新一页：作为 afterId 传入，null 表示没有更新的日志
+}
@@ -4,8 +4,9 @@ import lombok.Data;
 
 @Data
 public class SyncStats {
-    private Long pendingCount; // 待处理 (status=0)
-    private Long successCount; // 成功 (status=1)
-    private Long failedCount;  // 失败 (status=2)
+    private Long pendingCount; // 待处理 (status=0；位点消费时为位点之后的事件)
+    private Long successCount; // 成功 (status=1；位点消费时为其余事件)
+    private Long failedCount;  // 失败 (status=2；位点消费时为仍有失败记录的事件)
     private Long totalCount;   // 总数
+    private Long reconciledAt; // 最近一次与数据库核对的时间 (毫秒时间戳)
 }
@@ -38,6 +38,13 @@ public class DataSourceConfig {
     // 状态 (1: 启用, 0: 禁用)
     private Integer status;
 
+    // 连接池参数 (为空时使用 dbsyncer.pool.* 全局默认值)
+    private Integer poolMaxSize;
+
+    private Integer poolMinIdle;
+
+    private Integer poolConnectionTimeoutMs;
+
     // 逻辑删除
     @TableLogic
     private Integer deleted;
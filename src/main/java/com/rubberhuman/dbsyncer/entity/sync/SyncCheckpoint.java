@@ -0,0 +1,30 @@
+package com.rubberhuman.dbsyncer.entity.sync;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 事件消费位点（存放在元数据库）：记录某个消费者在某个源库上已连续处理到的事件 ID
+@Data
+@TableName("sync_checkpoint")
+public class SyncCheckpoint {
+
+    @TableId(value = "checkpoint_id", type = IdType.AUTO)
+    private Long checkpointId;
+
+    private Long sourceId;
+
+    // 消费者名称，同一源库可被多个消费者独立消费
+    private String consumerName;
+
+    // 小于等于该 ID 的事件均已处理
+    private Long lastEventId;
+
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
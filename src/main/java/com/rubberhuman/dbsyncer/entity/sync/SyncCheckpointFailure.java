@@ -0,0 +1,44 @@
+package com.rubberhuman.dbsyncer.entity.sync;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 位点消费的失败记录（存放在元数据库）：事件在某个目标库上写入失败，位点越过该事件后据此重试
+@Data
+@TableName("sync_checkpoint_failure")
+public class SyncCheckpointFailure {
+
+    @TableId(value = "failure_id", type = IdType.AUTO)
+    private Long failureId;
+
+    private Long sourceId;
+
+    private String consumerName;
+
+    // 源库 sync_event.id
+    private Long eventId;
+
+    // 写入失败的目标库
+    private Long targetId;
+
+    private String errorMsg;
+
+    // 已重试次数
+    private Integer retryCount;
+
+    // 下一次自动重试的时间
+    private LocalDateTime nextRetryTime;
+
+    // 首次失败时间
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updateTime;
+}
@@ -0,0 +1,30 @@
+package com.rubberhuman.dbsyncer.entity.sync;
+
+import com.baomidou.mybatisplus.annotation.FieldFill;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+// 事件送达记录（存放在元数据库）：事件在部分目标库失败时，记录已经成功写入的目标库
+@Data
+@TableName("sync_delivery")
+public class SyncDelivery {
+
+    @TableId(value = "delivery_id", type = IdType.AUTO)
+    private Long deliveryId;
+
+    private Long sourceId;
+
+    // 源库 sync_event.id
+    private Long eventId;
+
+    // 已送达的目标库
+    private Long targetId;
+
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createTime;
+}
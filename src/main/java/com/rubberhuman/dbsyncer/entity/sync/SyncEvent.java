@@ -17,4 +17,6 @@ public class SyncEvent {
     private DatabaseType sourceDbType;
     private String errorMsg;  // 错误信息
     private Long dataVersion;
+    private String payload;   // 行镜像 (JSON)，触发器未开启行镜像时为空
+    private String changedColumns; // UPDATE 实际变化的列（逗号分隔），触发器未开启变更列记录时为空
 }
@@ -0,0 +1,21 @@
+package com.rubberhuman.dbsyncer.enums.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ConflictCheckMode {
+    /**
+     * 写前查询：UPDATE 事件写入前先查询目标库的版本号，再执行 UPSERT
+     */
+    QUERY("写前查询版本号"),
+
+    /**
+     * 条件写入：版本号条件放在 UPDATE 语句的 WHERE 中，一次往返完成检测与写入；
+     * 影响 0 行时再确认目标行是否存在，存在即为冲突，不存在则插入
+     */
+    CONDITIONAL_WRITE("条件写入");
+
+    private final String description;
+}
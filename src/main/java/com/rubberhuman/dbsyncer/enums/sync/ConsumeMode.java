@@ -0,0 +1,22 @@
+package com.rubberhuman.dbsyncer.enums.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum ConsumeMode {
+    /**
+     * 按 status 标记消费：拉取 status = 0 的事件，处理后逐条回写状态
+     */
+    STATUS("按状态标记消费"),
+
+    /**
+     * 按位点消费：在元数据库中记录每个源库已消费到的事件 ID，拉取 id > 位点 的事件，
+     * 源库 sync_event 只追加不更新；失败的 (事件, 目标库) 记录到元数据库 sync_checkpoint_failure，
+     * 位点在失败记录保存后才越过该事件，之后按退避间隔补读重试，送达后删除记录
+     */
+    CHECKPOINT("按位点消费");
+
+    private final String description;
+}
@@ -0,0 +1,32 @@
+package com.rubberhuman.dbsyncer.enums.sync;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public enum TriggerMode {
+    /**
+     * 通用函数：PostgreSQL 所有表共用一个函数，通过动态 EXECUTE 读取主键与版本号，每行都要解析执行一次
+     */
+    GENERIC("通用函数"),
+
+    /**
+     * 按表生成：每张表生成专用的行级触发器（函数），静态引用主键与版本号列
+     */
+    PER_TABLE("按表生成"),
+
+    /**
+     * 语句级：每条 DML 语句只触发一次，用一条 INSERT ... SELECT 批量写入该语句影响的所有行的事件
+     * （PostgreSQL 10+ 使用转换表，Oracle 使用复合触发器 + FORALL；其他数据库按 PER_TABLE 生成）
+     */
+    STATEMENT("语句级批量"),
+
+    /**
+     * 替代触发器：SQL Server 用 INSTEAD OF INSERT / UPDATE 触发器直接写入自增后的版本号，
+     * 省去 AFTER 触发器中再次 UPDATE 整行的二次写入；版本号语义与其他模式相同（其他数据库按 PER_TABLE 生成）
+     */
+    INSTEAD_OF("替代触发器");
+
+    private final String description;
+}
@@ -0,0 +1,15 @@
+package com.rubberhuman.dbsyncer.event.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// 数据源配置发生变化（修改/启停/删除）时发布，监听方据此重建或释放与该数据源相关的资源
+@Getter
+@AllArgsConstructor
+public class DataSourceChangedEvent {
+
+    private final Long sourceId;
+
+    // 变化后数据源是否仍处于启用状态
+    private final boolean enabled;
+}
@@ -0,0 +1,9 @@
+package com.rubberhuman.dbsyncer.mapper.sync;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpoint;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface SyncCheckpointMapper extends BaseMapper<SyncCheckpoint> {
+}
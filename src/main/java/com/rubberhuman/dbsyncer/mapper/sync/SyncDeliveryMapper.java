@@ -0,0 +1,9 @@
+package com.rubberhuman.dbsyncer.mapper.sync;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.rubberhuman.dbsyncer.entity.sync.SyncDelivery;
+import org.apache.ibatis.annotations.Mapper;
+
+@Mapper
+public interface SyncDeliveryMapper extends BaseMapper<SyncDelivery> {
+}
@@ -6,33 +6,51 @@ import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
 import lombok.Getter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.stereotype.Repository;
 
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Repository
 public class SyncEventMapper {
 
+    private static final int IN_CHUNK_SIZE = 500;
+
     @Autowired
     private DynamicDbUtil dynamicDbUtil;
 
     // 手动定义映射规则：把 ResultSet 转为 Entity
+    // payload / changed_columns 列是可选的，旧版本的 sync_event 表没有这些列；每个结果集只检查一次列是否存在
     @Getter
-    private final RowMapper<SyncEvent> rowMapper = (rs, rowNum) -> {
-        SyncEvent event = new SyncEvent();
-        event.setId(rs.getLong("id"));
-        event.setTableName(rs.getString("table_name"));
-        event.setOpType(rs.getString("op_type"));
-        event.setPkColumnName(rs.getString("pk_column_name"));
-        event.setPkValue(rs.getString("pk_value"));
-        event.setStatus(rs.getInt("status"));
-        event.setOpTime(rs.getTimestamp("op_time"));
-        event.setSourceDbType(DatabaseType.fromCode(rs.getString("source_db_type")));
-        event.setErrorMsg(rs.getString("error_msg"));
-        event.setDataVersion(rs.getLong("data_version"));
-        return event;
+    private final ResultSetExtractor<List<SyncEvent>> eventsExtractor = rs -> {
+        boolean hasPayload = hasColumn(rs, "payload");
+        boolean hasChangedColumns = hasColumn(rs, "changed_columns");
+        List<SyncEvent> events = new ArrayList<>();
+        while (rs.next()) {
+            SyncEvent event = new SyncEvent();
+            event.setId(rs.getLong("id"));
+            event.setTableName(rs.getString("table_name"));
+            event.setOpType(rs.getString("op_type"));
+            event.setPkColumnName(rs.getString("pk_column_name"));
+            event.setPkValue(rs.getString("pk_value"));
+            event.setStatus(rs.getInt("status"));
+            event.setOpTime(rs.getTimestamp("op_time"));
+            event.setSourceDbType(DatabaseType.fromCode(rs.getString("source_db_type")));
+            event.setErrorMsg(rs.getString("error_msg"));
+            event.setDataVersion(rs.getLong("data_version"));
+            event.setPayload(hasPayload ? rs.getString("payload") : null);
+            event.setChangedColumns(hasChangedColumns ? rs.getString("changed_columns") : null);
+            events.add(event);
+        }
+        return events;
     };
 
     // 查询未处理的同步事件
@@ -43,12 +61,52 @@ public class SyncEventMapper {
 
         jdbcTemplate.setMaxRows(batchSize);
         try {
-            return jdbcTemplate.query(sql, rowMapper);
+            return jdbcTemplate.query(sql, eventsExtractor);
+        } finally {
+            jdbcTemplate.setMaxRows(-1); // 还原设置
+        }
+    }
+
+    // 按位点消费：拉取 id 大于位点的事件，最多一批
+    // 只用 maxRows 限制行数，不设置 fetchSize：MySQL 驱动默认一次取回全部结果（流式需 Integer.MIN_VALUE 或 useCursorFetch），
+    // PG 驱动只在关闭自动提交时按 fetchSize 分批，设置了也不会生效；一批数据量本身也不需要流式读取
+    public List<SyncEvent> selectAfterId(Long sourceId, long afterId, int batchSize) {
+        JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+
+        String sql = "SELECT * FROM sync_event WHERE id > ? ORDER BY id ASC";
+
+        jdbcTemplate.setMaxRows(batchSize);
+        try {
+            return jdbcTemplate.query(sql, eventsExtractor, afterId);
         } finally {
             jdbcTemplate.setMaxRows(-1); // 还原设置
         }
     }
 
+    // 按 ID 查询事件，用于补读位点之后迟到提交的事件
+    public List<SyncEvent> selectByIds(Long sourceId, List<Long> eventIds) {
+        JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        List<SyncEvent> events = new ArrayList<>();
+        for (List<Long> chunk : chunks(eventIds)) {
+            String sql = "SELECT * FROM sync_event WHERE id IN (" + placeholders(chunk.size()) + ")";
+            events.addAll(jdbcTemplate.query(sql, eventsExtractor, chunk.toArray()));
+        }
+        return events;
+    }
+
+    // 最早一条待处理事件的产生时间，没有待处理事件时返回 null
+    // afterId 为空时按状态查找 (status = 0)，否则查找位点之后的第一条事件；两者都按 id 顺序走索引，只读一行
+    public Timestamp selectOldestPendingOpTime(Long sourceId, Long afterId) {
+        JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        jdbcTemplate.setMaxRows(1);
+        List<Timestamp> times = afterId == null
+                ? jdbcTemplate.query("SELECT op_time FROM sync_event WHERE status = 0 ORDER BY id ASC",
+                (rs, rowNum) -> rs.getTimestamp(1))
+                : jdbcTemplate.query("SELECT op_time FROM sync_event WHERE id > ? ORDER BY id ASC",
+                (rs, rowNum) -> rs.getTimestamp(1), afterId);
+        return times.isEmpty() ? null : times.get(0);
+    }
+
     public int updateStatusSuccess(Long sourceId, Long eventId) {
         JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
         String sql = "UPDATE sync_event SET status = 1, error_msg = NULL WHERE id = ?";
@@ -61,17 +119,72 @@ public class SyncEventMapper {
         return jdbcTemplate.update(sql, errorMsg, eventId);
     }
 
+    // 批量标记成功：一条 UPDATE ... WHERE id IN (...) 确认一组事件
+    public int updateStatusSuccessBatch(Long sourceId, List<Long> eventIds) {
+        JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        int total = 0;
+        for (List<Long> chunk : chunks(eventIds)) {
+            String sql = "UPDATE sync_event SET status = 1, error_msg = NULL WHERE id IN (" + placeholders(chunk.size()) + ")";
+            total += jdbcTemplate.update(sql, chunk.toArray());
+        }
+        return total;
+    }
+
+    // 批量标记失败：错误信息相同的事件合并为一条 UPDATE ... WHERE id IN (...)
+    public int updateStatusFailBatch(Long sourceId, Map<Long, String> failures) {
+        Map<String, List<Long>> idsByMsg = new LinkedHashMap<>();
+        failures.forEach((id, msg) -> idsByMsg.computeIfAbsent(msg == null ? "" : msg, k -> new ArrayList<>()).add(id));
+
+        JdbcTemplate jdbcTemplate = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        int total = 0;
+        for (Map.Entry<String, List<Long>> entry : idsByMsg.entrySet()) {
+            for (List<Long> chunk : chunks(entry.getValue())) {
+                String sql = "UPDATE sync_event SET status = 2, error_msg = ? WHERE id IN (" + placeholders(chunk.size()) + ")";
+                Object[] args = new Object[chunk.size() + 1];
+                args[0] = entry.getKey();
+                for (int i = 0; i < chunk.size(); i++) {
+                    args[i + 1] = chunk.get(i);
+                }
+                total += jdbcTemplate.update(sql, args);
+            }
+        }
+        return total;
+    }
+
     // 查询所有事件，供前端管理界面查看日志使用
     public List<SyncEvent> selectAll(Long sourceId, int limit) {
         JdbcTemplate jdbcTemplate = dynamicDbUtil.getJdbcTemplate(sourceId);
         String sql = "SELECT * FROM sync_event ORDER BY id DESC";
         jdbcTemplate.setMaxRows(limit);
         try {
-            return jdbcTemplate.query(sql, rowMapper);
+            return jdbcTemplate.query(sql, eventsExtractor);
         } catch (Exception e) {
             return Collections.emptyList();
         } finally {
             jdbcTemplate.setMaxRows(-1);
         }
     }
+
+    private static boolean hasColumn(ResultSet rs, String column) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            if (column.equalsIgnoreCase(meta.getColumnLabel(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // 辅助方法：IN (...) 分块，避免超出数据库参数个数上限
+    private List<List<Long>> chunks(List<Long> ids) {
+        List<List<Long>> chunks = new ArrayList<>();
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            chunks.add(ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())));
+        }
+        return chunks;
+    }
+
+    private String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
 }
@@ -2,14 +2,17 @@ package com.rubberhuman.dbsyncer.service.datasource;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
 import com.rubberhuman.dbsyncer.exception.BusinessException;
 import com.rubberhuman.dbsyncer.mapper.datasource.DataSourceConfigMapper;
 import com.rubberhuman.dbsyncer.util.EncryptionUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.util.Assert;
 
+import java.io.Serializable;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
@@ -22,6 +25,9 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
     @Autowired
     private EncryptionUtil encryptionUtil;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public boolean addDataSource(DataSourceConfig config) {
 
@@ -48,7 +54,12 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
 
         // 再次为 unique 字段兜底
         try {
-            return this.save(config);
+            boolean saved = this.save(config);
+            // 通知同步引擎等重新加载数据源列表
+            if (saved) {
+                eventPublisher.publishEvent(new DataSourceChangedEvent(config.getSourceId(), Integer.valueOf(1).equals(config.getStatus())));
+            }
+            return saved;
         } catch (DuplicateKeyException e) {
             throw new BusinessException("数据源名称已存在");
         }
@@ -98,7 +109,13 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
         }
 
         mergeConfig(config, old);
-        return this.updateById(old);
+        boolean updated = this.updateById(old);
+
+        // 连接参数可能已变化，通知连接池等缓存失效
+        if (updated) {
+            eventPublisher.publishEvent(new DataSourceChangedEvent(old.getSourceId(), Integer.valueOf(1).equals(old.getStatus())));
+        }
+        return updated;
     }
 
     @Override
@@ -120,6 +137,17 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
         if (!success) {
             throw new BusinessException("更新失败，数据源可能不存在");
         }
+
+        eventPublisher.publishEvent(new DataSourceChangedEvent(id, status == 1));
+    }
+
+    @Override
+    public boolean removeById(Serializable id) {
+        boolean removed = super.removeById(id);
+        if (removed) {
+            eventPublisher.publishEvent(new DataSourceChangedEvent(Long.valueOf(id.toString()), false));
+        }
+        return removed;
     }
 
     @Override
@@ -141,7 +169,10 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
                 || config.getDbName() != null
                 || config.getUsername() != null
                 || config.getPassword() != null
-                || config.getStatus() != null;
+                || config.getStatus() != null
+                || config.getPoolMaxSize() != null
+                || config.getPoolMinIdle() != null
+                || config.getPoolConnectionTimeoutMs() != null;
     }
 
     // 判断字符串不为 null 且不为空
@@ -159,6 +190,9 @@ public class DataSourceConfigServiceImpl extends ServiceImpl<DataSourceConfigMap
         if (hasText(src.getDbName())) target.setDbName(src.getDbName());
         if (hasText(src.getUsername())) target.setUsername(src.getUsername());
         if (src.getStatus() != null) target.setStatus(src.getStatus());
+        if (src.getPoolMaxSize() != null) target.setPoolMaxSize(src.getPoolMaxSize());
+        if (src.getPoolMinIdle() != null) target.setPoolMinIdle(src.getPoolMinIdle());
+        if (src.getPoolConnectionTimeoutMs() != null) target.setPoolConnectionTimeoutMs(src.getPoolConnectionTimeoutMs());
 
         if (hasText(src.getPassword())) {
             target.setPassword(encryptionUtil.encrypt(src.getPassword()));
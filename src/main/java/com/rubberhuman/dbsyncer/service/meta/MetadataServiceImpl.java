@@ -40,7 +40,8 @@ public class MetadataServiceImpl implements MetadataService {
         try {
             List<String> tables = jdbcTemplate.queryForList(sql, String.class);
             return tables.stream()
-                    .filter(tableName -> !tableName.equalsIgnoreCase("sync_event"))
+                    // 事件表及其分区 (PG)、归档表不参与同步
+                    .filter(tableName -> !tableName.toLowerCase().startsWith("sync_event"))
                     .collect(Collectors.toList());
         } catch (Exception e) {
             throw new BusinessException("获取表列表失败: " + e.getMessage());
@@ -1,16 +1,27 @@
 package com.rubberhuman.dbsyncer.service.sync;
 
+import com.rubberhuman.dbsyncer.dto.sync.ApplyPlanCacheStats;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLagStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLaneStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLogPage;
 import com.rubberhuman.dbsyncer.dto.sync.SyncStats;
-import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
 
 import java.util.List;
 
 public interface SyncAdminService {
     SyncStats getStats(Long sourceId);
 
-    List<SyncEvent> listLogs(Long sourceId, Integer status, int page, int size);
+    SyncLogPage listLogs(Long sourceId, Integer status, Long beforeId, Long afterId, int limit);
 
     void retryEvent(Long sourceId, Long eventId);
 
     void skipEvent(Long sourceId, Long eventId);
+
+    List<SyncLaneStatus> listLaneStatus();
+
+    List<SyncLagStatus> listLag();
+
+    ApplyPlanCacheStats getPlanCacheStats();
+
+    void refreshSchema(Long sourceId, String table);
 }
@@ -1,5 +1,14 @@
 package com.rubberhuman.dbsyncer.service.sync;
 
+import com.rubberhuman.dbsyncer.core.ApplyPlanCache;
+import com.rubberhuman.dbsyncer.core.SchemaCatalog;
+import com.rubberhuman.dbsyncer.core.SyncEngine;
+import com.rubberhuman.dbsyncer.core.SyncLagMonitor;
+import com.rubberhuman.dbsyncer.core.SyncStatsTracker;
+import com.rubberhuman.dbsyncer.dto.sync.ApplyPlanCacheStats;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLagStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLaneStatus;
+import com.rubberhuman.dbsyncer.dto.sync.SyncLogPage;
 import com.rubberhuman.dbsyncer.dto.sync.SyncStats;
 import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
 import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
@@ -9,15 +18,23 @@ import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
 import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
 import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map;
 
 @Service
 public class SyncAdminServiceImpl implements SyncAdminService {
 
+    // 单页日志条数上限
+    private static final int MAX_LOG_LIMIT = 500;
+
+    @Value("${dbsyncer.sync-worker.consumer-name:default}")
+    private String consumerName;
+
     @Autowired
     private DynamicDbUtil dynamicDbUtil;
 
@@ -27,31 +44,38 @@ public class SyncAdminServiceImpl implements SyncAdminService {
     @Autowired
     private DataSourceConfigService configService;
 
-    // 1. 获取统计概览
-    public SyncStats getStats(Long sourceId) {
-        JdbcTemplate jt = dynamicDbUtil.getJdbcTemplate(sourceId);
+    @Autowired
+    private SyncEngine syncEngine;
+
+    @Autowired
+    private ApplyPlanCache planCache;
+
+    @Autowired
+    private SchemaCatalog schemaCatalog;
+
+    @Autowired
+    private SyncDeliveryService deliveryService;
 
-        // 使用 SUM(CASE...) 一次性查出所有状态的数量
-        String sql = "SELECT " +
-                "COALESCE(SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END), 0) as pending, " +
-                "COALESCE(SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END), 0) as success, " +
-                "COALESCE(SUM(CASE WHEN status = 2 THEN 1 ELSE 0 END), 0) as failed, " +
-                "COUNT(*) as total " +
-                "FROM sync_event";
+    @Autowired
+    private SyncCheckpointFailureService failureService;
 
-        Map<String, Object> map = jt.queryForMap(sql);
+    @Autowired
+    private SyncStatsTracker statsTracker;
 
-        SyncStats dto = new SyncStats();
-        dto.setPendingCount(((Number) map.get("pending")).longValue());
-        dto.setSuccessCount(((Number) map.get("success")).longValue());
-        dto.setFailedCount(((Number) map.get("failed")).longValue());
-        dto.setTotalCount(((Number) map.get("total")).longValue());
+    @Autowired
+    private SyncLagMonitor lagMonitor;
 
-        return dto;
+    // 1. 获取统计概览：由引擎在内存中增量维护，定期与数据库核对
+    public SyncStats getStats(Long sourceId) {
+        return statsTracker.get(sourceId);
     }
 
-    // 2. 分页查询日志
-    public List<SyncEvent> listLogs(Long sourceId, Integer status, int page, int size) {
+    // 2. 按游标分页查询日志
+    // 以 id 为游标定位 (WHERE id < ? / id > ?)，配合 (status, id) 索引，任何一页的代价都与第一页相同
+    public SyncLogPage listLogs(Long sourceId, Integer status, Long beforeId, Long afterId, int limit) {
+        if (beforeId != null && afterId != null) {
+            throw new BusinessException("beforeId 与 afterId 不能同时指定");
+        }
         JdbcTemplate jt = dynamicDbUtil.getJdbcTemplate(sourceId);
 
         // 1. 获取当前源库的类型，以便决定用哪种分页语法
@@ -60,20 +84,46 @@ public class SyncAdminServiceImpl implements SyncAdminService {
             throw new BusinessException("数据源不存在");
         }
 
-        // 2. 构建基础 SQL
+        // 2. 构建基础 SQL，条件全部使用绑定参数
+        int pageSize = Math.min(Math.max(limit, 1), MAX_LOG_LIMIT);
+        boolean newer = afterId != null;
+        List<Object> args = new ArrayList<>();
         StringBuilder baseSql = new StringBuilder("SELECT * FROM sync_event WHERE 1=1 ");
         if (status != null) {
-            baseSql.append("AND status = ").append(status).append(" ");
+            baseSql.append("AND status = ? ");
+            args.add(status);
+        }
+        if (beforeId != null) {
+            baseSql.append("AND id < ? ");
+            args.add(beforeId);
+        }
+        if (newer) {
+            baseSql.append("AND id > ? ");
+            args.add(afterId);
+        }
+        // 向更新翻页时按 id 升序取紧邻游标的一页，再反转为从新到旧
+        baseSql.append(newer ? "ORDER BY id ASC " : "ORDER BY id DESC "); // 必须要有排序，否则 SQLServer 分页会报错
+
+        // 3. 多取一条，判断翻页方向上是否还有数据
+        args.add(pageSize + 1);
+        String sql = buildLimitSql(config.getDbType(), baseSql.toString());
+
+        List<SyncEvent> rows = jt.query(sql, eventMapper.getEventsExtractor(), args.toArray());
+        boolean hasMore = rows.size() > pageSize;
+        List<SyncEvent> items = new ArrayList<>(hasMore ? rows.subList(0, pageSize) : rows);
+        if (newer) {
+            Collections.reverse(items);
+        }
+        if (items.isEmpty()) {
+            return new SyncLogPage(items, null, null);
         }
-        baseSql.append("ORDER BY id DESC "); // 必须要有排序，否则 SQLServer 分页会报错
-
-        // 3. 计算偏移量
-        int offset = (page - 1) * size;
-
-        // 4. 根据数据库类型拼接分页语句
-        String sql = buildPaginationSql(config.getDbType(), baseSql.toString(), offset, size);
 
-        return jt.query(sql, eventMapper.getRowMapper());
+        // 4. 游标：翻页方向上由多取的一条判断；反方向上，只要本页是从某个游标翻过来的，那一侧就一定还有数据
+        Long newest = items.get(0).getId();
+        Long oldest = items.get(items.size() - 1).getId();
+        Long nextCursor = (newer || hasMore) ? oldest : null;
+        Long prevCursor = (newer ? hasMore : beforeId != null) ? newest : null;
+        return new SyncLogPage(items, nextCursor, prevCursor);
     }
 
     // 3. 重试事件 (人工修复)
@@ -81,21 +131,24 @@ public class SyncAdminServiceImpl implements SyncAdminService {
     public void retryEvent(Long sourceId, Long eventId) {
         JdbcTemplate jt = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId); // 使用 Worker 账号或普通账号均可
 
-        // 先检查是否存在
-        String checkSql = "SELECT count(*) FROM sync_event WHERE id = ?";
-        Long count = jt.queryForObject(checkSql, Long.class, eventId);
-        if (count == null || count == 0) {
+        // 先检查是否存在，顺带取出原状态用于更新统计
+        Integer status = currentStatus(jt, eventId);
+        if (status == null) {
             throw new BusinessException("未找到 ID 为 " + eventId + " 的同步事件");
         }
 
         String sql = "UPDATE sync_event SET status = 0, error_msg = NULL WHERE id = ?";
-        jt.update(sql, eventId);
+        int rows = jt.update(sql, eventId);
+        statsTracker.onStatusChanged(sourceId, status, 0, rows);
+        // 位点消费模式下由失败记录驱动重试：立即到期，并重新开始 24 小时的自动重试窗口
+        failureService.retryNow(sourceId, consumerName, eventId);
     }
 
     // 4. 强制跳过 (人工忽略)
     // 逻辑：把状态改为 1 (成功)，并备注是管理员操作。
     public void skipEvent(Long sourceId, Long eventId) {
         JdbcTemplate jt = dynamicDbUtil.getSyncWorkerJdbcTemplate(sourceId);
+        Integer status = currentStatus(jt, eventId);
 
         String sql = "UPDATE sync_event SET status = 1, error_msg = '[管理员强制标记成功]' WHERE id = ?";
         int rows = jt.update(sql, eventId);
@@ -103,25 +156,54 @@ public class SyncAdminServiceImpl implements SyncAdminService {
         if (rows == 0) {
             throw new BusinessException("操作失败，事件可能不存在");
         }
+        if (status != null) {
+            statsTracker.onStatusChanged(sourceId, status, 1, rows);
+        }
+        // 事件不再重试，送达记录和位点消费的失败记录也不再需要
+        deliveryService.clear(sourceId, List.of(eventId));
+        failureService.clear(sourceId, consumerName, eventId);
     }
 
-    // 辅助方法：生成不同数据库的分页 SQL
-    private String buildPaginationSql(DatabaseType dbType, String baseSql, int offset, int limit) {
-        switch (dbType) {
-            case MYSQL:
-            case POSTGRESQL:
-                // MySQL & PG 语法: LIMIT limit OFFSET offset
-                return baseSql + " LIMIT " + limit + " OFFSET " + offset;
+    // 5. 查看各源库的自适应轮询状态
+    public List<SyncLaneStatus> listLaneStatus() {
+        return syncEngine.getLaneStatuses();
+    }
+
+    // 6. 查看写入计划缓存的命中情况
+    public ApplyPlanCacheStats getPlanCacheStats() {
+        return planCache.getStats();
+    }
+
+    // 7. 表结构变更后刷新结构缓存；写入计划的绑定方式依赖表结构，一并丢弃
+    public void refreshSchema(Long sourceId, String table) {
+        schemaCatalog.refresh(sourceId, table);
+        planCache.evict(sourceId);
+    }
+
+    // 8. 查看各 (源库, 目标库) 的复制延迟
+    public List<SyncLagStatus> listLag() {
+        return lagMonitor.getStatuses();
+    }
 
+    // 辅助方法：事件当前状态，不存在时返回 null；status 为空按未处理计
+    private Integer currentStatus(JdbcTemplate jt, Long eventId) {
+        List<Integer> statuses = jt.query("SELECT status FROM sync_event WHERE id = ?",
+                (rs, rowNum) -> rs.getObject(1) == null ? 0 : rs.getInt(1), eventId);
+        return statuses.isEmpty() ? null : statuses.get(0);
+    }
+
+    // 辅助方法：按数据库类型追加取前 N 条的语句，N 为最后一个绑定参数
+    private String buildLimitSql(DatabaseType dbType, String baseSql) {
+        switch (dbType) {
             case ORACLE:
             case SQL_SERVER:
-                // Oracle 12c+ 和 SQL Server 2012+ 标准语法:
-                // OFFSET offset ROWS FETCH NEXT limit ROWS ONLY
-                return baseSql + " OFFSET " + offset + " ROWS FETCH NEXT " + limit + " ROWS ONLY";
+                // Oracle 12c+ 和 SQL Server 2012+ 标准语法，SQL Server 的 FETCH 必须跟在 OFFSET 之后
+                return baseSql + " OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY";
 
+            case MYSQL:
+            case POSTGRESQL:
             default:
-                // 默认尝试 MySQL 语法，或者抛出不支持
-                return baseSql + " LIMIT " + limit + " OFFSET " + offset;
+                return baseSql + " LIMIT ?";
         }
     }
 }
@@ -2,4 +2,6 @@ package com.rubberhuman.dbsyncer.service.sync;
 
 public interface SyncAlertService {
     void sendConflictAlert(String sourceDbName, String targetDbName, String tableName, String pkVal, String errorMsg);
+
+    void sendLagAlert(String sourceDbName, String targetDbName, long lagMs, long sloMs);
 }
@@ -58,4 +58,37 @@ public class SyncAlertServiceImpl implements SyncAlertService {
             log.error("邮件发送失败: {}", e.getMessage());
         }
     }
+
+    @Async
+    @Override
+    public void sendLagAlert(String sourceDbName, String targetDbName, long lagMs, long sloMs) {
+        try {
+            log.info("正在发送复制延迟报警邮件...");
+
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setFrom(fromEmail);
+            message.setTo(adminEmail);
+            message.setSubject("数据库同步延迟报警 - " + sourceDbName + " -> " + targetDbName);
+
+            StringBuilder text = new StringBuilder();
+            text.append("管理员，您好：\n\n");
+            text.append("同步系统检测到复制延迟超过阈值，详情如下：\n");
+            text.append("--------------------------------------------------\n");
+            text.append("检测时间：").append(new Date()).append("\n");
+            text.append("源数据库：").append(sourceDbName).append("\n");
+            text.append("目标数据库：").append(targetDbName).append("\n");
+            text.append("当前延迟：").append(lagMs / 1000).append(" 秒\n");
+            text.append("延迟阈值：").append(sloMs / 1000).append(" 秒\n");
+            text.append("--------------------------------------------------\n");
+            text.append("请登录管理后台查看同步状态：/api/admin/sync/lag");
+
+            message.setText(text.toString());
+
+            mailSender.send(message);
+            log.info("延迟报警邮件发送成功！");
+
+        } catch (Exception e) {
+            log.error("邮件发送失败: {}", e.getMessage());
+        }
+    }
 }
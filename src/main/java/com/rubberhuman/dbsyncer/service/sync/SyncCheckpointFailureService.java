@@ -0,0 +1,32 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpointFailure;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+public interface SyncCheckpointFailureService extends IService<SyncCheckpointFailure> {
+    // 到达重试时间、且首次失败不早于 notBefore 的事件 ID，升序，最多 limit 个
+    List<Long> listDueEventIds(Long sourceId, String consumerName, LocalDateTime notBefore, int limit);
+
+    // 查询事件的失败记录：事件 ID -> (目标库 ID -> 失败记录)，没有记录的事件不出现在结果中
+    Map<Long, Map<Long, SyncCheckpointFailure>> findFailures(Long sourceId, String consumerName, Collection<Long> eventIds);
+
+    // 新增或更新失败记录（failureId 不为空的为更新），并删除已送达的失败记录
+    void saveFailures(Long sourceId, List<SyncCheckpointFailure> failures, Collection<Long> resolvedFailureIds);
+
+    // 仍有失败记录的事件数（同一事件在多个目标库失败只计一次）
+    long countFailedEvents(Long sourceId, String consumerName);
+
+    // ID 在 [minEventId, maxEventId] 范围内是否还有失败记录
+    boolean hasFailuresBetween(Long sourceId, String consumerName, long minEventId, long maxEventId);
+
+    // 人工重试：立即重试，并重新开始自动重试的时间窗口
+    boolean retryNow(Long sourceId, String consumerName, Long eventId);
+
+    // 人工跳过：删除事件的失败记录
+    boolean clear(Long sourceId, String consumerName, Long eventId);
+}
@@ -0,0 +1,145 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpointFailure;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncCheckpointFailureMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SyncCheckpointFailureServiceImpl extends ServiceImpl<SyncCheckpointFailureMapper, SyncCheckpointFailure> implements SyncCheckpointFailureService {
+
+    // IN (...) 单次最多包含的事件 ID 个数
+    private static final int IN_CHUNK_SIZE = 500;
+
+    // 各源库是否可能存在失败记录；绝大多数批次没有失败，据此省去每批一次的查询
+    private final Map<Long, Boolean> mayHaveFailures = new ConcurrentHashMap<>();
+
+    @Override
+    public List<Long> listDueEventIds(Long sourceId, String consumerName, LocalDateTime notBefore, int limit) {
+        if (!mayHaveFailures(sourceId)) {
+            return List.of();
+        }
+        List<SyncCheckpointFailure> rows = this.lambdaQuery()
+                .select(SyncCheckpointFailure::getEventId)
+                .eq(SyncCheckpointFailure::getSourceId, sourceId)
+                .eq(SyncCheckpointFailure::getConsumerName, consumerName)
+                .le(SyncCheckpointFailure::getNextRetryTime, LocalDateTime.now())
+                .ge(SyncCheckpointFailure::getCreateTime, notBefore)
+                .orderByAsc(SyncCheckpointFailure::getEventId)
+                .last("LIMIT " + limit)
+                .list();
+
+        Set<Long> ids = new LinkedHashSet<>();
+        for (SyncCheckpointFailure row : rows) {
+            ids.add(row.getEventId());
+        }
+        return new ArrayList<>(ids);
+    }
+
+    @Override
+    public Map<Long, Map<Long, SyncCheckpointFailure>> findFailures(Long sourceId, String consumerName, Collection<Long> eventIds) {
+        Map<Long, Map<Long, SyncCheckpointFailure>> failures = new HashMap<>();
+        if (eventIds.isEmpty() || !mayHaveFailures(sourceId)) {
+            return failures;
+        }
+
+        List<Long> ids = new ArrayList<>(eventIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<SyncCheckpointFailure> rows = this.lambdaQuery()
+                    .eq(SyncCheckpointFailure::getSourceId, sourceId)
+                    .eq(SyncCheckpointFailure::getConsumerName, consumerName)
+                    .in(SyncCheckpointFailure::getEventId, ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())))
+                    .list();
+            for (SyncCheckpointFailure row : rows) {
+                failures.computeIfAbsent(row.getEventId(), k -> new HashMap<>()).put(row.getTargetId(), row);
+            }
+        }
+        return failures;
+    }
+
+    // 同一事务内完成：部分写入后失败时，重读同一批不会因重复插入而违反唯一约束
+    @Override
+    @Transactional
+    public void saveFailures(Long sourceId, List<SyncCheckpointFailure> failures, Collection<Long> resolvedFailureIds) {
+        List<SyncCheckpointFailure> inserts = new ArrayList<>();
+        List<SyncCheckpointFailure> updates = new ArrayList<>();
+        for (SyncCheckpointFailure failure : failures) {
+            (failure.getFailureId() == null ? inserts : updates).add(failure);
+        }
+        if (!inserts.isEmpty()) {
+            mayHaveFailures.put(sourceId, true);
+            this.saveBatch(inserts);
+        }
+        if (!updates.isEmpty()) {
+            this.updateBatchById(updates);
+        }
+        if (!resolvedFailureIds.isEmpty()) {
+            this.removeByIds(resolvedFailureIds);
+            // 删除后重新确认，没有剩余记录时后续批次不再查询
+            if (inserts.isEmpty()) {
+                mayHaveFailures.remove(sourceId);
+            }
+        }
+    }
+
+    @Override
+    public long countFailedEvents(Long sourceId, String consumerName) {
+        if (!mayHaveFailures(sourceId)) {
+            return 0;
+        }
+        Object count = this.getObj(Wrappers.<SyncCheckpointFailure>query()
+                .select("COUNT(DISTINCT event_id)")
+                .eq("source_id", sourceId)
+                .eq("consumer_name", consumerName), obj -> obj);
+        return count == null ? 0 : ((Number) count).longValue();
+    }
+
+    @Override
+    public boolean hasFailuresBetween(Long sourceId, String consumerName, long minEventId, long maxEventId) {
+        return this.lambdaQuery()
+                .eq(SyncCheckpointFailure::getSourceId, sourceId)
+                .eq(SyncCheckpointFailure::getConsumerName, consumerName)
+                .between(SyncCheckpointFailure::getEventId, minEventId, maxEventId)
+                .exists();
+    }
+
+    @Override
+    public boolean retryNow(Long sourceId, String consumerName, Long eventId) {
+        LocalDateTime now = LocalDateTime.now();
+        return this.lambdaUpdate()
+                .eq(SyncCheckpointFailure::getSourceId, sourceId)
+                .eq(SyncCheckpointFailure::getConsumerName, consumerName)
+                .eq(SyncCheckpointFailure::getEventId, eventId)
+                .set(SyncCheckpointFailure::getRetryCount, 0)
+                .set(SyncCheckpointFailure::getNextRetryTime, now)
+                .set(SyncCheckpointFailure::getCreateTime, now)
+                .update();
+    }
+
+    @Override
+    public boolean clear(Long sourceId, String consumerName, Long eventId) {
+        boolean removed = this.lambdaUpdate()
+                .eq(SyncCheckpointFailure::getSourceId, sourceId)
+                .eq(SyncCheckpointFailure::getConsumerName, consumerName)
+                .eq(SyncCheckpointFailure::getEventId, eventId)
+                .remove();
+        mayHaveFailures.remove(sourceId);
+        return removed;
+    }
+
+    private boolean mayHaveFailures(Long sourceId) {
+        return mayHaveFailures.computeIfAbsent(sourceId, id -> this.lambdaQuery().eq(SyncCheckpointFailure::getSourceId, id).exists());
+    }
+}
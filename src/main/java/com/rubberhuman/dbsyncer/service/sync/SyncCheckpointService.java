@@ -0,0 +1,12 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpoint;
+
+public interface SyncCheckpointService extends IService<SyncCheckpoint> {
+    // 查询消费位点，不存在时返回 0
+    long getLastEventId(Long sourceId, String consumerName);
+
+    // 保存消费位点
+    void saveLastEventId(Long sourceId, String consumerName, long lastEventId);
+}
@@ -0,0 +1,39 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.rubberhuman.dbsyncer.entity.sync.SyncCheckpoint;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncCheckpointMapper;
+import org.springframework.stereotype.Service;
+
+@Service
+public class SyncCheckpointServiceImpl extends ServiceImpl<SyncCheckpointMapper, SyncCheckpoint> implements SyncCheckpointService {
+
+    @Override
+    public long getLastEventId(Long sourceId, String consumerName) {
+        SyncCheckpoint checkpoint = this.lambdaQuery()
+                .eq(SyncCheckpoint::getSourceId, sourceId)
+                .eq(SyncCheckpoint::getConsumerName, consumerName)
+                .one();
+        if (checkpoint == null || checkpoint.getLastEventId() == null) {
+            return 0L;
+        }
+        return checkpoint.getLastEventId();
+    }
+
+    @Override
+    public void saveLastEventId(Long sourceId, String consumerName, long lastEventId) {
+        boolean updated = this.lambdaUpdate()
+                .eq(SyncCheckpoint::getSourceId, sourceId)
+                .eq(SyncCheckpoint::getConsumerName, consumerName)
+                .set(SyncCheckpoint::getLastEventId, lastEventId)
+                .update();
+
+        if (!updated) {
+            SyncCheckpoint checkpoint = new SyncCheckpoint();
+            checkpoint.setSourceId(sourceId);
+            checkpoint.setConsumerName(consumerName);
+            checkpoint.setLastEventId(lastEventId);
+            this.save(checkpoint);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import com.rubberhuman.dbsyncer.entity.sync.SyncDelivery;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface SyncDeliveryService extends IService<SyncDelivery> {
+    // 查询事件已送达的目标库：事件 ID -> 目标库 ID 集合，没有记录的事件不出现在结果中
+    Map<Long, Set<Long>> findDelivered(Long sourceId, Collection<Long> eventIds);
+
+    // 记录送达
+    void recordDelivered(List<SyncDelivery> deliveries);
+
+    // 事件全部送达（或被人工跳过）后清除其送达记录
+    void clear(Long sourceId, Collection<Long> eventIds);
+
+    // 清除早于指定时间的送达记录（对应的事件已不会再被自动重试）
+    int purgeBefore(LocalDateTime time);
+}
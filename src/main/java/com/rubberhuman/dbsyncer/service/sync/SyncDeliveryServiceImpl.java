@@ -0,0 +1,85 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.rubberhuman.dbsyncer.entity.sync.SyncDelivery;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncDeliveryMapper;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class SyncDeliveryServiceImpl extends ServiceImpl<SyncDeliveryMapper, SyncDelivery> implements SyncDeliveryService {
+
+    // IN (...) 单次最多包含的事件 ID 个数
+    private static final int IN_CHUNK_SIZE = 500;
+
+    // 各源库是否可能存在送达记录；绝大多数批次没有部分失败，据此省去每批一次的查询
+    private final Map<Long, Boolean> mayHaveDeliveries = new ConcurrentHashMap<>();
+
+    @Override
+    public Map<Long, Set<Long>> findDelivered(Long sourceId, Collection<Long> eventIds) {
+        Map<Long, Set<Long>> delivered = new HashMap<>();
+        if (eventIds.isEmpty() || !mayHaveDeliveries(sourceId)) {
+            return delivered;
+        }
+
+        List<Long> ids = new ArrayList<>(eventIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            List<SyncDelivery> rows = this.lambdaQuery()
+                    .eq(SyncDelivery::getSourceId, sourceId)
+                    .in(SyncDelivery::getEventId, ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())))
+                    .list();
+            for (SyncDelivery row : rows) {
+                delivered.computeIfAbsent(row.getEventId(), k -> new HashSet<>()).add(row.getTargetId());
+            }
+        }
+        return delivered;
+    }
+
+    @Override
+    public void recordDelivered(List<SyncDelivery> deliveries) {
+        if (deliveries.isEmpty()) {
+            return;
+        }
+        for (SyncDelivery delivery : deliveries) {
+            mayHaveDeliveries.put(delivery.getSourceId(), true);
+        }
+        this.saveBatch(deliveries);
+    }
+
+    @Override
+    public void clear(Long sourceId, Collection<Long> eventIds) {
+        if (eventIds.isEmpty() || !mayHaveDeliveries(sourceId)) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(eventIds);
+        for (int from = 0; from < ids.size(); from += IN_CHUNK_SIZE) {
+            this.lambdaUpdate()
+                    .eq(SyncDelivery::getSourceId, sourceId)
+                    .in(SyncDelivery::getEventId, ids.subList(from, Math.min(from + IN_CHUNK_SIZE, ids.size())))
+                    .remove();
+        }
+        // 删除后重新确认，没有剩余记录时后续批次不再查询
+        mayHaveDeliveries.remove(sourceId);
+    }
+
+    @Override
+    public int purgeBefore(LocalDateTime time) {
+        int removed = this.baseMapper.delete(Wrappers.<SyncDelivery>lambdaQuery().lt(SyncDelivery::getCreateTime, time));
+        mayHaveDeliveries.clear();
+        return removed;
+    }
+
+    private boolean mayHaveDeliveries(Long sourceId) {
+        return mayHaveDeliveries.computeIfAbsent(sourceId, id -> this.lambdaQuery().eq(SyncDelivery::getSourceId, id).exists());
+    }
+}
@@ -3,6 +3,7 @@ package com.rubberhuman.dbsyncer.service.sync;
 import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
 
 import java.util.List;
+import java.util.Map;
 
 public interface SyncEventService {
     List<SyncEvent> getUnprocessedList(Long sourceId, int batchSize);
@@ -11,6 +12,10 @@ public interface SyncEventService {
 
     void markFail(Long sourceId, Long eventId, String msg);
 
+    void markSuccessBatch(Long sourceId, List<Long> eventIds);
+
+    void markFailBatch(Long sourceId, Map<Long, String> failures);
+
     List<SyncEvent> getRecentLogs(Long sourceId);
 
     int resetFailedEventsInPast24Hours(Long sourceId);
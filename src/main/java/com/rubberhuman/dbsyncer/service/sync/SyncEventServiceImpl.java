@@ -7,7 +7,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class SyncEventServiceImpl implements SyncEventService {
@@ -30,11 +32,25 @@ public class SyncEventServiceImpl implements SyncEventService {
 
     // Task: 标记失败
     public void markFail(Long sourceId, Long eventId, String msg) {
-        // 防止太长存不进去
-        if (msg != null && msg.length() > 500) {
-            msg = msg.substring(0, 500) + "...";
+        syncEventMapper.updateStatusFail(sourceId, eventId, truncate(msg));
+    }
+
+    // Task: 批量标记成功
+    public void markSuccessBatch(Long sourceId, List<Long> eventIds) {
+        if (eventIds.isEmpty()) {
+            return;
+        }
+        syncEventMapper.updateStatusSuccessBatch(sourceId, eventIds);
+    }
+
+    // Task: 批量标记失败
+    public void markFailBatch(Long sourceId, Map<Long, String> failures) {
+        if (failures.isEmpty()) {
+            return;
         }
-        syncEventMapper.updateStatusFail(sourceId, eventId, msg);
+        Map<Long, String> truncated = new LinkedHashMap<>();
+        failures.forEach((id, msg) -> truncated.put(id, truncate(msg)));
+        syncEventMapper.updateStatusFailBatch(sourceId, truncated);
     }
 
     // Controller: 获取最近的同步日志
@@ -52,4 +68,12 @@ public class SyncEventServiceImpl implements SyncEventService {
 
         return jt.update(sql);
     }
+
+    // 防止太长存不进去
+    private String truncate(String msg) {
+        if (msg != null && msg.length() > 500) {
+            return msg.substring(0, 500) + "...";
+        }
+        return msg;
+    }
 }
@@ -1,16 +1,25 @@
 package com.rubberhuman.dbsyncer.util;
 
 import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
 import com.rubberhuman.dbsyncer.exception.BusinessException;
 import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 import org.springframework.stereotype.Component;
 
-import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @Slf4j
@@ -22,12 +31,38 @@ public class DynamicDbUtil {
     @Autowired
     private EncryptionUtil encryptionUtil;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Value("${dbsyncer.sync-worker.username}")
     private String syncUsername;
 
     @Value("${dbsyncer.sync-worker.password}")
     private String syncPassword;
 
+    // 连接池默认参数，数据源配置中未单独指定时使用
+    @Value("${dbsyncer.pool.max-size:10}")
+    private int defaultMaxPoolSize;
+
+    @Value("${dbsyncer.pool.min-idle:1}")
+    private int defaultMinIdle;
+
+    @Value("${dbsyncer.pool.connection-timeout-ms:10000}")
+    private long defaultConnectionTimeoutMs;
+
+    @Value("${dbsyncer.pool.idle-timeout-ms:600000}")
+    private long idleTimeoutMs;
+
+    // 连接池注册表：每个数据源按账号类型（同步账号 / 业务账号）各持有一个连接池
+    private final Map<PoolKey, HikariDataSource> pools = new ConcurrentHashMap<>();
+
+    private record PoolKey(Long sourceId, boolean isSync) {
+    }
+
+    // 建立连接所需的参数
+    private record ConnectionSpec(DataSourceConfig config, String url, String username, String password) {
+    }
+
     public JdbcTemplate getJdbcTemplate(Long sourceId) {
         return createJdbcTemplate(sourceId, false);
     }
@@ -36,23 +71,81 @@ public class DynamicDbUtil {
         return createJdbcTemplate(sourceId, true);
     }
 
+    // JdbcTemplate 本身很轻，每次新建一个，避免调用方 setMaxRows 等设置互相影响；底层连接池是共享的
     public JdbcTemplate createJdbcTemplate(Long sourceId, boolean isSync) {
+        return new JdbcTemplate(getDataSource(sourceId, isSync));
+    }
+
+    // 获取（必要时懒加载创建）连接池
+    public DataSource getDataSource(Long sourceId, boolean isSync) {
+        return pools.computeIfAbsent(new PoolKey(sourceId, isSync), this::createPool);
+    }
+
+    // 打开一个不经过连接池的专用连接（如 LISTEN 长连接），由调用方负责关闭
+    public Connection openDedicatedConnection(Long sourceId, boolean isSync) throws SQLException {
+        ConnectionSpec spec = resolveSpec(new PoolKey(sourceId, isSync));
+        return DriverManager.getConnection(spec.url(), spec.username(), spec.password());
+    }
+
+    // 关闭并移除该数据源的全部连接池，下次使用时按最新配置重建
+    public void evict(Long sourceId) {
+        pools.entrySet().removeIf(entry -> {
+            if (!entry.getKey().sourceId().equals(sourceId)) {
+                return false;
+            }
+            closeQuietly(entry.getValue());
+            return true;
+        });
+    }
+
+    @EventListener
+    public void onDataSourceChanged(DataSourceChangedEvent event) {
+        log.info("数据源 {} 配置已变更（启用={}），释放已缓存的连接池", event.getSourceId(), event.isEnabled());
+        evict(event.getSourceId());
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        pools.values().forEach(this::closeQuietly);
+        pools.clear();
+    }
+
+    private HikariDataSource createPool(PoolKey key) {
+        ConnectionSpec spec = resolveSpec(key);
+        DataSourceConfig config = spec.config();
+
+        // 使用无参构造：连接池在第一次 getConnection 时才真正启动
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("dbsyncer-" + key.sourceId() + (key.isSync() ? "-sync" : "-owner"));
+        dataSource.setDriverClassName(config.getDbType().getDriverClassName());
+        dataSource.setJdbcUrl(spec.url());
+        dataSource.setUsername(spec.username());
+        dataSource.setPassword(spec.password());
+        dataSource.setMaximumPoolSize(orDefault(config.getPoolMaxSize(), defaultMaxPoolSize));
+        dataSource.setMinimumIdle(Math.min(orDefault(config.getPoolMinIdle(), defaultMinIdle), dataSource.getMaximumPoolSize()));
+        dataSource.setConnectionTimeout(config.getPoolConnectionTimeoutMs() != null
+                ? config.getPoolConnectionTimeoutMs() : defaultConnectionTimeoutMs);
+        dataSource.setIdleTimeout(idleTimeoutMs);
+        // 连接池指标 (hikaricp.*，按 pool 标签区分)，包含连接获取耗时 hikaricp.connections.acquire；连接池关闭时随之注销
+        dataSource.setMetricRegistry(meterRegistry);
+
+        log.info("创建连接池 {}，URL: {}，最大连接数: {}", dataSource.getPoolName(), spec.url(), dataSource.getMaximumPoolSize());
+        return dataSource;
+    }
+
+    private ConnectionSpec resolveSpec(PoolKey key) {
         // 基础校验
-        DataSourceConfig config = dataSourceConfigService.getById(sourceId);
+        DataSourceConfig config = dataSourceConfigService.getById(key.sourceId());
         if (config == null) {
-            throw new BusinessException("数据源配置不存在: " + sourceId);
+            throw new BusinessException("数据源配置不存在: " + key.sourceId());
         }
 
-        String dbName = config.getDbName();
-
-        String url = config.getDbType().formatUrl(config.getHost(), config.getPort(), dbName);
-
-        log.info(">>> [Debug JDBC] SourceID={} URL: {}", sourceId, url);
+        String url = config.getDbType().formatUrl(config.getHost(), config.getPort(), config.getDbName());
 
         String username;
         String password;
 
-        if (isSync) {
+        if (key.isSync()) {
             username = syncUsername;
             password = syncPassword;
         } else {
@@ -65,13 +158,19 @@ public class DynamicDbUtil {
             }
         }
 
-        // 创建连接池
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
-        dataSource.setDriverClassName(config.getDbType().getDriverClassName());
-        dataSource.setUrl(url);
-        dataSource.setUsername(username);
-        dataSource.setPassword(password);
+        return new ConnectionSpec(config, url, username, password);
+    }
+
+    private int orDefault(Integer value, int defaultValue) {
+        return (value != null && value > 0) ? value : defaultValue;
+    }
 
-        return new JdbcTemplate(dataSource);
+    private void closeQuietly(HikariDataSource dataSource) {
+        try {
+            dataSource.close();
+            log.info("连接池 {} 已关闭", dataSource.getPoolName());
+        } catch (Exception e) {
+            log.warn("关闭连接池 {} 失败: {}", dataSource.getPoolName(), e.getMessage());
+        }
     }
 }
@@ -0,0 +1,27 @@
+package com.rubberhuman.dbsyncer.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// 解析触发器写入 sync_event.payload 的行镜像 (JSON)
+public class RowImageUtil {
+
+    // 小数按 BigDecimal 解析，避免精度丢失
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    // 返回列名不区分大小写的行数据，与 JdbcTemplate.queryForList 回查结果保持一致
+    public static Map<String, Object> parse(String payload) throws Exception {
+        Map<String, Object> row = new LinkedCaseInsensitiveMap<>();
+        row.putAll(MAPPER.readValue(payload, ROW_TYPE));
+        return row;
+    }
+}
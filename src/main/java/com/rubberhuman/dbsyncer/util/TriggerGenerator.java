@@ -1,12 +1,17 @@
 package com.rubberhuman.dbsyncer.util;
 
 import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.TriggerMode;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.create.table.ColumnDefinition;
 import net.sf.jsqlparser.statement.create.table.CreateTable;
 import net.sf.jsqlparser.statement.create.table.Index;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
 
 public class TriggerGenerator {
 
@@ -16,12 +21,19 @@ public class TriggerGenerator {
     // 版本号字段名称
     private static final String VERSION_COL = "sync_version";
 
+    // PostgreSQL 新事件通知频道，同步引擎 LISTEN 该频道以便及时拉取
+    public static final String PG_NOTIFY_CHANNEL = "dbsyncer_sync_event";
+
     public static String generate(String ddlSql, DatabaseType dbType) {
+        return generate(ddlSql, dbType, new TriggerOptions());
+    }
+
+    public static String generate(String ddlSql, DatabaseType dbType, TriggerOptions options) {
         StringBuilder result = new StringBuilder();
 
         try {
             if (dbType == DatabaseType.POSTGRESQL) {
-                result.append(getPostgresFunction()).append("\n\n");
+                result.append(getPostgresFunction(options)).append("\n\n");
             }
 
             // 解析 SQL 语句
@@ -36,8 +48,12 @@ public class TriggerGenerator {
                         String tableName = createTable.getTable().getName().replace("`", "").replace("\"", "");
                         String pkColumn = findPrimaryKey(createTable);
 
-                        if (pkColumn != null) {
-                            result.append(buildTriggerSql(tableName, pkColumn, dbType));
+                        if (pkColumn != null && dbType == DatabaseType.SQL_SERVER
+                                && options.getMode() == TriggerMode.INSTEAD_OF && hasIdentityColumn(createTable)) {
+                            // INSTEAD OF INSERT 需要重新插入 inserted 中的所有列，与 IDENTITY 列冲突
+                            result.append("-- [WARN] 表 ").append(tableName).append(" 含 IDENTITY 列，不支持替代触发器，请使用默认模式\n");
+                        } else if (pkColumn != null) {
+                            result.append(buildTriggerSql(tableName, pkColumn, dbType, listColumns(createTable), options));
                             result.append("\n\n");
                         } else {
                             result.append("-- [WARN] 表 ").append(tableName).append(" 未找到主键，无法生成触发器\n");
@@ -83,23 +99,70 @@ public class TriggerGenerator {
     }
 
 
-    private static String buildTriggerSql(String tableName, String pkCol, DatabaseType dbType) {
+    private static List<String> listColumns(CreateTable createTable) {
+        List<String> columns = new ArrayList<>();
+        if (createTable.getColumnDefinitions() != null) {
+            for (ColumnDefinition col : createTable.getColumnDefinitions()) {
+                columns.add(col.getColumnName().replace("`", "").replace("\"", ""));
+            }
+        }
+        return columns;
+    }
+
+    private static boolean hasIdentityColumn(CreateTable createTable) {
+        if (createTable.getColumnDefinitions() == null) {
+            return false;
+        }
+        return createTable.getColumnDefinitions().stream()
+                .anyMatch(col -> col.getColumnSpecs() != null
+                        && col.getColumnSpecs().toString().toUpperCase().contains("IDENTITY"));
+    }
+
+    // 参与变更比较的列：版本号列每次 UPDATE 都会变化，不参与比较
+    private static List<String> comparableColumns(List<String> columns) {
+        return columns.stream().filter(col -> !col.equalsIgnoreCase(VERSION_COL)).toList();
+    }
+
+    // 标准 SQL 的 NULL 安全比较（Oracle / SQL Server 没有 IS DISTINCT FROM）
+    private static String nullSafeDiff(String a, String b) {
+        return "(" + a + " <> " + b + " OR (" + a + " IS NULL AND " + b + " IS NOT NULL) OR (" + a + " IS NOT NULL AND " + b + " IS NULL))";
+    }
+
+    private static String buildTriggerSql(String tableName, String pkCol, DatabaseType dbType, List<String> columns, TriggerOptions options) {
         switch (dbType) {
             case MYSQL:
-                return buildMysql(tableName, pkCol);
+                return buildMysql(tableName, pkCol, columns, options);
             case ORACLE:
-                return buildOracle(tableName, pkCol);
+                return buildOracle(tableName, pkCol, columns, options);
             case POSTGRESQL:
-                return buildPostgres(tableName, pkCol);
+                return buildPostgres(tableName, pkCol, columns, options);
             case SQL_SERVER:
-                return buildSqlServer(tableName, pkCol);
+                return buildSqlServer(tableName, pkCol, columns, options);
             default:
                 return "-- 不支持的数据库类型: " + dbType.getDescription();
         }
     }
 
     // === MySQL 模板===
-    private static String buildMysql(String table, String pk) {
+    private static String buildMysql(String table, String pk, List<String> columns, TriggerOptions options) {
+        // 行镜像：JSON_OBJECT('col', NEW.col, ...)
+        String payloadCol = options.isCaptureRowImage() ? ", payload" : "";
+        String payloadVal = options.isCaptureRowImage()
+                ? ", JSON_OBJECT(" + columns.stream().map(c -> "'" + c + "', NEW." + c).collect(Collectors.joining(", ")) + ")"
+                : "";
+
+        // 变更列：<=> 为 NULL 安全比较，CONCAT_WS 会跳过 NULL；没有列变化时不记录事件
+        boolean changed = options.isCaptureChangedColumns();
+        String changedDeclare = changed ? "    DECLARE v_changed VARCHAR(4000); \n" : "";
+        String changedCompute = changed
+                ? "        SET v_changed = CONCAT_WS(','" + comparableColumns(columns).stream()
+                .map(c -> ", IF(NOT (OLD." + c + " <=> NEW." + c + "), '" + c + "', NULL)").collect(Collectors.joining()) + "); \n" +
+                "        IF v_changed <> '' THEN \n"
+                : "";
+        String changedEnd = changed ? "        END IF; \n" : "";
+        String changedCol = changed ? ", changed_columns" : "";
+        String changedVal = changed ? ", v_changed" : "";
+
         String tpl = "DELIMITER $$\n" +
                 "-- [MySQL] %1$s 乐观锁触发器 \n" +
                 "DROP TRIGGER IF EXISTS trg_%1$s_before_update $$ \n" +
@@ -113,16 +176,19 @@ public class TriggerGenerator {
                 "DROP TRIGGER IF EXISTS trg_%1$s_insert $$ \n" +
                 "CREATE TRIGGER trg_%1$s_insert AFTER INSERT ON %1$s FOR EACH ROW BEGIN \n" +
                 "    IF SUBSTRING_INDEX(USER(),'@',1) != '" + SYNC_USER + "' THEN \n" +
-                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "        VALUES ('%1$s', 'INSERT', '%2$s', CAST(NEW.%2$s AS CHAR), 0, NOW(), 'MYSQL', NEW." + VERSION_COL + "); \n" +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + ") \n" +
+                "        VALUES ('%1$s', 'INSERT', '%2$s', CAST(NEW.%2$s AS CHAR), 0, NOW(), 'MYSQL', NEW." + VERSION_COL + payloadVal + "); \n" +
                 "    END IF; \n" +
                 "END $$ \n\n" +
 
                 "DROP TRIGGER IF EXISTS trg_%1$s_update $$ \n" +
                 "CREATE TRIGGER trg_%1$s_update AFTER UPDATE ON %1$s FOR EACH ROW BEGIN \n" +
+                changedDeclare +
                 "    IF SUBSTRING_INDEX(USER(),'@',1) != '" + SYNC_USER + "' THEN \n" +
-                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "        VALUES ('%1$s', 'UPDATE', '%2$s', CAST(NEW.%2$s AS CHAR), 0, NOW(), 'MYSQL', NEW." + VERSION_COL + "); \n" +
+                changedCompute +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + changedCol + ") \n" +
+                "        VALUES ('%1$s', 'UPDATE', '%2$s', CAST(NEW.%2$s AS CHAR), 0, NOW(), 'MYSQL', NEW." + VERSION_COL + payloadVal + changedVal + "); \n" +
+                changedEnd +
                 "    END IF; \n" +
                 "END $$ \n\n" +
 
@@ -138,7 +204,30 @@ public class TriggerGenerator {
     }
 
     // === Oracle 模板 ===
-    private static String buildOracle(String table, String pk) {
+    private static String buildOracle(String table, String pk, List<String> columns, TriggerOptions options) {
+        if (options.getMode() == TriggerMode.STATEMENT) {
+            return buildOracleCompound(table, pk, columns, options);
+        }
+        // 行镜像：JSON_OBJECT('col' VALUE :NEW.col, ...)（Oracle 12.2+）
+        boolean rowImage = options.isCaptureRowImage();
+        String payloadCol = rowImage ? ", payload" : "";
+        String payloadVar = rowImage ? ", v_payload" : "";
+        String payloadSet = rowImage
+                ? " SELECT JSON_OBJECT(" + columns.stream().map(c -> "'" + c + "' VALUE :NEW." + c).collect(Collectors.joining(", "))
+                + " RETURNING CLOB) INTO v_payload FROM DUAL;"
+                : "";
+
+        // 变更列：逐列比较新旧值（LOB 列不支持 <> 比较，需从 DDL 中排除）；没有列变化的 UPDATE 不记录事件
+        boolean changed = options.isCaptureChangedColumns();
+        String changedCol = changed ? ", changed_columns" : "";
+        String changedVar = changed ? ", v_changed" : "";
+        String changedSet = changed
+                ? comparableColumns(columns).stream()
+                .map(c -> "            IF " + nullSafeDiff(":OLD." + c, ":NEW." + c) + " THEN v_changed := v_changed || '," + c + "'; END IF; \n")
+                .collect(Collectors.joining()) +
+                "            v_changed := LTRIM(v_changed, ','); \n"
+                : "";
+
         // Oracle 不能在同一个触发器里既修改 :NEW 又做日志（容易变异表报错），建议分开
         String tpl = "-- [Oracle] %1$s 版本维护 (BEFORE UPDATE) \n" +
                 "CREATE OR REPLACE TRIGGER trg_%1$s_ver \n" +
@@ -161,27 +250,133 @@ public class TriggerGenerator {
                 "    v_pk VARCHAR2(255); \n" +
                 "    v_ver NUMBER; \n" +
                 "    v_user VARCHAR2(50); \n" +
+                (rowImage ? "    v_payload CLOB; \n" : "") +
+                (changed ? "    v_changed VARCHAR2(4000); \n" : "") +
                 "BEGIN \n" +
                 "    SELECT SYS_CONTEXT('USERENV', 'SESSION_USER') INTO v_user FROM DUAL; \n" +
                 "    IF v_user != UPPER('" + SYNC_USER + "') THEN \n" +
                 "        IF INSERTING THEN \n" +
-                "            v_op := 'INSERT'; v_pk := TO_CHAR(:NEW.%2$s); v_ver := :NEW." + VERSION_COL + "; \n" +
+                "            v_op := 'INSERT'; v_pk := TO_CHAR(:NEW.%2$s); v_ver := :NEW." + VERSION_COL + ";" + payloadSet + " \n" +
                 "        ELSIF UPDATING THEN \n" +
-                "            v_op := 'UPDATE'; v_pk := TO_CHAR(:NEW.%2$s); v_ver := :NEW." + VERSION_COL + "; \n" +
+                "            v_op := 'UPDATE'; v_pk := TO_CHAR(:NEW.%2$s); v_ver := :NEW." + VERSION_COL + ";" + payloadSet + " \n" +
+                changedSet +
                 "        ELSIF DELETING THEN \n" +
                 "            v_op := 'DELETE'; v_pk := TO_CHAR(:OLD.%2$s); v_ver := :OLD." + VERSION_COL + "; \n" +
                 "        END IF; \n" +
-                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "        VALUES ('%1$s', v_op, '%2$s', v_pk, 0, SYSDATE, 'ORACLE', v_ver); \n" +
+                (changed ? "        IF v_op <> 'UPDATE' OR v_changed IS NOT NULL THEN \n" : "") +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + changedCol + ") \n" +
+                "        VALUES ('%1$s', v_op, '%2$s', v_pk, 0, SYSDATE, 'ORACLE', v_ver" + payloadVar + changedVar + "); \n" +
+                (changed ? "        END IF; \n" : "") +
                 "    END IF; \n" +
                 "END; \n" +
                 "/";
         return String.format(tpl, table, pk);
     }
 
+    // 复合触发器：每条语句只读取一次会话用户，逐行事件先收集到集合中，语句结束时 FORALL 批量写入
+    // 复合触发器与行级日志触发器同名（trg_<t>_sync），CREATE OR REPLACE 可在两种形式间切换；版本维护并入 BEFORE EACH ROW，需删除单独的 trg_<t>_ver
+    private static String buildOracleCompound(String table, String pk, List<String> columns, TriggerOptions options) {
+        boolean rowImage = options.isCaptureRowImage();
+        boolean changed = options.isCaptureChangedColumns();
+        String payloadCol = rowImage ? ", payload" : "";
+        String payloadVal = rowImage ? ", g_events(i).payload" : "";
+        String changedCol = changed ? ", changed_columns" : "";
+        String changedVal = changed ? ", g_events(i).changed_columns" : "";
+
+        String payloadSet = rowImage
+                ? "            SELECT JSON_OBJECT(" + columns.stream().map(c -> "'" + c + "' VALUE :NEW." + c).collect(Collectors.joining(", "))
+                + " RETURNING CLOB) INTO v_event.payload FROM DUAL; \n"
+                : "";
+        String changedSet = changed
+                ? comparableColumns(columns).stream()
+                .map(c -> "            IF " + nullSafeDiff(":OLD." + c, ":NEW." + c) + " THEN v_event.changed_columns := v_event.changed_columns || '," + c + "'; END IF; \n")
+                .collect(Collectors.joining()) +
+                "            v_event.changed_columns := LTRIM(v_event.changed_columns, ','); \n"
+                : "";
+
+        String tpl = "-- [Oracle] %1$s 版本维护已并入复合触发器，删除行级版本触发器 \n" +
+                "BEGIN \n" +
+                "    EXECUTE IMMEDIATE 'DROP TRIGGER trg_%1$s_ver'; \n" +
+                "EXCEPTION \n" +
+                "    WHEN OTHERS THEN \n" +
+                "        IF SQLCODE != -04080 THEN RAISE; END IF; \n" +
+                "END; \n" +
+                "/ \n\n" +
+
+                "-- [Oracle] %1$s 版本维护 + 同步日志 (复合触发器) \n" +
+                "CREATE OR REPLACE TRIGGER trg_%1$s_sync \n" +
+                "FOR INSERT OR UPDATE OR DELETE ON %1$s \n" +
+                "COMPOUND TRIGGER \n" +
+                "    -- 单条语句影响行数很大时分批写入，限制集合占用的内存 \n" +
+                "    c_flush_size CONSTANT PLS_INTEGER := 1000; \n" +
+                "    TYPE t_event IS RECORD ( \n" +
+                "        op_type VARCHAR2(10), \n" +
+                "        pk_value VARCHAR2(255), \n" +
+                "        data_version NUMBER" +
+                (rowImage ? ", \n        payload CLOB" : "") +
+                (changed ? ", \n        changed_columns VARCHAR2(4000)" : "") + " \n" +
+                "    ); \n" +
+                "    TYPE t_events IS TABLE OF t_event INDEX BY PLS_INTEGER; \n" +
+                "    g_events t_events; \n" +
+                "    g_skip BOOLEAN; \n" +
+                "\n" +
+                "    PROCEDURE flush IS \n" +
+                "    BEGIN \n" +
+                "        FORALL i IN 1 .. g_events.COUNT \n" +
+                "            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + changedCol + ") \n" +
+                "            VALUES ('%1$s', g_events(i).op_type, '%2$s', g_events(i).pk_value, 0, SYSDATE, 'ORACLE', g_events(i).data_version" + payloadVal + changedVal + "); \n" +
+                "        g_events.DELETE; \n" +
+                "    END flush; \n" +
+                "\n" +
+                "BEFORE STATEMENT IS \n" +
+                "BEGIN \n" +
+                "    g_skip := SYS_CONTEXT('USERENV', 'SESSION_USER') = UPPER('" + SYNC_USER + "'); \n" +
+                "    g_events.DELETE; \n" +
+                "END BEFORE STATEMENT; \n" +
+                "\n" +
+                "BEFORE EACH ROW IS \n" +
+                "BEGIN \n" +
+                "    IF UPDATING AND NOT g_skip THEN \n" +
+                "        :NEW." + VERSION_COL + " := :OLD." + VERSION_COL + " + 1; \n" +
+                "    END IF; \n" +
+                "END BEFORE EACH ROW; \n" +
+                "\n" +
+                "AFTER EACH ROW IS \n" +
+                "    v_event t_event; \n" +
+                "BEGIN \n" +
+                "    IF NOT g_skip THEN \n" +
+                "        IF INSERTING THEN \n" +
+                "            v_event.op_type := 'INSERT'; v_event.pk_value := TO_CHAR(:NEW.%2$s); v_event.data_version := :NEW." + VERSION_COL + "; \n" +
+                payloadSet +
+                "        ELSIF UPDATING THEN \n" +
+                "            v_event.op_type := 'UPDATE'; v_event.pk_value := TO_CHAR(:NEW.%2$s); v_event.data_version := :NEW." + VERSION_COL + "; \n" +
+                payloadSet +
+                changedSet +
+                "        ELSE \n" +
+                "            v_event.op_type := 'DELETE'; v_event.pk_value := TO_CHAR(:OLD.%2$s); v_event.data_version := :OLD." + VERSION_COL + "; \n" +
+                "        END IF; \n" +
+                (changed ? "        IF v_event.op_type <> 'UPDATE' OR v_event.changed_columns IS NOT NULL THEN \n" : "") +
+                "        g_events(g_events.COUNT + 1) := v_event; \n" +
+                (changed ? "        END IF; \n" : "") +
+                "        IF g_events.COUNT >= c_flush_size THEN \n" +
+                "            flush; \n" +
+                "        END IF; \n" +
+                "    END IF; \n" +
+                "END AFTER EACH ROW; \n" +
+                "\n" +
+                "AFTER STATEMENT IS \n" +
+                "BEGIN \n" +
+                "    flush; \n" +
+                "END AFTER STATEMENT; \n" +
+                "END trg_%1$s_sync; \n" +
+                "/";
+        return String.format(tpl, table, pk);
+    }
+
     // === PostgreSQL 模板===
-    private static String getPostgresFunction() {
-        return "-- [PG] 1. 通用版本自增函数 \n" +
+    // 版本自增函数各表共用（静态引用 sync_version）；通用日志函数只在 GENERIC 模式下生成
+    private static String getPostgresFunction(TriggerOptions options) {
+        String versionFunction = "-- [PG] 1. 通用版本自增函数 \n" +
                 "CREATE OR REPLACE FUNCTION increment_version() RETURNS TRIGGER AS $$\n" +
                 "BEGIN\n" +
                 "    IF CURRENT_USER != '" + SYNC_USER + "' THEN\n" +
@@ -189,7 +384,21 @@ public class TriggerGenerator {
                 "    END IF;\n" +
                 "    RETURN NEW;\n" +
                 "END;\n" +
-                "$$ LANGUAGE plpgsql;\n\n" +
+                "$$ LANGUAGE plpgsql;";
+        if (options.getMode() != TriggerMode.GENERIC) {
+            return versionFunction;
+        }
+        return versionFunction + "\n\n" + getPostgresGenericFunction(options);
+    }
+
+    // 通用函数通过触发器参数按表开启可选功能：'ROW_IMAGE' 用 row_to_json(NEW) 记录行镜像，
+    // 'CHANGED_COLUMNS' 用 jsonb 逐列比较新旧值记录变更列（没有列变化的 UPDATE 不记录事件）
+    private static String getPostgresGenericFunction(TriggerOptions options) {
+        boolean captureRowImage = options.isCaptureRowImage();
+        boolean changed = options.isCaptureChangedColumns();
+        String payloadCol = (captureRowImage ? ", payload" : "") + (changed ? ", changed_columns" : "");
+        String payloadVal = (captureRowImage ? ", row_image" : "") + (changed ? ", changed_cols" : "");
+        return "" +
 
                 "-- [PG] 2. 通用日志记录函数 \n" +
                 "CREATE OR REPLACE FUNCTION notify_sync_event() RETURNS TRIGGER AS $$\n" +
@@ -197,6 +406,9 @@ public class TriggerGenerator {
                 "    current_pk_value VARCHAR;\n" +
                 "    current_version BIGINT;\n" +
                 "    pk_col_name VARCHAR;\n" +
+                "    new_event_id BIGINT;\n" +
+                (captureRowImage ? "    row_image TEXT;\n" : "") +
+                (changed ? "    changed_cols TEXT;\n" : "") +
                 "BEGIN\n" +
                 "    IF CURRENT_USER = '" + SYNC_USER + "' THEN RETURN NULL; END IF;\n" +
                 "    pk_col_name := TG_ARGV[0];\n" +
@@ -209,36 +421,223 @@ public class TriggerGenerator {
                 "        EXECUTE 'SELECT $1.' || pk_col_name USING NEW INTO current_pk_value;\n" +
                 "        -- INSERT/UPDATE 时记录新版本号 \n" +
                 "        EXECUTE 'SELECT $1." + VERSION_COL + "' USING NEW INTO current_version;\n" +
+                (captureRowImage
+                        ? "        IF 'ROW_IMAGE' = ANY(TG_ARGV) THEN row_image := row_to_json(NEW)::TEXT; END IF;\n"
+                        : "") +
+                (changed
+                        ? "        IF TG_OP = 'UPDATE' AND 'CHANGED_COLUMNS' = ANY(TG_ARGV) THEN\n" +
+                        "            SELECT string_agg(n.key, ',') INTO changed_cols\n" +
+                        "            FROM jsonb_each(to_jsonb(NEW)) n JOIN jsonb_each(to_jsonb(OLD)) o ON o.key = n.key\n" +
+                        "            WHERE n.value IS DISTINCT FROM o.value AND n.key <> '" + VERSION_COL + "';\n" +
+                        "            IF changed_cols IS NULL THEN RETURN NULL; END IF;\n" +
+                        "        END IF;\n"
+                        : "") +
                 "    END IF;\n" +
                 "    \n" +
-                "    INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "    VALUES (TG_TABLE_NAME, TG_OP, pk_col_name, current_pk_value, 0, NOW(), 'POSTGRESQL', current_version);\n" +
+                "    INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + ") \n" +
+                "    VALUES (TG_TABLE_NAME, TG_OP, pk_col_name, current_pk_value, 0, NOW(), 'POSTGRESQL', current_version" + payloadVal + ")\n" +
+                "    RETURNING id INTO new_event_id;\n" +
+                "    -- 通知同步引擎有新事件（事务提交后才会送达） \n" +
+                "    PERFORM pg_notify('" + PG_NOTIFY_CHANNEL + "', new_event_id::TEXT);\n" +
                 "    RETURN NULL;\n" +
                 "END;\n" +
                 "$$ LANGUAGE plpgsql;";
     }
 
-    private static String buildPostgres(String table, String pk) {
+    private static String buildPostgres(String table, String pk, List<String> columns, TriggerOptions options) {
+        switch (options.getMode()) {
+            case STATEMENT:
+                return buildPostgresStatement(table, pk, columns, options);
+            case PER_TABLE:
+                return buildPostgresPerTable(table, pk, columns, options);
+            default:
+                return buildPostgresGeneric(table, pk, options);
+        }
+    }
+
+    private static String buildPostgresGeneric(String table, String pk, TriggerOptions options) {
+        String args = "'%2$s'"
+                + (options.isCaptureRowImage() ? ", 'ROW_IMAGE'" : "")
+                + (options.isCaptureChangedColumns() ? ", 'CHANGED_COLUMNS'" : "");
         String tpl = "-- %1$s 触发器绑定 (PostgreSQL)\n" +
                 // 1. 绑定版本自增 (BEFORE UPDATE)
                 "DROP TRIGGER IF EXISTS trg_%1$s_ver ON %1$s;\n" +
                 "CREATE TRIGGER trg_%1$s_ver BEFORE UPDATE ON %1$s \n" +
                 "FOR EACH ROW EXECUTE FUNCTION increment_version();\n\n" +
                 // 2. 绑定日志记录 (AFTER I/U/D)
-                "DROP TRIGGER IF EXISTS trg_%1$s_sync ON %1$s;\n" +
+                dropPostgresSyncTriggers() +
                 "CREATE TRIGGER trg_%1$s_sync AFTER INSERT OR UPDATE OR DELETE ON %1$s \n" +
-                "FOR EACH ROW EXECUTE FUNCTION notify_sync_event('%2$s');";
+                "FOR EACH ROW EXECUTE FUNCTION notify_sync_event(" + args + ");";
         return String.format(tpl, table, pk);
     }
 
+    // 按表生成的行级函数：静态引用 NEW.<pk> / NEW.sync_version，不再逐行动态 EXECUTE
+    private static String buildPostgresPerTable(String table, String pk, List<String> columns, TriggerOptions options) {
+        boolean rowImage = options.isCaptureRowImage();
+        boolean changed = options.isCaptureChangedColumns();
+        String extraCols = (rowImage ? ", payload" : "") + (changed ? ", changed_columns" : "");
+        String extraVals = (rowImage ? ", row_to_json(NEW)::TEXT" : "") + (changed ? ", changed_cols" : "");
+        String deleteExtraVals = (rowImage ? ", NULL" : "") + (changed ? ", NULL" : "");
+
+        String tpl = "-- [PG] %1$s 专用日志记录函数 \n" +
+                "CREATE OR REPLACE FUNCTION notify_sync_event_%1$s() RETURNS TRIGGER AS $$\n" +
+                "DECLARE\n" +
+                "    new_event_id BIGINT;\n" +
+                (changed ? "    changed_cols TEXT;\n" : "") +
+                "BEGIN\n" +
+                "    IF CURRENT_USER = '" + SYNC_USER + "' THEN RETURN NULL; END IF;\n" +
+                "    \n" +
+                "    IF (TG_OP = 'DELETE') THEN\n" +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + extraCols + ") \n" +
+                "        VALUES ('%1$s', 'DELETE', '%2$s', OLD.%2$s::TEXT, 0, NOW(), 'POSTGRESQL', OLD." + VERSION_COL + deleteExtraVals + ")\n" +
+                "        RETURNING id INTO new_event_id;\n" +
+                "    ELSE\n" +
+                (changed
+                        ? "        IF TG_OP = 'UPDATE' THEN\n" +
+                        "            changed_cols := " + postgresChangedColumns(columns, "NEW", "OLD") + ";\n" +
+                        "            IF changed_cols IS NULL THEN RETURN NULL; END IF;\n" +
+                        "        END IF;\n"
+                        : "") +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + extraCols + ") \n" +
+                "        VALUES ('%1$s', TG_OP, '%2$s', NEW.%2$s::TEXT, 0, NOW(), 'POSTGRESQL', NEW." + VERSION_COL + extraVals + ")\n" +
+                "        RETURNING id INTO new_event_id;\n" +
+                "    END IF;\n" +
+                "    -- 通知同步引擎有新事件（事务提交后才会送达） \n" +
+                "    PERFORM pg_notify('" + PG_NOTIFY_CHANNEL + "', new_event_id::TEXT);\n" +
+                "    RETURN NULL;\n" +
+                "END;\n" +
+                "$$ LANGUAGE plpgsql;\n\n" +
+
+                "-- %1$s 触发器绑定 (PostgreSQL)\n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_ver ON %1$s;\n" +
+                "CREATE TRIGGER trg_%1$s_ver BEFORE UPDATE ON %1$s \n" +
+                "FOR EACH ROW EXECUTE FUNCTION increment_version();\n\n" +
+                dropPostgresSyncTriggers() +
+                "CREATE TRIGGER trg_%1$s_sync AFTER INSERT OR UPDATE OR DELETE ON %1$s \n" +
+                "FOR EACH ROW EXECUTE FUNCTION notify_sync_event_%1$s();";
+        return String.format(tpl, table, pk);
+    }
+
+    // 语句级：转换表 (PostgreSQL 10+) 一次拿到本条语句影响的所有行，一条 INSERT ... SELECT 写入全部事件，每条语句只通知一次
+    // 转换表触发器只能绑定单一事件，因此 INSERT / UPDATE / DELETE 各一个触发器，共用一个函数；
+    // UPDATE 通过主键关联新旧行，修改了主键的行不会记录事件
+    private static String buildPostgresStatement(String table, String pk, List<String> columns, TriggerOptions options) {
+        boolean rowImage = options.isCaptureRowImage();
+        boolean changed = options.isCaptureChangedColumns();
+        String extraCols = (rowImage ? ", payload" : "") + (changed ? ", changed_columns" : "");
+        String insertExtraVals = (rowImage ? ", row_to_json(n)::TEXT" : "") + (changed ? ", NULL" : "");
+        String updateExtraVals = (rowImage ? ", row_to_json(n)::TEXT" : "") + (changed ? ", c.changed_cols" : "");
+        String deleteExtraVals = (rowImage ? ", NULL" : "") + (changed ? ", NULL" : "");
+        String eventCols = "table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + extraCols;
+
+        String tpl = "-- [PG] %1$s 语句级日志记录函数 \n" +
+                "CREATE OR REPLACE FUNCTION notify_sync_event_%1$s_stmt() RETURNS TRIGGER AS $$\n" +
+                "DECLARE\n" +
+                "    last_event_id BIGINT;\n" +
+                "BEGIN\n" +
+                "    IF CURRENT_USER = '" + SYNC_USER + "' THEN RETURN NULL; END IF;\n" +
+                "    \n" +
+                "    IF (TG_OP = 'INSERT') THEN\n" +
+                "        WITH ins AS (\n" +
+                "            INSERT INTO sync_event (" + eventCols + ") \n" +
+                "            SELECT '%1$s', 'INSERT', '%2$s', n.%2$s::TEXT, 0, NOW(), 'POSTGRESQL', n." + VERSION_COL + insertExtraVals + " FROM new_rows n\n" +
+                "            RETURNING id)\n" +
+                "        SELECT MAX(id) INTO last_event_id FROM ins;\n" +
+                "    ELSIF (TG_OP = 'UPDATE') THEN\n" +
+                "        WITH ins AS (\n" +
+                "            INSERT INTO sync_event (" + eventCols + ") \n" +
+                "            SELECT '%1$s', 'UPDATE', '%2$s', n.%2$s::TEXT, 0, NOW(), 'POSTGRESQL', n." + VERSION_COL + updateExtraVals + "\n" +
+                "            FROM new_rows n JOIN old_rows o ON o.%2$s = n.%2$s\n" +
+                (changed
+                        ? "            CROSS JOIN LATERAL (SELECT " + postgresChangedColumns(columns, "n", "o") + " AS changed_cols) c\n" +
+                        "            WHERE c.changed_cols IS NOT NULL\n"
+                        : "") +
+                "            RETURNING id)\n" +
+                "        SELECT MAX(id) INTO last_event_id FROM ins;\n" +
+                "    ELSE\n" +
+                "        WITH ins AS (\n" +
+                "            INSERT INTO sync_event (" + eventCols + ") \n" +
+                "            SELECT '%1$s', 'DELETE', '%2$s', o.%2$s::TEXT, 0, NOW(), 'POSTGRESQL', o." + VERSION_COL + deleteExtraVals + " FROM old_rows o\n" +
+                "            RETURNING id)\n" +
+                "        SELECT MAX(id) INTO last_event_id FROM ins;\n" +
+                "    END IF;\n" +
+                "    \n" +
+                "    IF last_event_id IS NOT NULL THEN\n" +
+                "        PERFORM pg_notify('" + PG_NOTIFY_CHANNEL + "', last_event_id::TEXT);\n" +
+                "    END IF;\n" +
+                "    RETURN NULL;\n" +
+                "END;\n" +
+                "$$ LANGUAGE plpgsql;\n\n" +
+
+                "-- %1$s 触发器绑定 (PostgreSQL，语句级)\n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_ver ON %1$s;\n" +
+                "CREATE TRIGGER trg_%1$s_ver BEFORE UPDATE ON %1$s \n" +
+                "FOR EACH ROW EXECUTE FUNCTION increment_version();\n\n" +
+                dropPostgresSyncTriggers() +
+                "CREATE TRIGGER trg_%1$s_sync_ins AFTER INSERT ON %1$s \n" +
+                "REFERENCING NEW TABLE AS new_rows \n" +
+                "FOR EACH STATEMENT EXECUTE FUNCTION notify_sync_event_%1$s_stmt();\n" +
+                "CREATE TRIGGER trg_%1$s_sync_upd AFTER UPDATE ON %1$s \n" +
+                "REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows \n" +
+                "FOR EACH STATEMENT EXECUTE FUNCTION notify_sync_event_%1$s_stmt();\n" +
+                "CREATE TRIGGER trg_%1$s_sync_del AFTER DELETE ON %1$s \n" +
+                "REFERENCING OLD TABLE AS old_rows \n" +
+                "FOR EACH STATEMENT EXECUTE FUNCTION notify_sync_event_%1$s_stmt();";
+        return String.format(tpl, table, pk);
+    }
+
+    // 切换触发器形式时先删除所有形式的日志触发器，避免同一行记录两次事件
+    private static String dropPostgresSyncTriggers() {
+        return "DROP TRIGGER IF EXISTS trg_%1$s_sync ON %1$s;\n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_sync_ins ON %1$s;\n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_sync_upd ON %1$s;\n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_sync_del ON %1$s;\n";
+    }
+
+    // 静态逐列比较的变更列表达式，没有列变化时为 NULL
+    private static String postgresChangedColumns(List<String> columns, String newAlias, String oldAlias) {
+        return "NULLIF(CONCAT_WS(','" + comparableColumns(columns).stream()
+                .map(c -> ", CASE WHEN " + newAlias + "." + c + " IS DISTINCT FROM " + oldAlias + "." + c + " THEN '" + c + "' END")
+                .collect(Collectors.joining()) + "), '')";
+    }
+
     // === SQL Server 模板  ===
-    private static String buildSqlServer(String table, String pk) {
+    private static String buildSqlServer(String table, String pk, List<String> columns, TriggerOptions options) {
+        // 行镜像：FOR JSON 序列化整行；UPDATE 取版本号自增后的表中数据（SQL Server 2016+）
+        boolean captureRowImage = options.isCaptureRowImage();
+        String payloadCol = captureRowImage ? ", payload" : "";
+        String updatePayload = captureRowImage
+                ? ", (SELECT t2.* FROM %1$s t2 WHERE t2.%2$s = i.%2$s FOR JSON PATH, WITHOUT_ARRAY_WRAPPER, INCLUDE_NULL_VALUES)"
+                : "";
+        String insertPayload = captureRowImage
+                ? ", (SELECT i2.* FROM inserted i2 WHERE i2.%2$s = i.%2$s FOR JSON PATH, WITHOUT_ARRAY_WRAPPER, INCLUDE_NULL_VALUES)"
+                : "";
+
+        // 变更列：逐列比较 inserted / deleted（text/ntext/image 列不支持比较，需从 DDL 中排除）；
+        // STUFF 去掉开头的逗号，没有列变化时结果为 NULL，该行不记录事件
+        boolean changed = options.isCaptureChangedColumns();
+        String changedCol = changed ? ", changed_columns" : "";
+        String changedVal = changed ? ", c.changed_columns" : "";
+        String changedApply = changed
+                ? " \n            CROSS APPLY (SELECT STUFF(CONCAT(" + comparableColumns(columns).stream()
+                .map(col -> "CASE WHEN " + nullSafeDiff("i." + col, "d." + col) + " THEN '," + col + "' END, ")
+                .collect(Collectors.joining()) + "''), 1, 1, '') AS changed_columns) c \n" +
+                "            WHERE c.changed_columns IS NOT NULL"
+                : "";
+
         // SQL Server 没有 BEFORE UPDATE。
         // 做法：在 AFTER UPDATE 里，手动再次更新表，把 version + 1
         // 注意：需要防止递归触发 (UPDATE -> Trigger -> UPDATE -> Trigger...)
         // 通常 SQL Server 默认递归触发器是禁用的，或者我们通过 logic 判断
 
+        if (options.getMode() == TriggerMode.INSTEAD_OF) {
+            return buildSqlServerInsteadOf(table, pk, columns, options, payloadCol, updatePayload, insertPayload, changedCol, changedVal, changedApply);
+        }
+
         String tpl = "-- [SQL Server] %1$s 触发器 \n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_ins; \n" +
+                "DROP TRIGGER IF EXISTS trg_%1$s_upd; \n" +
+                "GO \n" +
                 "CREATE OR ALTER TRIGGER trg_%1$s_sync ON %1$s \n" +
                 "AFTER INSERT, UPDATE, DELETE \n" +
                 "AS \n" +
@@ -258,16 +657,16 @@ public class TriggerGenerator {
                 "            INNER JOIN inserted i ON t.%2$s = i.%2$s; \n" +
                 "            \n" +
                 "            -- 记录日志 (注意：此时表中数据已经是 +1 后的了) \n" +
-                "            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "            SELECT '%1$s', 'UPDATE', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', ISNULL(d." + VERSION_COL + ",0) + 1 \n" +
-                "            FROM inserted i JOIN deleted d ON i.%2$s = d.%2$s; \n" +
+                "            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + changedCol + ") \n" +
+                "            SELECT '%1$s', 'UPDATE', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', ISNULL(d." + VERSION_COL + ",0) + 1" + updatePayload + changedVal + " \n" +
+                "            FROM inserted i JOIN deleted d ON i.%2$s = d.%2$s" + changedApply + "; \n" +
                 "        END \n" +
                 "        \n" +
                 "        -- 2. 处理 INSERT \n" +
                 "        ELSE IF EXISTS(SELECT * FROM inserted) \n" +
                 "        BEGIN \n" +
-                "            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
-                "            SELECT '%1$s', 'INSERT', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', i." + VERSION_COL + " \n" +
+                "            INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + ") \n" +
+                "            SELECT '%1$s', 'INSERT', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', i." + VERSION_COL + insertPayload + " \n" +
                 "            FROM inserted i; \n" +
                 "        END \n" +
                 "        \n" +
@@ -282,4 +681,72 @@ public class TriggerGenerator {
                 "END;";
         return String.format(tpl, table, pk);
     }
-}
\ No newline at end of file
+
+    // 替代触发器：INSTEAD OF UPDATE 直接写入自增后的版本号，每行只写一次；同步账号的写入原样执行，保留源库带来的版本号
+    // SQL Server 的 MERGE 要求其中的每种动作都有 INSTEAD OF 触发器，目标库 UPSERT 使用 MERGE (UPDATE + INSERT)，因此 INSERT 也需要替代触发器
+    // 触发器内对本表的写入不会再次触发 INSTEAD OF 触发器；主键按不可修改处理（通过主键关联 inserted / deleted）
+    private static String buildSqlServerInsteadOf(String table, String pk, List<String> columns, TriggerOptions options,
+                                                  String payloadCol, String updatePayload, String insertPayload,
+                                                  String changedCol, String changedVal, String changedApply) {
+        String insertCols = String.join(", ", columns);
+        String selectCols = columns.stream().map(c -> "i." + c).collect(Collectors.joining(", "));
+        List<String> updateCols = columns.stream().filter(c -> !c.equalsIgnoreCase(pk) && !c.equalsIgnoreCase(VERSION_COL)).toList();
+        String assignments = updateCols.stream().map(c -> c + " = i." + c + ", ").collect(Collectors.joining());
+
+        String tpl = "-- [SQL Server] %1$s 替代触发器 (INSTEAD OF INSERT) \n" +
+                "CREATE OR ALTER TRIGGER trg_%1$s_ins ON %1$s \n" +
+                "INSTEAD OF INSERT \n" +
+                "AS \n" +
+                "BEGIN \n" +
+                "    SET NOCOUNT ON; \n" +
+                "    INSERT INTO %1$s (" + insertCols + ") \n" +
+                "    SELECT " + selectCols + " FROM inserted i; \n" +
+                "    IF SUSER_NAME() <> '" + SYNC_USER + "' \n" +
+                "    BEGIN \n" +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + ") \n" +
+                "        SELECT '%1$s', 'INSERT', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', i." + VERSION_COL + insertPayload + " \n" +
+                "        FROM inserted i; \n" +
+                "    END \n" +
+                "END; \n" +
+                "GO \n\n" +
+
+                "-- [SQL Server] %1$s 替代触发器 (INSTEAD OF UPDATE)：版本号在本次写入中直接自增 \n" +
+                "CREATE OR ALTER TRIGGER trg_%1$s_upd ON %1$s \n" +
+                "INSTEAD OF UPDATE \n" +
+                "AS \n" +
+                "BEGIN \n" +
+                "    SET NOCOUNT ON; \n" +
+                "    IF SUSER_NAME() = '" + SYNC_USER + "' \n" +
+                "    BEGIN \n" +
+                "        UPDATE t SET " + assignments + VERSION_COL + " = i." + VERSION_COL + " \n" +
+                "        FROM %1$s t INNER JOIN inserted i ON t.%2$s = i.%2$s; \n" +
+                "        RETURN; \n" +
+                "    END \n" +
+                "    \n" +
+                "    UPDATE t SET " + assignments + VERSION_COL + " = ISNULL(d." + VERSION_COL + ",0) + 1 \n" +
+                "    FROM %1$s t \n" +
+                "    INNER JOIN deleted d ON t.%2$s = d.%2$s \n" +
+                "    INNER JOIN inserted i ON i.%2$s = d.%2$s; \n" +
+                "    \n" +
+                "    INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version" + payloadCol + changedCol + ") \n" +
+                "    SELECT '%1$s', 'UPDATE', '%2$s', CAST(i.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', ISNULL(d." + VERSION_COL + ",0) + 1" + updatePayload + changedVal + " \n" +
+                "    FROM inserted i JOIN deleted d ON i.%2$s = d.%2$s" + changedApply.replace("\n            ", "\n    ") + "; \n" +
+                "END; \n" +
+                "GO \n\n" +
+
+                "-- [SQL Server] %1$s 删除日志 (AFTER DELETE) \n" +
+                "CREATE OR ALTER TRIGGER trg_%1$s_sync ON %1$s \n" +
+                "AFTER DELETE \n" +
+                "AS \n" +
+                "BEGIN \n" +
+                "    SET NOCOUNT ON; \n" +
+                "    IF SUSER_NAME() <> '" + SYNC_USER + "' \n" +
+                "    BEGIN \n" +
+                "        INSERT INTO sync_event (table_name, op_type, pk_column_name, pk_value, status, op_time, source_db_type, data_version) \n" +
+                "        SELECT '%1$s', 'DELETE', '%2$s', CAST(d.%2$s AS VARCHAR(255)), 0, GETDATE(), 'SQL_SERVER', d." + VERSION_COL + " \n" +
+                "        FROM deleted d; \n" +
+                "    END \n" +
+                "END;";
+        return String.format(tpl, table, pk);
+    }
+}
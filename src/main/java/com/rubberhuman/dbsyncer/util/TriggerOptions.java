@@ -0,0 +1,20 @@
+package com.rubberhuman.dbsyncer.util;
+
+import com.rubberhuman.dbsyncer.enums.sync.TriggerMode;
+import lombok.Data;
+
+// 触发器生成选项，默认生成最基础的触发器（只记录主键与版本号）
+@Data
+public class TriggerOptions {
+
+    // INSERT/UPDATE 事件把变更后的整行数据序列化为 JSON 写入 sync_event.payload，
+    // 同步引擎直接使用该行镜像，无需再回查源表（源库 sync_event 需要有 payload 列；不适用于含二进制列的表）
+    private boolean captureRowImage;
+
+    // UPDATE 事件比较新旧值，把实际变化的列名（逗号分隔）写入 sync_event.changed_columns，
+    // 目标库只更新这些列；没有任何列变化的 UPDATE 不产生事件（源库 sync_event 需要有 changed_columns 列）
+    private boolean captureChangedColumns;
+
+    // 触发器形式，默认按表生成
+    private TriggerMode mode = TriggerMode.PER_TABLE;
+}
@@ -0,0 +1,87 @@
+package com.rubberhuman.dbsyncer.util;
+
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.exception.BusinessException;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// 按数据库方言生成单条语句完成的 UPSERT（存在则更新，不存在则插入）
+// 生成的 SQL 中 ? 占位符与 columns 一一对应，按 columns 的顺序绑定参数
+public class UpsertSqlBuilder {
+
+    public static String build(DatabaseType dbType, String table, String pkCol, List<String> columns) {
+        List<String> updateCols = columns.stream()
+                .filter(col -> !col.equalsIgnoreCase(pkCol))
+                .toList();
+
+        switch (dbType) {
+            case MYSQL:
+                return buildMysql(table, pkCol, columns, updateCols);
+            case POSTGRESQL:
+                return buildPostgres(table, pkCol, columns, updateCols);
+            case ORACLE:
+                return buildOracle(table, pkCol, columns, updateCols);
+            case SQL_SERVER:
+                return buildSqlServer(table, pkCol, columns, updateCols);
+            default:
+                throw new BusinessException("不支持的数据库类型: " + dbType.getDescription());
+        }
+    }
+
+    // === MySQL: INSERT ... ON DUPLICATE KEY UPDATE ===
+    private static String buildMysql(String table, String pkCol, List<String> columns, List<String> updateCols) {
+        String updates = updateCols.isEmpty()
+                ? pkCol + " = " + pkCol
+                : updateCols.stream().map(col -> col + " = VALUES(" + col + ")").collect(Collectors.joining(", "));
+
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders(columns.size()) + ")"
+                + " ON DUPLICATE KEY UPDATE " + updates;
+    }
+
+    // === PostgreSQL: INSERT ... ON CONFLICT (pk) DO UPDATE ===
+    private static String buildPostgres(String table, String pkCol, List<String> columns, List<String> updateCols) {
+        String action = updateCols.isEmpty()
+                ? "DO NOTHING"
+                : "DO UPDATE SET " + updateCols.stream().map(col -> col + " = EXCLUDED." + col).collect(Collectors.joining(", "));
+
+        return "INSERT INTO " + table + " (" + String.join(", ", columns) + ") VALUES (" + placeholders(columns.size()) + ")"
+                + " ON CONFLICT (" + pkCol + ") " + action;
+    }
+
+    // === Oracle: MERGE ... USING (SELECT ... FROM DUAL) ===
+    private static String buildOracle(String table, String pkCol, List<String> columns, List<String> updateCols) {
+        String source = columns.stream().map(col -> "? AS " + col).collect(Collectors.joining(", "));
+
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(table).append(" d")
+                .append(" USING (SELECT ").append(source).append(" FROM DUAL) s")
+                .append(" ON (d.").append(pkCol).append(" = s.").append(pkCol).append(")");
+        appendMergeActions(sql, columns, updateCols);
+        return sql.toString();
+    }
+
+    // === SQL Server: MERGE ... USING (VALUES (...)) ===
+    private static String buildSqlServer(String table, String pkCol, List<String> columns, List<String> updateCols) {
+        StringBuilder sql = new StringBuilder("MERGE INTO ").append(table).append(" AS d")
+                .append(" USING (VALUES (").append(placeholders(columns.size())).append(")) AS s (")
+                .append(String.join(", ", columns)).append(")")
+                .append(" ON d.").append(pkCol).append(" = s.").append(pkCol);
+        appendMergeActions(sql, columns, updateCols);
+        // SQL Server 的 MERGE 必须以分号结尾
+        return sql.append(";").toString();
+    }
+
+    private static void appendMergeActions(StringBuilder sql, List<String> columns, List<String> updateCols) {
+        if (!updateCols.isEmpty()) {
+            sql.append(" WHEN MATCHED THEN UPDATE SET ")
+                    .append(updateCols.stream().map(col -> "d." + col + " = s." + col).collect(Collectors.joining(", ")));
+        }
+        sql.append(" WHEN NOT MATCHED THEN INSERT (").append(String.join(", ", columns)).append(")")
+                .append(" VALUES (").append(columns.stream().map(col -> "s." + col).collect(Collectors.joining(", "))).append(")");
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.ApplyPlanCacheStats;
+import com.rubberhuman.dbsyncer.event.datasource.DataSourceChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+
+class ApplyPlanCacheTest {
+
+    private ApplyPlanCache cache;
+    private final AtomicInteger builds = new AtomicInteger();
+    private final Function<List<String>, String> sqlBuilder = columns -> {
+        builds.incrementAndGet();
+        return "INSERT INTO t (" + String.join(", ", columns) + ")";
+    };
+
+    @BeforeEach
+    void setUp() {
+        cache = new ApplyPlanCache();
+        // 表结构未知时按原样绑定
+        ReflectionTestUtils.setField(cache, "schemaCatalog", mock(SchemaCatalog.class));
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+    }
+
+    @Test
+    void reusesPlanForSameColumnSetInAnyOrder() {
+        ApplyPlan first = cache.get(1L, "Orders", "INSERT", List.of("name", "ID"), sqlBuilder);
+        ApplyPlan second = cache.get(1L, "orders", "INSERT", List.of("id", "NAME"), sqlBuilder);
+
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        assertEquals("INSERT INTO t (ID, name)", first.getSql());
+        assertStats(1, 1, 1, 0);
+    }
+
+    @Test
+    void separatesTargetsAndOperations() {
+        cache.get(1L, "orders", "INSERT", List.of("id"), sqlBuilder);
+        cache.get(2L, "orders", "INSERT", List.of("id"), sqlBuilder);
+        cache.get(1L, "orders", "UPDATE", List.of("id"), sqlBuilder);
+
+        assertEquals(3, builds.get());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        ApplyPlan a = cache.get(1L, "a", "INSERT", List.of("id"), sqlBuilder);
+        cache.get(1L, "b", "INSERT", List.of("id"), sqlBuilder);
+        // 访问 a 之后，b 成为最久未使用的计划
+        assertSame(a, cache.get(1L, "a", "INSERT", List.of("id"), sqlBuilder));
+
+        cache.get(1L, "c", "INSERT", List.of("id"), sqlBuilder);
+        assertStats(2, 1, 3, 1);
+
+        assertSame(a, cache.get(1L, "a", "INSERT", List.of("id"), sqlBuilder));
+        cache.get(1L, "b", "INSERT", List.of("id"), sqlBuilder);
+        assertEquals(4, builds.get());
+        assertStats(2, 2, 4, 2);
+    }
+
+    @Test
+    void evictsPlansOfChangedDataSource() {
+        ReflectionTestUtils.setField(cache, "maxSize", 10);
+        ApplyPlan a = cache.get(1L, "a", "INSERT", List.of("id"), sqlBuilder);
+        ApplyPlan b = cache.get(2L, "b", "INSERT", List.of("id"), sqlBuilder);
+
+        cache.onDataSourceChanged(new DataSourceChangedEvent(1L, true));
+
+        assertEquals(1, cache.getStats().getSize());
+        assertNotSame(a, cache.get(1L, "a", "INSERT", List.of("id"), sqlBuilder));
+        assertSame(b, cache.get(2L, "b", "INSERT", List.of("id"), sqlBuilder));
+        // 主动丢弃不计入淘汰次数
+        assertEquals(0L, cache.getStats().getEvictions());
+    }
+
+    private void assertStats(int size, long hits, long misses, long evictions) {
+        ApplyPlanCacheStats stats = cache.getStats();
+        assertEquals(size, stats.getSize());
+        assertEquals(hits, stats.getHits());
+        assertEquals(misses, stats.getMisses());
+        assertEquals(evictions, stats.getEvictions());
+    }
+}
@@ -0,0 +1,130 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class EventCoalescerTest {
+
+    @Test
+    void keepsBatchUntouchedWhenNoRowRepeats() {
+        List<SyncEvent> events = List.of(
+                event(1, "orders", "1", "INSERT", null),
+                event(2, "orders", "2", "UPDATE", "status"),
+                event(3, "users", "1", "DELETE", null));
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(events);
+
+        assertSame(events, result.events());
+        assertEquals(0, result.foldedCount());
+        assertEquals(List.of(2L), result.idsOf(events.get(1)));
+    }
+
+    @Test
+    void foldsInsertThenDeleteIntoDeleteAtLastPosition() {
+        SyncEvent insertChild = event(1, "order_item", "9", "INSERT", null);
+        SyncEvent deleteParent = event(2, "orders", "1", "DELETE", null);
+        SyncEvent deleteChild = event(3, "order_item", "9", "DELETE", null);
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(insertChild, deleteParent, deleteChild));
+
+        // 子表的 DELETE 保留在最后一次出现的位置，仍排在父表 DELETE 之后
+        assertEquals(List.of(deleteParent, deleteChild), result.events());
+        assertEquals(1, result.foldedCount());
+        assertEquals(List.of(3L, 1L), result.idsOf(deleteChild));
+        assertEquals(List.of(2L), result.idsOf(deleteParent));
+    }
+
+    @Test
+    void keepsUpsertAtLastPosition() {
+        SyncEvent insertParent = event(1, "orders", "1", "INSERT", null);
+        SyncEvent insertChild = event(2, "order_item", "9", "INSERT", null);
+        SyncEvent updateParent = event(3, "orders", "1", "UPDATE", "amount");
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(insertParent, insertChild, updateParent));
+
+        // 父表的最终事件放在最后一次出现的位置；跨表外键顺序不保证，子表事件失败时随重试补上
+        assertEquals(List.of(insertChild, updateParent), result.events());
+        assertEquals(List.of(3L, 1L), result.idsOf(updateParent));
+        // 序列中有 INSERT，按整行写入
+        assertNull(updateParent.getChangedColumns());
+    }
+
+    @Test
+    void replaysParentDeleteThenReinsertBeforeChildEvents() {
+        SyncEvent deleteChild = event(1, "order_item", "9", "DELETE", null);
+        SyncEvent deleteParent = event(2, "orders", "1", "DELETE", null);
+        SyncEvent insertParent = event(3, "orders", "1", "INSERT", null);
+        SyncEvent insertChild = event(4, "order_item", "9", "INSERT", null);
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(deleteChild, deleteParent, insertParent, insertChild));
+
+        // 各行按最终状态产生的先后应用：父表重新插入后才写子表
+        assertEquals(List.of(insertParent, insertChild), result.events());
+        assertEquals(List.of(3L, 2L), result.idsOf(insertParent));
+        assertEquals(List.of(4L, 1L), result.idsOf(insertChild));
+    }
+
+    @Test
+    void foldsDeleteThenInsertIntoInsert() {
+        SyncEvent delete = event(1, "orders", "1", "DELETE", null);
+        SyncEvent insert = event(2, "orders", "1", "INSERT", null);
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(delete, insert));
+
+        assertEquals(List.of(insert), result.events());
+        assertEquals(List.of(2L, 1L), result.idsOf(insert));
+    }
+
+    @Test
+    void unionsChangedColumnsOfUpdates() {
+        SyncEvent first = event(1, "orders", "1", "UPDATE", "status,Amount");
+        SyncEvent second = event(2, "orders", "1", "UPDATE", "amount, remark");
+        SyncEvent third = event(3, "orders", "1", "UPDATE", "status");
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(first, second, third));
+
+        assertEquals(List.of(third), result.events());
+        assertEquals("status,amount,remark", third.getChangedColumns());
+        assertEquals(2, result.foldedCount());
+        assertEquals(List.of(3L, 1L, 2L), result.idsOf(third));
+    }
+
+    @Test
+    void dropsChangedColumnsWhenAnyUpdateDidNotRecordThem() {
+        SyncEvent first = event(1, "orders", "1", "UPDATE", null);
+        SyncEvent second = event(2, "orders", "1", "UPDATE", "status");
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(List.of(first, second));
+
+        assertEquals(List.of(second), result.events());
+        assertNull(second.getChangedColumns());
+    }
+
+    @Test
+    void treatsSamePkInDifferentTablesAsDifferentRows() {
+        List<SyncEvent> events = List.of(
+                event(1, "orders", "1", "UPDATE", "status"),
+                event(2, "users", "1", "UPDATE", "name"));
+
+        EventCoalescer.Result result = EventCoalescer.coalesce(events);
+
+        assertEquals(events, result.events());
+        assertEquals(0, result.foldedCount());
+    }
+
+    private static SyncEvent event(long id, String table, String pk, String opType, String changedColumns) {
+        SyncEvent event = new SyncEvent();
+        event.setId(id);
+        event.setTableName(table);
+        event.setPkValue(pk);
+        event.setOpType(opType);
+        event.setChangedColumns(changedColumns);
+        return event;
+    }
+}
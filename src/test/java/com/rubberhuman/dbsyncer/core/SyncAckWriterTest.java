@@ -0,0 +1,135 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.service.sync.SyncEventService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class SyncAckWriterTest {
+
+    private static final Long SOURCE_ID = 1L;
+
+    private SyncEventService eventService;
+    private SyncStatsTracker statsTracker;
+    private SyncAckWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        eventService = mock(SyncEventService.class);
+        statsTracker = mock(SyncStatsTracker.class);
+
+        writer = new SyncAckWriter();
+        ReflectionTestUtils.setField(writer, "syncEventService", eventService);
+        ReflectionTestUtils.setField(writer, "statsTracker", statsTracker);
+        ReflectionTestUtils.setField(writer, "metrics", mock(SyncMetrics.class));
+        ReflectionTestUtils.setField(writer, "ackBatchSize", 3);
+    }
+
+    @Test
+    void flushesOnceBatchIsFull() {
+        writer.success(SOURCE_ID, 1L);
+        writer.fail(SOURCE_ID, 2L, "err");
+        verify(eventService, never()).markSuccessBatch(anyLong(), anyList());
+
+        writer.success(SOURCE_ID, 3L);
+
+        // 成功合并为一条回写，失败单独回写
+        verify(eventService).markSuccessBatch(SOURCE_ID, List.of(1L, 3L));
+        verify(eventService).markFailBatch(SOURCE_ID, Map.of(2L, "err"));
+        verify(statsTracker).onAcked(SOURCE_ID, 2, 0);
+        verify(statsTracker).onAcked(SOURCE_ID, 0, 1);
+    }
+
+    @Test
+    void lastResultOfSameEventWins() {
+        writer.success(SOURCE_ID, 1L);
+        writer.fail(SOURCE_ID, 1L, "err");
+        writer.fail(SOURCE_ID, 2L, "err");
+        writer.success(SOURCE_ID, 2L);
+
+        writer.flushAll();
+
+        verify(eventService).markSuccessBatch(SOURCE_ID, List.of(2L));
+        verify(eventService).markFailBatch(SOURCE_ID, Map.of(1L, "err"));
+    }
+
+    @Test
+    void timeWindowFlushesEverySource() {
+        writer.success(1L, 1L);
+        writer.success(2L, 5L);
+
+        writer.flushAll();
+
+        verify(eventService).markSuccessBatch(1L, List.of(1L));
+        verify(eventService).markSuccessBatch(2L, List.of(5L));
+
+        // 缓冲区已清空，下一次回写不再访问源库
+        writer.flushAll();
+        verify(eventService, times(2)).markSuccessBatch(anyLong(), anyList());
+    }
+
+    @Test
+    void failedFlushIsRequeuedAndRetried() {
+        doThrow(new QueryTimeoutException("timeout")).doNothing()
+                .when(eventService).markSuccessBatch(eq(SOURCE_ID), anyList());
+        writer.success(SOURCE_ID, 1L);
+
+        writer.flushAll();
+        verify(statsTracker, never()).onAcked(SOURCE_ID, 1, 0);
+
+        writer.flushAll();
+        verify(eventService, times(2)).markSuccessBatch(SOURCE_ID, List.of(1L));
+        verify(statsTracker).onAcked(SOURCE_ID, 1, 0);
+    }
+
+    @Test
+    void requeueDoesNotOverrideNewerResult() {
+        // 回写成功期间同一事件又失败了：放回缓冲区时以更新的失败结果为准
+        doAnswer(invocation -> {
+            writer.fail(SOURCE_ID, 1L, "newer");
+            throw new QueryTimeoutException("timeout");
+        }).doNothing().when(eventService).markSuccessBatch(eq(SOURCE_ID), anyList());
+        writer.success(SOURCE_ID, 1L);
+        writer.success(SOURCE_ID, 2L);
+
+        writer.flushAll();
+        writer.flushAll();
+
+        verify(eventService).markSuccessBatch(SOURCE_ID, List.of(2L));
+        verify(eventService).markFailBatch(SOURCE_ID, Map.of(1L, "newer"));
+    }
+
+    @Test
+    void writtenSuccessesAreNotResentWhenFailuresFail() {
+        doThrow(new QueryTimeoutException("timeout")).doNothing()
+                .when(eventService).markFailBatch(eq(SOURCE_ID), anyMap());
+        doNothing().when(eventService).markSuccessBatch(eq(SOURCE_ID), anyList());
+        writer.success(SOURCE_ID, 1L);
+        writer.fail(SOURCE_ID, 2L, "err");
+
+        writer.flushAll();
+        writer.flushAll();
+
+        // 成功部分已写入，重试只回写失败部分
+        verify(eventService).markSuccessBatch(SOURCE_ID, List.of(1L));
+        verify(eventService, times(2)).markFailBatch(SOURCE_ID, Map.of(2L, "err"));
+        verify(statsTracker, times(1)).onAcked(SOURCE_ID, 1, 0);
+        verify(statsTracker, times(1)).onAcked(SOURCE_ID, 0, 1);
+    }
+}
@@ -0,0 +1,161 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.ConflictCheckMode;
+import com.rubberhuman.dbsyncer.exception.SyncConflictException;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncApplierTest {
+
+    private static final String VERSION_SQL = "SELECT sync_version FROM orders WHERE id = ?";
+
+    private JdbcTemplate jt;
+    private SyncApplier applier;
+    private DataSourceConfig target;
+
+    @BeforeEach
+    void setUp() {
+        jt = mock(JdbcTemplate.class);
+        DynamicDbUtil dynamicDbUtil = mock(DynamicDbUtil.class);
+        when(dynamicDbUtil.getSyncWorkerJdbcTemplate(2L)).thenReturn(jt);
+
+        // 目标表结构未知：按源数据原样写入
+        SchemaCatalog schemaCatalog = mock(SchemaCatalog.class);
+        ApplyPlanCache planCache = new ApplyPlanCache();
+        ReflectionTestUtils.setField(planCache, "schemaCatalog", schemaCatalog);
+        ReflectionTestUtils.setField(planCache, "maxSize", 64);
+
+        applier = new SyncApplier();
+        ReflectionTestUtils.setField(applier, "dynamicDbUtil", dynamicDbUtil);
+        ReflectionTestUtils.setField(applier, "planCache", planCache);
+        ReflectionTestUtils.setField(applier, "schemaCatalog", schemaCatalog);
+        ReflectionTestUtils.setField(applier, "batchApplyEnabled", true);
+        ReflectionTestUtils.setField(applier, "conflictCheckMode", ConflictCheckMode.CONDITIONAL_WRITE);
+
+        target = new DataSourceConfig();
+        target.setSourceId(2L);
+        target.setDbType(DatabaseType.MYSQL);
+    }
+
+    @Test
+    void guardedUpdateWritesVersionConditionInOneBatch() {
+        when(jt.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1});
+
+        Map<Long, Exception> errors = applier.apply(target, List.of(update(1, "1", 5), update(2, "2", 7)));
+
+        assertTrue(errors.isEmpty());
+        verify(jt).batchUpdate(eq("UPDATE orders SET name = ?, sync_version = ? WHERE id = ? AND (sync_version IS NULL OR sync_version <= ?)"), anyList());
+        verify(jt, never()).queryForObject(anyString(), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void guardMissIsConflictOrInsert() {
+        when(jt.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0, 0});
+        when(jt.queryForObject(VERSION_SQL, Long.class, "1")).thenReturn(9L);
+        when(jt.queryForObject(VERSION_SQL, Long.class, "2")).thenThrow(new EmptyResultDataAccessException(1));
+
+        Map<Long, Exception> errors = applier.apply(target, List.of(update(1, "1", 5), update(2, "2", 7)));
+
+        // 目标行版本更高为冲突；目标行不存在时整行插入
+        assertEquals(1, errors.size());
+        assertInstanceOf(SyncConflictException.class, errors.get(1L));
+        verify(jt).update(startsWith("INSERT INTO orders"), eq("2"), eq("b"), eq(7L));
+    }
+
+    @Test
+    void unknownUpdateCountsAreCheckedRowByRow() {
+        // rewriteBatchedStatements=true 等情况下驱动只返回 SUCCESS_NO_INFO
+        when(jt.batchUpdate(anyString(), anyList()))
+                .thenReturn(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        when(jt.queryForObject(VERSION_SQL, Long.class, "1")).thenReturn(5L);
+        when(jt.queryForObject(VERSION_SQL, Long.class, "2")).thenReturn(9L);
+        when(jt.queryForObject(VERSION_SQL, Long.class, "3")).thenThrow(new EmptyResultDataAccessException(1));
+
+        Map<Long, Exception> errors = applier.apply(target, List.of(update(1, "1", 5), update(2, "2", 7), update(3, "3", 2)));
+
+        // 版本一致说明已写入；版本更高为冲突，不能当作成功；目标行不存在时整行插入
+        assertEquals(1, errors.size());
+        assertInstanceOf(SyncConflictException.class, errors.get(2L));
+        verify(jt).update(startsWith("INSERT INTO orders"), eq("3"), eq("c"), eq(2L));
+        verify(jt, times(3)).queryForObject(eq(VERSION_SQL), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void failedBatchIsBisectedDownToTheBadRow() {
+        List<PendingEvent> rows = List.of(insert(1, "1"), insert(2, "2"), insert(3, "3"), insert(4, "4"));
+        when(jt.batchUpdate(anyString(), anyList())).thenAnswer(invocation -> {
+            List<Object[]> args = invocation.getArgument(1);
+            if (args.stream().anyMatch(arg -> Arrays.asList(arg).contains("1"))) {
+                throw new DataIntegrityViolationException("duplicate");
+            }
+            int[] counts = new int[args.size()];
+            Arrays.fill(counts, 1);
+            return counts;
+        });
+        when(jt.update(startsWith("INSERT INTO orders"), eq("1"), any(), any())).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+        Map<Long, Exception> errors = applier.apply(target, rows);
+
+        // [1,2,3,4] -> [1,2] + [3,4] -> [1] + [2]；只有出错的一行退回逐行写入并记录错误
+        assertEquals(List.of(1L), List.copyOf(errors.keySet()));
+        verify(jt, times(5)).batchUpdate(anyString(), anyList());
+        verify(jt, times(1)).update(startsWith("INSERT INTO orders"), any(Object[].class));
+    }
+
+    private static PendingEvent update(long id, String pk, long version) {
+        SyncEvent event = event(id, pk, "UPDATE");
+        event.setDataVersion(version);
+        return new PendingEvent(event, row(pk, version));
+    }
+
+    private static PendingEvent insert(long id, String pk) {
+        return new PendingEvent(event(id, pk, "INSERT"), row(pk, 1L));
+    }
+
+    private static SyncEvent event(long id, String pk, String opType) {
+        SyncEvent event = new SyncEvent();
+        event.setId(id);
+        event.setTableName("orders");
+        event.setPkColumnName("id");
+        event.setPkValue(pk);
+        event.setOpType(opType);
+        return event;
+    }
+
+    // 名称取 a、b、c ...，与主键一一对应
+    private static Map<String, Object> row(String pk, long version) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", pk);
+        row.put("name", String.valueOf((char) ('a' + Integer.parseInt(pk) - 1)));
+        row.put("sync_version", version);
+        return row;
+    }
+}
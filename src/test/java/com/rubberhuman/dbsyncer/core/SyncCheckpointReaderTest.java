@@ -0,0 +1,122 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointFailureService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncCheckpointReaderTest {
+
+    private static final Long SOURCE_ID = 1L;
+    private static final String CONSUMER = "default";
+
+    private SyncCheckpointService checkpointService;
+    private SyncEventMapper eventMapper;
+    private SyncCheckpointReader reader;
+
+    @BeforeEach
+    void setUp() {
+        checkpointService = mock(SyncCheckpointService.class);
+        when(checkpointService.getLastEventId(SOURCE_ID, CONSUMER)).thenReturn(100L);
+
+        eventMapper = mock(SyncEventMapper.class);
+
+        reader = new SyncCheckpointReader();
+        ReflectionTestUtils.setField(reader, "syncEventMapper", eventMapper);
+        ReflectionTestUtils.setField(reader, "checkpointService", checkpointService);
+        ReflectionTestUtils.setField(reader, "failureService", mock(SyncCheckpointFailureService.class));
+        ReflectionTestUtils.setField(reader, "consumerName", CONSUMER);
+        ReflectionTestUtils.setField(reader, "gapTimeoutMs", 60000L);
+        ReflectionTestUtils.setField(reader, "gapRecheckMinIntervalMs", 2000L);
+        ReflectionTestUtils.setField(reader, "gapRecheckMaxIntervalMs", 15000L);
+        ReflectionTestUtils.setField(reader, "maxGaps", 10000);
+    }
+
+    @Test
+    void advancesToMaxIdWithoutGaps() {
+        reader.commit(SOURCE_ID, events(101, 102, 103));
+
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 103L);
+    }
+
+    @Test
+    void holdsCheckpointBeforeFirstGap() {
+        reader.commit(SOURCE_ID, events(101, 102, 105));
+
+        // 103、104 尚未出现，位点停在空洞之前
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 102L);
+    }
+
+    @Test
+    void advancesOnceLateEventsFillGaps() {
+        reader.commit(SOURCE_ID, events(101, 102, 105));
+        reader.commit(SOURCE_ID, events(103));
+        // 104 仍未出现，位点只推进到 103
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 103L);
+        verify(checkpointService, never()).saveLastEventId(SOURCE_ID, CONSUMER, 105L);
+
+        reader.commit(SOURCE_ID, events(104, 106));
+
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 106L);
+    }
+
+    @Test
+    void skipsGapsAfterTimeout() throws InterruptedException {
+        ReflectionTestUtils.setField(reader, "gapTimeoutMs", 50L);
+
+        reader.commit(SOURCE_ID, events(101, 104));
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 101L);
+
+        Thread.sleep(100);
+        reader.commit(SOURCE_ID, List.of());
+
+        // 102、103 等待超时，视为事务已回滚
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 104L);
+    }
+
+    @Test
+    void pausesAtLastTrackedGapWhenLimitReached() {
+        ReflectionTestUtils.setField(reader, "maxGaps", 2);
+
+        reader.commit(SOURCE_ID, events(101, 110));
+
+        // 只跟踪 102、103 两个空洞，104 之后未跟踪，位点不能越过它们
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 101L);
+        reader.commit(SOURCE_ID, events(102, 103));
+        verify(checkpointService).saveLastEventId(SOURCE_ID, CONSUMER, 103L);
+        verify(checkpointService, never()).saveLastEventId(SOURCE_ID, CONSUMER, 110L);
+
+        // 下一轮从 103 之后重新读取新事件
+        reader.poll(SOURCE_ID, 100);
+        verify(eventMapper).selectAfterId(SOURCE_ID, 103L, 100);
+    }
+
+    @Test
+    void doesNotSaveWhenNothingNew() {
+        reader.commit(SOURCE_ID, List.of());
+
+        verify(checkpointService, never()).saveLastEventId(eq(SOURCE_ID), anyString(), anyLong());
+    }
+
+    private static List<SyncEvent> events(long... ids) {
+        return Arrays.stream(ids).mapToObj(id -> {
+            SyncEvent event = new SyncEvent();
+            event.setId(id);
+            return event;
+        }).toList();
+    }
+}
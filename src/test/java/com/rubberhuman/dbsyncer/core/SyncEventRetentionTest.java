@@ -0,0 +1,188 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncEventRetentionTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 18);
+
+    private JdbcTemplate jt;
+    private SyncStatsTracker statsTracker;
+    private SyncEventRetention retention;
+
+    @BeforeEach
+    void setUp() {
+        jt = mock(JdbcTemplate.class);
+        DynamicDbUtil dynamicDbUtil = mock(DynamicDbUtil.class);
+        when(dynamicDbUtil.getJdbcTemplate(1L)).thenReturn(jt);
+        statsTracker = mock(SyncStatsTracker.class);
+
+        retention = new SyncEventRetention();
+        ReflectionTestUtils.setField(retention, "dynamicDbUtil", dynamicDbUtil);
+        ReflectionTestUtils.setField(retention, "statsTracker", statsTracker);
+        ReflectionTestUtils.setField(retention, "retentionDays", 7);
+        ReflectionTestUtils.setField(retention, "premakeDays", 3);
+        ReflectionTestUtils.setField(retention, "consumeMode", ConsumeMode.STATUS);
+
+        // 已分区，源库日期为 TODAY
+        when(jt.queryForObject(anyString(), eq(Long.class))).thenReturn(1L);
+        when(jt.queryForObject(contains("CAST(NOW() AT TIME ZONE"), any(RowMapper.class))).thenReturn(TODAY);
+        when(jt.queryForObject(contains("CURRENT_DATE"), any(RowMapper.class))).thenReturn(TODAY);
+        when(jt.queryForObject(contains("GETDATE()"), any(RowMapper.class))).thenReturn(TODAY);
+    }
+
+    @Test
+    void mysqlPremakeContinuesAfterLastDay() {
+        mysqlPartitions("p20261017", "p_future");
+
+        maintain(DatabaseType.MYSQL);
+
+        assertEquals(List.of("p20261018", "p20261019", "p20261020", "p20261021"), reorganizedMysqlDays());
+    }
+
+    @Test
+    void mysqlPremakeFillsDaysMissedDuringOutage() {
+        mysqlPartitions("p20261014", "p_future");
+
+        maintain(DatabaseType.MYSQL);
+
+        assertEquals(List.of("p20261015", "p20261016", "p20261017", "p20261018", "p20261019", "p20261020", "p20261021"),
+                reorganizedMysqlDays());
+    }
+
+    @Test
+    void mysqlPremakeStartsFromOldestEventInFuturePartition() {
+        mysqlPartitions("p_future");
+        when(jt.queryForObject(contains("MIN(op_time)"), any(RowMapper.class))).thenReturn(TODAY.minusDays(2));
+
+        maintain(DatabaseType.MYSQL);
+
+        assertEquals("p20261016", reorganizedMysqlDays().get(0));
+        assertEquals(6, reorganizedMysqlDays().size());
+    }
+
+    @Test
+    void mysqlPurgesExpiredDaysInOrderAndStopsAtUnfinished() {
+        mysqlPartitions("p20261008", "p20261009", "p20261010", "p20261025", "p_future");
+        when(jt.queryForObject(contains("PARTITION (p20261009) WHERE 1 = 1 AND status IN (0, 2)"), eq(Long.class))).thenReturn(3L);
+        when(jt.queryForObject(contains("PARTITION (p20261008) WHERE 1 = 1 AND status IN (0, 2)"), eq(Long.class))).thenReturn(0L);
+
+        maintain(DatabaseType.MYSQL);
+
+        verify(jt).execute("ALTER TABLE sync_event DROP PARTITION p20261008");
+        verify(jt, never()).execute("ALTER TABLE sync_event DROP PARTITION p20261009");
+        // 前一个分区未清理时，后面的过期分区也保留
+        verify(jt, never()).execute("ALTER TABLE sync_event DROP PARTITION p20261010");
+        verify(statsTracker, times(1)).invalidate(1L);
+    }
+
+    @Test
+    void mysqlKeepsDaysWithinRetention() {
+        // 保留 7 天：10-11 及之后的分区不过期
+        mysqlPartitions("p20261011", "p20261025", "p_future");
+        when(jt.queryForObject(contains("status IN (0, 2)"), eq(Long.class))).thenReturn(0L);
+
+        maintain(DatabaseType.MYSQL);
+
+        verify(jt, never()).execute(contains("DROP PARTITION"));
+    }
+
+    @Test
+    void sqlServerSplitsFromLastBoundary() {
+        when(jt.query(contains("sys.partition_range_values"), any(RowMapper.class)))
+                .thenReturn(List.of(TODAY.minusDays(5), TODAY.minusDays(4)));
+
+        maintain(DatabaseType.SQL_SERVER);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jt, times(8)).execute(sql.capture());
+        List<String> splits = sql.getAllValues().stream().filter(s -> s.contains("SPLIT RANGE")).toList();
+        // 从最后一个边界值的下一天补到 今天 + 预建天数 + 1（RANGE RIGHT 需要次日的边界值）
+        assertEquals("ALTER PARTITION FUNCTION pf_sync_event_day() SPLIT RANGE ('20261015')", splits.get(0));
+        assertEquals("ALTER PARTITION FUNCTION pf_sync_event_day() SPLIT RANGE ('20261022')", splits.get(splits.size() - 1));
+    }
+
+    @Test
+    void postgresMovesStrandedDefaultRowsIntoDayPartitions() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(mock(Connection.class));
+        when(jt.getDataSource()).thenReturn(dataSource);
+        when(jt.queryForList(anyString(), eq(String.class))).thenReturn(List.of("sync_event_p20261018"));
+        when(jt.queryForList(contains("= 'DEFAULT'"), eq(String.class))).thenReturn(List.of("sync_event_default"));
+        when(jt.query(contains("FROM sync_event_default"), any(RowMapper.class)))
+                .thenReturn(List.of(TODAY.minusDays(2), TODAY.minusDays(3)));
+
+        maintain(DatabaseType.POSTGRESQL);
+
+        InOrder order = inOrder(jt);
+        order.verify(jt).execute("ALTER TABLE sync_event DETACH PARTITION sync_event_default");
+        order.verify(jt).execute("CREATE TABLE sync_event_p20261015 PARTITION OF sync_event FOR VALUES FROM ('2026-10-15') TO ('2026-10-16')");
+        order.verify(jt).update("INSERT INTO sync_event SELECT * FROM sync_event_default WHERE op_time >= '2026-10-15' AND op_time < '2026-10-16'");
+        order.verify(jt).update("DELETE FROM sync_event_default WHERE op_time >= '2026-10-15' AND op_time < '2026-10-16'");
+        order.verify(jt).execute("CREATE TABLE sync_event_p20261016 PARTITION OF sync_event FOR VALUES FROM ('2026-10-16') TO ('2026-10-17')");
+        order.verify(jt).execute("ALTER TABLE sync_event ATTACH PARTITION sync_event_default DEFAULT");
+        // 今天的分区已存在，只预建之后的 3 天
+        verify(jt, never()).execute(contains("sync_event_p20261018 PARTITION OF"));
+        verify(jt).execute(contains("sync_event_p20261021 PARTITION OF"));
+    }
+
+    @Test
+    void postgresLeavesEmptyDefaultAlone() {
+        when(jt.queryForList(anyString(), eq(String.class))).thenReturn(List.of("sync_event_p20261018"));
+        when(jt.queryForList(contains("= 'DEFAULT'"), eq(String.class))).thenReturn(List.of("sync_event_default"));
+        when(jt.query(contains("FROM sync_event_default"), any(RowMapper.class))).thenReturn(List.of());
+
+        maintain(DatabaseType.POSTGRESQL);
+
+        verify(jt, never()).execute(contains("DETACH PARTITION"));
+    }
+
+    private void mysqlPartitions(String... names) {
+        when(jt.queryForList(contains("PARTITION_NAME FROM"), eq(String.class))).thenReturn(List.of(names));
+    }
+
+    private List<String> reorganizedMysqlDays() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jt, atLeast(0)).execute(sql.capture());
+        return sql.getAllValues().stream()
+                .filter(s -> s.contains("REORGANIZE PARTITION p_future"))
+                .map(s -> s.substring(s.indexOf("PARTITION p2") + "PARTITION ".length(), s.indexOf(" VALUES")))
+                .toList();
+    }
+
+    private void maintain(DatabaseType dbType) {
+        DataSourceConfig source = new DataSourceConfig();
+        source.setSourceId(1L);
+        source.setSourceName("src");
+        source.setDbType(dbType);
+        ReflectionTestUtils.invokeMethod(retention, "maintain", source);
+    }
+}
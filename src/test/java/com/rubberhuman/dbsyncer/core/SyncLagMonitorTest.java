@@ -0,0 +1,154 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.SyncLagStatus;
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
+import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.service.sync.SyncAlertService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncLagMonitorTest {
+
+    private static final long SLO_MS = 60000;
+
+    private DataSourceConfigService configService;
+    private DynamicDbUtil dynamicDbUtil;
+    private SyncAlertService alertService;
+    private SyncLagMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        configService = mock(DataSourceConfigService.class);
+        when(configService.listEnabled()).thenReturn(List.of(source(1L, "src"), source(2L, "dst")));
+        dynamicDbUtil = mock(DynamicDbUtil.class);
+        when(dynamicDbUtil.getJdbcTemplate(anyLong())).thenReturn(mock(JdbcTemplate.class));
+        alertService = mock(SyncAlertService.class);
+
+        monitor = new SyncLagMonitor();
+        ReflectionTestUtils.setField(monitor, "configService", configService);
+        ReflectionTestUtils.setField(monitor, "dynamicDbUtil", dynamicDbUtil);
+        ReflectionTestUtils.setField(monitor, "syncEventMapper", mock(SyncEventMapper.class));
+        ReflectionTestUtils.setField(monitor, "checkpointService", mock(SyncCheckpointService.class));
+        ReflectionTestUtils.setField(monitor, "alertService", alertService);
+        ReflectionTestUtils.setField(monitor, "metrics", mock(SyncMetrics.class));
+        ReflectionTestUtils.setField(monitor, "heartbeatEnabled", true);
+        ReflectionTestUtils.setField(monitor, "lagSloMs", SLO_MS);
+        ReflectionTestUtils.setField(monitor, "alertCooldownMs", 1800000L);
+        ReflectionTestUtils.setField(monitor, "sampleSize", 16);
+        monitor.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        monitor.shutdown();
+    }
+
+    @Test
+    void alertsOnceWhileBreachedWithinCooldown() {
+        deliverBeat(System.currentTimeMillis() - 2 * SLO_MS);
+
+        monitor.beat();
+        monitor.beat();
+
+        verify(alertService, times(1)).sendLagAlert(eq("src"), eq("dst"), anyLong(), eq(SLO_MS));
+        assertTrue(status(1L, 2L).getSloBreached());
+    }
+
+    @Test
+    void repeatsAlertAfterCooldown() {
+        ReflectionTestUtils.setField(monitor, "alertCooldownMs", 0L);
+        deliverBeat(System.currentTimeMillis() - 2 * SLO_MS);
+
+        monitor.beat();
+        monitor.beat();
+
+        verify(alertService, times(2)).sendLagAlert(eq("src"), eq("dst"), anyLong(), eq(SLO_MS));
+    }
+
+    @Test
+    void recoversWhenFreshBeatArrives() {
+        deliverBeat(System.currentTimeMillis() - 2 * SLO_MS);
+        monitor.beat();
+
+        deliverBeat(System.currentTimeMillis());
+        monitor.beat();
+
+        assertFalse(status(1L, 2L).getSloBreached());
+        verify(alertService, times(1)).sendLagAlert(eq("src"), eq("dst"), anyLong(), eq(SLO_MS));
+    }
+
+    @Test
+    void staysQuietWithinSlo() {
+        deliverBeat(System.currentTimeMillis() - SLO_MS / 2);
+
+        monitor.beat();
+
+        verify(alertService, never()).sendLagAlert(eq("src"), eq("dst"), anyLong(), anyLong());
+        assertFalse(status(1L, 2L).getSloBreached());
+    }
+
+    @Test
+    void slowSourceDoesNotBlockBeatOrStackUp() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        JdbcTemplate jt = mock(JdbcTemplate.class);
+        when(dynamicDbUtil.getJdbcTemplate(1L)).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return jt;
+        });
+
+        // 源库 1 卡住时，调度线程照常返回，源库 2 的心跳照常写入
+        monitor.beat();
+        verify(dynamicDbUtil, timeout(1000)).getJdbcTemplate(2L);
+        monitor.beat();
+
+        // 上一轮仍在执行，不会再为源库 1 提交新的心跳
+        verify(dynamicDbUtil, times(1)).getJdbcTemplate(1L);
+        release.countDown();
+    }
+
+    // 心跳行送达目标库 2
+    private void deliverBeat(long beatAt) {
+        SyncEvent event = new SyncEvent();
+        event.setId(beatAt);
+        event.setTableName(SyncLagMonitor.HEARTBEAT_TABLE);
+        event.setOpTime(new Date(beatAt));
+        monitor.onApplied(1L, 2L, List.of(new PendingEvent(event, Map.of("beat_at", beatAt))), Map.of());
+    }
+
+    private SyncLagStatus status(Long sourceId, Long targetId) {
+        return monitor.getStatuses().stream()
+                .filter(s -> s.getSourceId().equals(sourceId) && s.getTargetId().equals(targetId))
+                .findFirst().orElseThrow();
+    }
+
+    private static DataSourceConfig source(Long id, String name) {
+        DataSourceConfig config = new DataSourceConfig();
+        config.setSourceId(id);
+        config.setSourceName(name);
+        return config;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rubberhuman.dbsyncer.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SyncLaneTest {
+
+    private static final long MIN = 200;
+    private static final long MAX = 5000;
+    private static final double MULTIPLIER = 2.0;
+
+    @Test
+    void backsOffWhileIdleUpToMax() {
+        SyncLane lane = new SyncLane(1L);
+
+        lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+        assertEquals(MIN, lane.getIntervalMs());
+
+        long[] expected = {400, 800, 1600, 3200, 5000, 5000};
+        for (long interval : expected) {
+            lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+            assertEquals(interval, lane.getIntervalMs());
+        }
+    }
+
+    @Test
+    void resetsToMinWhenEventsArrive() {
+        SyncLane lane = idleLane();
+
+        lane.onPolled(3, false, MIN, MAX, MULTIPLIER);
+
+        assertEquals(MIN, lane.getIntervalMs());
+        assertEquals(3, lane.getLastFetched());
+    }
+
+    @Test
+    void pollsImmediatelyOnBacklog() {
+        SyncLane lane = idleLane();
+
+        long before = System.currentTimeMillis();
+        lane.onPolled(500, true, MIN, MAX, MULTIPLIER);
+
+        assertEquals(0, lane.getIntervalMs());
+        assertTrue(lane.isDue(before + 1000));
+        // 积压清空后从最小间隔重新开始退避
+        lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+        assertEquals(MIN, lane.getIntervalMs());
+    }
+
+    @Test
+    void wakeDuringPollSkipsBackoff() {
+        SyncLane lane = idleLane();
+
+        lane.beginPoll();
+        lane.wake();
+        lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+        assertEquals(0, lane.getIntervalMs());
+
+        // 唤醒只覆盖当前这一轮
+        lane.beginPoll();
+        lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+        assertEquals(MIN, lane.getIntervalMs());
+    }
+
+    @Test
+    void wakeMakesLaneDueAtOnce() {
+        SyncLane lane = idleLane();
+        assertFalse(lane.isDue(System.currentTimeMillis()));
+
+        lane.wake();
+
+        assertTrue(lane.isDue(System.currentTimeMillis()));
+    }
+
+    private static SyncLane idleLane() {
+        SyncLane lane = new SyncLane(1L);
+        for (int i = 0; i < 10; i++) {
+            lane.onPolled(0, false, MIN, MAX, MULTIPLIER);
+        }
+        assertEquals(MAX, lane.getIntervalMs());
+        return lane;
+    }
+}
@@ -0,0 +1,174 @@
+package com.rubberhuman.dbsyncer.core;
+
+import com.rubberhuman.dbsyncer.dto.sync.SyncStats;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.sync.ConsumeMode;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointFailureService;
+import com.rubberhuman.dbsyncer.service.sync.SyncCheckpointService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SyncStatsTrackerTest {
+
+    private static final Long SOURCE_ID = 1L;
+    private static final String TOTAL_SQL = "SELECT COUNT(*) as total, COALESCE(MAX(id), 0) as max_id FROM sync_event";
+    private static final String STATUS_SQL = "SELECT COUNT(*) FROM sync_event WHERE status = ?";
+    private static final String CHECKPOINT_SQL = "SELECT COUNT(*) FROM sync_event WHERE id > ?";
+
+    private JdbcTemplate jt;
+    private SyncCheckpointService checkpointService;
+    private SyncCheckpointFailureService failureService;
+    private SyncStatsTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        jt = mock(JdbcTemplate.class);
+        DynamicDbUtil dynamicDbUtil = mock(DynamicDbUtil.class);
+        when(dynamicDbUtil.getJdbcTemplate(SOURCE_ID)).thenReturn(jt);
+        checkpointService = mock(SyncCheckpointService.class);
+        failureService = mock(SyncCheckpointFailureService.class);
+
+        tracker = new SyncStatsTracker();
+        ReflectionTestUtils.setField(tracker, "dynamicDbUtil", dynamicDbUtil);
+        ReflectionTestUtils.setField(tracker, "checkpointService", checkpointService);
+        ReflectionTestUtils.setField(tracker, "failureService", failureService);
+        ReflectionTestUtils.setField(tracker, "consumeMode", ConsumeMode.STATUS);
+        ReflectionTestUtils.setField(tracker, "consumerName", "default");
+
+        // 共 100 条，最大 ID 100：待处理 10，失败 5
+        when(jt.queryForMap(TOTAL_SQL)).thenReturn(Map.of("total", 100L, "max_id", 100L));
+        when(jt.queryForObject(STATUS_SQL, Long.class, 0)).thenReturn(10L);
+        when(jt.queryForObject(STATUS_SQL, Long.class, 2)).thenReturn(5L);
+    }
+
+    @Test
+    void firstReadReconcilesThenServesFromMemory() {
+        assertStats(10, 85, 5, 100);
+        tracker.get(SOURCE_ID);
+
+        verify(jt, times(1)).queryForMap(TOTAL_SQL);
+    }
+
+    @Test
+    void fetchedEventsBeyondCountedRangeArePending() {
+        tracker.get(SOURCE_ID);
+
+        // 100 之前的已计入，只有 101、102 是新增
+        tracker.onFetched(SOURCE_ID, events(99, 101, 102));
+        assertStats(12, 85, 5, 102);
+
+        // 同一批重读不重复计数
+        tracker.onFetched(SOURCE_ID, events(101, 102));
+        assertStats(12, 85, 5, 102);
+    }
+
+    @Test
+    void ackMovesPendingToSuccessOrFailed() {
+        tracker.get(SOURCE_ID);
+
+        tracker.onAcked(SOURCE_ID, 3, 0);
+        tracker.onAcked(SOURCE_ID, 0, 2);
+
+        assertStats(5, 88, 7, 100);
+    }
+
+    @Test
+    void statusChangeMovesBetweenCounters() {
+        tracker.get(SOURCE_ID);
+
+        // 人工重试：失败 -> 待处理；人工跳过：待处理 -> 成功
+        tracker.onStatusChanged(SOURCE_ID, 2, 0, 2);
+        tracker.onStatusChanged(SOURCE_ID, 0, 1, 1);
+
+        assertStats(11, 86, 3, 100);
+    }
+
+    @Test
+    void untrackedSourceIgnoresIncrements() {
+        tracker.onFetched(SOURCE_ID, events(101));
+        tracker.onAcked(SOURCE_ID, 1, 0);
+
+        // 首次读取以核对结果为准
+        assertStats(10, 85, 5, 100);
+    }
+
+    @Test
+    void invalidateReconcilesOnNextRead() {
+        tracker.get(SOURCE_ID);
+        tracker.onAcked(SOURCE_ID, 3, 0);
+
+        tracker.invalidate(SOURCE_ID);
+
+        assertStats(10, 85, 5, 100);
+        verify(jt, times(2)).queryForMap(TOTAL_SQL);
+    }
+
+    @Test
+    void checkpointModeCountsOnlyWhenReconciling() {
+        ReflectionTestUtils.setField(tracker, "consumeMode", ConsumeMode.CHECKPOINT);
+        when(checkpointService.getLastEventId(SOURCE_ID, "default")).thenReturn(90L);
+        when(jt.queryForObject(CHECKPOINT_SQL, Long.class, 90L)).thenReturn(10L);
+        when(failureService.countFailedEvents(SOURCE_ID, "default")).thenReturn(4L);
+
+        assertStats(10, 86, 4, 100);
+
+        // 91..100 在核对时已计为待处理，101、102 为新增；处理完成后 95、101 失败
+        tracker.onFetched(SOURCE_ID, events(91, 92, 93, 94, 95, 96, 97, 98, 99, 100, 101, 102));
+        tracker.onSettled(SOURCE_ID, events(91, 92, 93, 94, 95, 96, 97, 98, 99, 100, 101, 102), Set.of(95L, 101L), 0);
+        assertStats(0, 96, 6, 102);
+
+        // 重读已处理的事件不再计数；此前失败的 3 个事件重试后全部送达
+        tracker.onSettled(SOURCE_ID, events(101, 102), Set.of(), 3);
+        assertStats(0, 99, 3, 102);
+
+        // 读取时不访问数据库
+        verify(jt, times(1)).queryForObject(eq(CHECKPOINT_SQL), eq(Long.class), any(Object[].class));
+        verify(failureService, times(1)).countFailedEvents(SOURCE_ID, "default");
+        verify(jt, times(0)).queryForObject(eq(STATUS_SQL), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void reconcileAllRefreshesTrackedSources() {
+        tracker.get(SOURCE_ID);
+        tracker.onAcked(SOURCE_ID, 3, 0);
+        when(jt.queryForObject(STATUS_SQL, Long.class, 0)).thenReturn(7L);
+
+        tracker.reconcileAll();
+
+        assertStats(7, 88, 5, 100);
+        verify(jt, times(2)).queryForMap(anyString());
+    }
+
+    private void assertStats(long pending, long success, long failed, long total) {
+        SyncStats stats = tracker.get(SOURCE_ID);
+        assertEquals(pending, stats.getPendingCount());
+        assertEquals(success, stats.getSuccessCount());
+        assertEquals(failed, stats.getFailedCount());
+        assertEquals(total, stats.getTotalCount());
+    }
+
+    private static List<SyncEvent> events(long... ids) {
+        return Arrays.stream(ids).mapToObj(id -> {
+            SyncEvent event = new SyncEvent();
+            event.setId(id);
+            return event;
+        }).toList();
+    }
+}
@@ -0,0 +1,66 @@
+package com.rubberhuman.dbsyncer.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class TableSchemaTest {
+
+    private static TableSchema schema(int sqlType, String typeName) {
+        return new TableSchema("t", List.of("id"), Map.of("id", new TableSchema.Column("id", sqlType, typeName, false)));
+    }
+
+    @Test
+    void charPaddingIsIgnored() {
+        TableSchema schema = schema(Types.CHAR, "CHAR");
+
+        assertEquals(schema.normalizeKey("id", "A1"), schema.normalizeKey("id", "A1      "));
+    }
+
+    @Test
+    void decimalWritingsAreEqual() {
+        TableSchema schema = schema(Types.DECIMAL, "DECIMAL");
+
+        assertEquals("1", schema.normalizeKey("id", new BigDecimal("1.0")));
+        assertEquals("1", schema.normalizeKey("id", "1"));
+        assertEquals("1000", schema.normalizeKey("id", "1E+3"));
+        assertEquals("0", schema.normalizeKey("id", new BigDecimal("0.00")));
+        // 表结构未知时，驱动返回的数字也统一写法
+        assertEquals("12", TableSchema.normalizeKeyValue(null, new BigDecimal("12.000")));
+    }
+
+    @Test
+    void uuidCaseIsIgnored() {
+        UUID uuid = UUID.fromString("3f2504e0-4f89-11d3-9a0c-0305e82c3301");
+
+        // PG uuid 类型驱动返回 UUID 对象；SQL Server uniqueidentifier 返回大写字符串
+        assertEquals(schema(Types.OTHER, "uuid").normalizeKey("id", uuid.toString().toUpperCase()),
+                schema(Types.OTHER, "uuid").normalizeKey("id", uuid));
+        assertEquals(uuid.toString(), schema(Types.CHAR, "uniqueidentifier").normalizeKey("id", uuid.toString().toUpperCase()));
+    }
+
+    @Test
+    void binaryKeysCompareAsHex() {
+        TableSchema schema = schema(Types.VARBINARY, "bytea");
+        byte[] bytes = {0x0a, (byte) 0xff};
+
+        assertEquals("0aff", schema.normalizeKey("id", bytes));
+        assertEquals("0aff", schema.normalizeKey("id", "\\x0aff"));
+        assertEquals("0aff", schema.normalizeKey("id", "0x0AFF"));
+    }
+
+    @Test
+    void varcharKeepsLeadingZerosAndSpaces() {
+        TableSchema schema = schema(Types.VARCHAR, "VARCHAR");
+
+        assertNotEquals(schema.normalizeKey("id", "007"), schema.normalizeKey("id", "7"));
+        assertEquals("a ", schema.normalizeKey("id", "a "));
+    }
+}
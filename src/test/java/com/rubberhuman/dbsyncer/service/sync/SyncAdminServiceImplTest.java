@@ -0,0 +1,152 @@
+package com.rubberhuman.dbsyncer.service.sync;
+
+import com.rubberhuman.dbsyncer.dto.sync.SyncLogPage;
+import com.rubberhuman.dbsyncer.entity.datasource.DataSourceConfig;
+import com.rubberhuman.dbsyncer.entity.sync.SyncEvent;
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.exception.BusinessException;
+import com.rubberhuman.dbsyncer.mapper.sync.SyncEventMapper;
+import com.rubberhuman.dbsyncer.service.datasource.DataSourceConfigService;
+import com.rubberhuman.dbsyncer.util.DynamicDbUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SyncAdminServiceImplTest {
+
+    private static final Long SOURCE_ID = 1L;
+
+    private DataSourceConfig config;
+    private SyncAdminServiceImpl service;
+    private final List<String> executedSql = new ArrayList<>();
+    private final List<Object[]> executedArgs = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        // 源库中有 ID 1..10 的事件，按 SQL 中的游标条件、排序和行数上限返回
+        JdbcTemplate jt = mock(JdbcTemplate.class);
+        when(jt.query(anyString(), any(ResultSetExtractor.class), any(Object[].class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            Object[] args = (Object[]) invocation.getRawArguments()[2];
+            executedSql.add(sql);
+            executedArgs.add(args);
+            return query(sql, args);
+        });
+        DynamicDbUtil dynamicDbUtil = mock(DynamicDbUtil.class);
+        when(dynamicDbUtil.getJdbcTemplate(SOURCE_ID)).thenReturn(jt);
+
+        config = new DataSourceConfig();
+        config.setSourceId(SOURCE_ID);
+        config.setDbType(DatabaseType.MYSQL);
+        DataSourceConfigService configService = mock(DataSourceConfigService.class);
+        when(configService.getById(SOURCE_ID)).thenReturn(config);
+
+        service = new SyncAdminServiceImpl();
+        ReflectionTestUtils.setField(service, "dynamicDbUtil", dynamicDbUtil);
+        ReflectionTestUtils.setField(service, "configService", configService);
+        SyncEventMapper eventMapper = mock(SyncEventMapper.class);
+        when(eventMapper.getEventsExtractor()).thenReturn(rs -> List.of());
+        ReflectionTestUtils.setField(service, "eventMapper", eventMapper);
+    }
+
+    @Test
+    void firstPageHasOnlyOlderCursor() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, null, null, 3);
+
+        assertPage(page, List.of(10L, 9L, 8L), 8L, null);
+    }
+
+    @Test
+    void middlePageHasBothCursors() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, 8L, null, 3);
+
+        assertPage(page, List.of(7L, 6L, 5L), 5L, 7L);
+    }
+
+    @Test
+    void lastPageHasOnlyNewerCursor() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, 3L, null, 3);
+
+        assertPage(page, List.of(2L, 1L), null, 2L);
+    }
+
+    @Test
+    void pagingNewerTakesRowsNextToCursor() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, null, 4L, 3);
+
+        // 按升序取 5、6、7（多取的 8 说明还有更新的），再反转为从新到旧
+        assertPage(page, List.of(7L, 6L, 5L), 5L, 7L);
+        assertTrue(executedSql.get(0).contains("ORDER BY id ASC"));
+    }
+
+    @Test
+    void pagingNewerStopsAtNewest() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, null, 8L, 3);
+
+        assertPage(page, List.of(10L, 9L), 9L, null);
+    }
+
+    @Test
+    void emptyPageHasNoCursors() {
+        SyncLogPage page = service.listLogs(SOURCE_ID, null, 1L, null, 3);
+
+        assertPage(page, List.of(), null, null);
+    }
+
+    @Test
+    void bindsStatusAndCapsLimit() {
+        config.setDbType(DatabaseType.SQL_SERVER);
+
+        service.listLogs(SOURCE_ID, 2, 8L, null, 10000);
+
+        // 条件全部绑定参数；单页上限 500 条，多取一条
+        assertTrue(executedSql.get(0).endsWith("OFFSET 0 ROWS FETCH NEXT ? ROWS ONLY"));
+        assertEquals(List.of(2, 8L, 501), List.of(executedArgs.get(0)));
+    }
+
+    @Test
+    void rejectsBothCursors() {
+        assertThrows(BusinessException.class, () -> service.listLogs(SOURCE_ID, null, 5L, 3L, 3));
+    }
+
+    private static void assertPage(SyncLogPage page, List<Long> ids, Long nextCursor, Long prevCursor) {
+        assertEquals(ids, page.getItems().stream().map(SyncEvent::getId).toList());
+        assertEquals(nextCursor, page.getNextCursor());
+        assertEquals(prevCursor, page.getPrevCursor());
+    }
+
+    // 只解析游标条件（status 条件不影响测试数据），最后一个参数为行数上限
+    private static List<SyncEvent> query(String sql, Object[] args) {
+        int arg = sql.contains("status = ?") ? 1 : 0;
+        Long beforeId = sql.contains("id < ?") ? (Long) args[arg++] : null;
+        Long afterId = sql.contains("id > ?") ? (Long) args[arg] : null;
+        int limit = (Integer) args[args.length - 1];
+        Comparator<Long> order = sql.contains("ORDER BY id ASC") ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        return LongStream.rangeClosed(1, 10).boxed()
+                .filter(id -> beforeId == null || id < beforeId)
+                .filter(id -> afterId == null || id > afterId)
+                .sorted(order)
+                .limit(limit)
+                .map(id -> {
+                    SyncEvent event = new SyncEvent();
+                    event.setId(id);
+                    return event;
+                })
+                .toList();
+    }
+}
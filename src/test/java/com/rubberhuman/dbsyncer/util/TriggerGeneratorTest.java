@@ -0,0 +1,135 @@
+package com.rubberhuman.dbsyncer.util;
+
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import com.rubberhuman.dbsyncer.enums.sync.TriggerMode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TriggerGeneratorTest {
+
+    private static final String DDL = "CREATE TABLE orders (id BIGINT PRIMARY KEY, name VARCHAR(50), sync_version BIGINT);";
+
+    @Test
+    void mysqlRowTriggers() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.MYSQL);
+
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_before_update BEFORE UPDATE ON orders FOR EACH ROW"));
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_insert AFTER INSERT ON orders FOR EACH ROW"));
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_update AFTER UPDATE ON orders FOR EACH ROW"));
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_delete AFTER DELETE ON orders FOR EACH ROW"));
+    }
+
+    @Test
+    void skipsTableWithoutPrimaryKey() {
+        String sql = TriggerGenerator.generate("CREATE TABLE logs (msg VARCHAR(50));", DatabaseType.MYSQL);
+
+        assertEquals("-- [WARN] 表 logs 未找到主键，无法生成触发器\n", sql);
+    }
+
+    @Test
+    void oracleRowTriggers() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.ORACLE);
+
+        assertTrue(sql.contains("CREATE OR REPLACE TRIGGER trg_orders_ver \nBEFORE UPDATE ON orders FOR EACH ROW"));
+        assertTrue(sql.contains("CREATE OR REPLACE TRIGGER trg_orders_sync \nAFTER INSERT OR UPDATE OR DELETE ON orders FOR EACH ROW"));
+        assertFalse(sql.contains("COMPOUND TRIGGER"));
+    }
+
+    @Test
+    void oracleStatementModeUsesCompoundTrigger() {
+        TriggerOptions options = options(TriggerMode.STATEMENT);
+        options.setCaptureChangedColumns(true);
+
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.ORACLE, options);
+
+        // 版本维护并入复合触发器，先删除行级版本触发器
+        assertTrue(sql.contains("EXECUTE IMMEDIATE 'DROP TRIGGER trg_orders_ver'"));
+        assertTrue(sql.contains("FOR INSERT OR UPDATE OR DELETE ON orders \nCOMPOUND TRIGGER"));
+        assertTrue(sql.contains("FORALL i IN 1 .. g_events.COUNT"));
+        assertTrue(sql.contains(":NEW.sync_version := :OLD.sync_version + 1;"));
+        assertTrue(sql.contains("changed_columns VARCHAR2(4000)"));
+        // 版本号列不参与变更比较
+        assertTrue(sql.contains("',name'"));
+        assertFalse(sql.contains("',sync_version'"));
+        assertTrue(sql.endsWith("END trg_orders_sync; \n/\n\n"));
+    }
+
+    @Test
+    void postgresGenericSharesOneFunction() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.POSTGRESQL, options(TriggerMode.GENERIC));
+
+        assertTrue(sql.contains("CREATE OR REPLACE FUNCTION notify_sync_event() RETURNS TRIGGER"));
+        assertTrue(sql.contains("FOR EACH ROW EXECUTE FUNCTION notify_sync_event("));
+        assertFalse(sql.contains("notify_sync_event_orders"));
+    }
+
+    @Test
+    void postgresPerTableUsesDedicatedFunction() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.POSTGRESQL, options(TriggerMode.PER_TABLE));
+
+        assertTrue(sql.contains("CREATE OR REPLACE FUNCTION increment_version()"));
+        assertFalse(sql.contains("CREATE OR REPLACE FUNCTION notify_sync_event()"));
+        assertTrue(sql.contains("CREATE OR REPLACE FUNCTION notify_sync_event_orders() RETURNS TRIGGER"));
+        assertTrue(sql.contains("NEW.id::TEXT, 0, NOW(), 'POSTGRESQL', NEW.sync_version"));
+        assertTrue(sql.contains("FOR EACH ROW EXECUTE FUNCTION notify_sync_event_orders();"));
+    }
+
+    @Test
+    void postgresStatementUsesTransitionTables() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.POSTGRESQL, options(TriggerMode.STATEMENT));
+
+        assertTrue(sql.contains("CREATE OR REPLACE FUNCTION notify_sync_event_orders_stmt() RETURNS TRIGGER"));
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_sync_ins AFTER INSERT ON orders \nREFERENCING NEW TABLE AS new_rows \nFOR EACH STATEMENT"));
+        assertTrue(sql.contains("REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows \nFOR EACH STATEMENT"));
+        assertTrue(sql.contains("CREATE TRIGGER trg_orders_sync_del AFTER DELETE ON orders \nREFERENCING OLD TABLE AS old_rows \nFOR EACH STATEMENT"));
+        assertTrue(sql.contains("FROM new_rows n JOIN old_rows o ON o.id = n.id"));
+        assertFalse(sql.contains("FOR EACH ROW EXECUTE FUNCTION notify_sync_event_orders()"));
+    }
+
+    @Test
+    void sqlServerAfterTrigger() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.SQL_SERVER);
+
+        assertTrue(sql.contains("CREATE OR ALTER TRIGGER trg_orders_sync ON orders \nAFTER INSERT, UPDATE, DELETE"));
+        assertTrue(sql.contains("SET t.sync_version = ISNULL(d.sync_version,0) + 1"));
+        assertFalse(sql.contains("INSTEAD OF"));
+    }
+
+    @Test
+    void sqlServerInsteadOfWritesVersionOnce() {
+        String sql = TriggerGenerator.generate(DDL, DatabaseType.SQL_SERVER, options(TriggerMode.INSTEAD_OF));
+
+        assertTrue(sql.contains("CREATE OR ALTER TRIGGER trg_orders_ins ON orders \nINSTEAD OF INSERT"));
+        assertTrue(sql.contains("INSERT INTO orders (id, name, sync_version) \n    SELECT i.id, i.name, i.sync_version FROM inserted i;"));
+        assertTrue(sql.contains("CREATE OR ALTER TRIGGER trg_orders_upd ON orders \nINSTEAD OF UPDATE"));
+        // 主键与版本号列不在赋值列表中，版本号在同一次写入里自增
+        assertTrue(sql.contains("UPDATE t SET name = i.name, sync_version = ISNULL(d.sync_version,0) + 1"));
+        assertTrue(sql.contains("CREATE OR ALTER TRIGGER trg_orders_sync ON orders \nAFTER DELETE"));
+    }
+
+    @Test
+    void sqlServerInsteadOfSkipsIdentityTable() {
+        String ddl = "CREATE TABLE orders (id INT IDENTITY(1,1) PRIMARY KEY, name VARCHAR(50), sync_version BIGINT);";
+
+        String sql = TriggerGenerator.generate(ddl, DatabaseType.SQL_SERVER, options(TriggerMode.INSTEAD_OF));
+
+        assertEquals("-- [WARN] 表 orders 含 IDENTITY 列，不支持替代触发器，请使用默认模式\n", sql);
+    }
+
+    @Test
+    void otherDatabasesFallBackToPerTable() {
+        assertEquals(TriggerGenerator.generate(DDL, DatabaseType.MYSQL, options(TriggerMode.PER_TABLE)),
+                TriggerGenerator.generate(DDL, DatabaseType.MYSQL, options(TriggerMode.STATEMENT)));
+        assertEquals(TriggerGenerator.generate(DDL, DatabaseType.ORACLE, options(TriggerMode.PER_TABLE)),
+                TriggerGenerator.generate(DDL, DatabaseType.ORACLE, options(TriggerMode.INSTEAD_OF)));
+    }
+
+    private static TriggerOptions options(TriggerMode mode) {
+        TriggerOptions options = new TriggerOptions();
+        options.setMode(mode);
+        return options;
+    }
+}
@@ -0,0 +1,68 @@
+package com.rubberhuman.dbsyncer.util;
+
+import com.rubberhuman.dbsyncer.enums.datasource.DatabaseType;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpsertSqlBuilderTest {
+
+    private static final List<String> COLUMNS = List.of("id", "name", "amount");
+
+    @Test
+    void mysql() {
+        assertEquals("INSERT INTO orders (id, name, amount) VALUES (?, ?, ?)"
+                        + " ON DUPLICATE KEY UPDATE name = VALUES(name), amount = VALUES(amount)",
+                UpsertSqlBuilder.build(DatabaseType.MYSQL, "orders", "id", COLUMNS));
+    }
+
+    @Test
+    void postgres() {
+        assertEquals("INSERT INTO orders (id, name, amount) VALUES (?, ?, ?)"
+                        + " ON CONFLICT (id) DO UPDATE SET name = EXCLUDED.name, amount = EXCLUDED.amount",
+                UpsertSqlBuilder.build(DatabaseType.POSTGRESQL, "orders", "id", COLUMNS));
+    }
+
+    @Test
+    void oracle() {
+        assertEquals("MERGE INTO orders d USING (SELECT ? AS id, ? AS name, ? AS amount FROM DUAL) s"
+                        + " ON (d.id = s.id)"
+                        + " WHEN MATCHED THEN UPDATE SET d.name = s.name, d.amount = s.amount"
+                        + " WHEN NOT MATCHED THEN INSERT (id, name, amount) VALUES (s.id, s.name, s.amount)",
+                UpsertSqlBuilder.build(DatabaseType.ORACLE, "orders", "id", COLUMNS));
+    }
+
+    @Test
+    void sqlServer() {
+        assertEquals("MERGE INTO orders AS d USING (VALUES (?, ?, ?)) AS s (id, name, amount)"
+                        + " ON d.id = s.id"
+                        + " WHEN MATCHED THEN UPDATE SET d.name = s.name, d.amount = s.amount"
+                        + " WHEN NOT MATCHED THEN INSERT (id, name, amount) VALUES (s.id, s.name, s.amount);",
+                UpsertSqlBuilder.build(DatabaseType.SQL_SERVER, "orders", "id", COLUMNS));
+    }
+
+    @Test
+    void pkOnlyTable() {
+        List<String> pkOnly = List.of("id");
+
+        assertEquals("INSERT INTO tags (id) VALUES (?) ON DUPLICATE KEY UPDATE id = id",
+                UpsertSqlBuilder.build(DatabaseType.MYSQL, "tags", "id", pkOnly));
+        assertEquals("INSERT INTO tags (id) VALUES (?) ON CONFLICT (id) DO NOTHING",
+                UpsertSqlBuilder.build(DatabaseType.POSTGRESQL, "tags", "id", pkOnly));
+        // 没有非主键列时 MERGE 只保留 WHEN NOT MATCHED 分支
+        assertEquals("MERGE INTO tags d USING (SELECT ? AS id FROM DUAL) s ON (d.id = s.id)"
+                        + " WHEN NOT MATCHED THEN INSERT (id) VALUES (s.id)",
+                UpsertSqlBuilder.build(DatabaseType.ORACLE, "tags", "id", pkOnly));
+        assertEquals("MERGE INTO tags AS d USING (VALUES (?)) AS s (id) ON d.id = s.id"
+                        + " WHEN NOT MATCHED THEN INSERT (id) VALUES (s.id);",
+                UpsertSqlBuilder.build(DatabaseType.SQL_SERVER, "tags", "id", pkOnly));
+    }
+
+    @Test
+    void pkMatchIgnoresCase() {
+        assertEquals("INSERT INTO orders (ID, name) VALUES (?, ?) ON DUPLICATE KEY UPDATE name = VALUES(name)",
+                UpsertSqlBuilder.build(DatabaseType.MYSQL, "orders", "id", List.of("ID", "name")));
+    }
+}